@@ -0,0 +1,149 @@
+package com.ucms.benchmark;
+
+import com.ucms.entity.Grade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grade distribution and average grade points over a list of grades, as the grade analytics
+ * compute them: letters counted into a HashMap with a string switch for the points (the way it
+ * was done before grades became an enum), against counts in an array indexed by ordinal.
+ *
+ * Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeAggregationBenchmark {
+
+    private static final List<String> LETTERS =
+            Arrays.asList("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
+
+    @Param({"1000000"})
+    private int size;
+
+    // The same grades in both representations; about one in ten is still pending (null)
+    private String[] letters;
+    private Grade[] grades;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        letters = new String[size];
+        grades = new Grade[size];
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(10) == 0) {
+                continue;
+            }
+            Grade grade = Grade.ofOrdinal(random.nextInt(Grade.count()));
+            // Fresh strings, as they would come out of a result set
+            letters[i] = new String(grade.getLetter());
+            grades[i] = grade;
+        }
+    }
+
+    @Benchmark
+    public void stringsAndHashMap(Blackhole blackhole) {
+        Map<String, Integer> distribution = new HashMap<>();
+        LETTERS.forEach(letter -> distribution.put(letter, 0));
+        int graded = 0;
+        int passing = 0;
+        double points = 0;
+        for (String letter : letters) {
+            if (letter != null && isValidGrade(letter)) {
+                distribution.put(letter, distribution.getOrDefault(letter, 0) + 1);
+                points += getGradePoints(letter);
+                graded++;
+                if (!letter.equals("F")) {
+                    passing++;
+                }
+            }
+        }
+        blackhole.consume(distribution);
+        blackhole.consume(graded > 0 ? points / graded : 0.0);
+        blackhole.consume(passing);
+    }
+
+    @Benchmark
+    public void enumAndOrdinalArray(Blackhole blackhole) {
+        int[] distribution = new int[Grade.count()];
+        int graded = 0;
+        int passing = 0;
+        double points = 0;
+        for (Grade grade : grades) {
+            if (grade != null) {
+                distribution[grade.ordinal()]++;
+                points += grade.getPoints();
+                graded++;
+                if (grade.isPassing()) {
+                    passing++;
+                }
+            }
+        }
+        blackhole.consume(distribution);
+        blackhole.consume(graded > 0 ? points / graded : 0.0);
+        blackhole.consume(passing);
+    }
+
+    // Reading the stored code back is part of the cost of the enum path
+    @Benchmark
+    public void codesToEnumAndOrdinalArray(Blackhole blackhole) {
+        int[] distribution = new int[Grade.count()];
+        int graded = 0;
+        double points = 0;
+        for (Grade grade : grades) {
+            if (grade != null) {
+                Grade decoded = Grade.fromCode(grade.getCode());
+                distribution[decoded.ordinal()]++;
+                points += decoded.getPoints();
+                graded++;
+            }
+        }
+        blackhole.consume(distribution);
+        blackhole.consume(graded > 0 ? points / graded : 0.0);
+    }
+
+    private static boolean isValidGrade(String grade) {
+        Set<String> validGrades = Set.of("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
+        return validGrades.contains(grade.toUpperCase());
+    }
+
+    private static double getGradePoints(String grade) {
+        switch (grade.toUpperCase()) {
+            case "A+": case "A": return 4.0;
+            case "A-": return 3.7;
+            case "B+": return 3.3;
+            case "B": return 3.0;
+            case "B-": return 2.7;
+            case "C+": return 2.3;
+            case "C": return 2.0;
+            case "C-": return 1.7;
+            case "D+": return 1.3;
+            case "D": return 1.0;
+            case "D-": return 0.7;
+            default: return 0.0;
+        }
+    }
+}
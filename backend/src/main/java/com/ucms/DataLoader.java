@@ -4,10 +4,15 @@ import com.ucms.entity.User;
 import com.ucms.entity.Student;
 import com.ucms.entity.Professor;
 import com.ucms.entity.Course;
+import com.ucms.entity.Semester;
+import com.ucms.entity.Department;
+import com.ucms.entity.Grade;
 import com.ucms.repository.UserRepository;
 import com.ucms.repository.StudentRepository;
 import com.ucms.repository.ProfessorRepository;
 import com.ucms.repository.CourseRepository;
+import com.ucms.service.SemesterService;
+import com.ucms.service.DepartmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class DataLoader implements CommandLineRunner {
@@ -38,9 +44,17 @@ public class DataLoader implements CommandLineRunner {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private SemesterService semesterService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
     @Override
     @Transactional
     public void run(String... args) throws Exception {
+        migrateLegacySchema();
+
         // Only initialize if no users exist (fresh database)
         if (userRepository.count() > 0) {
             System.out.println("Database already initialized, skipping data loading");
@@ -98,9 +112,10 @@ public class DataLoader implements CommandLineRunner {
         professor.setEmployeeId("PROF" + professorUser.getId());
         professor.setName("Professor");
         professor.setEmail("professor@university.edu");
-        professor.setDepartment("Computer Science");
+        professor.setDepartment(departmentService.getOrCreate("Computer Science"));
         
         professorRepository.save(professor);
+        departmentService.professorAdded(professor.getDepartment());
         System.out.println("Test professor user created with username: professor, password: professor123");
 
         // Create prof2 user for frontend testing
@@ -119,49 +134,115 @@ public class DataLoader implements CommandLineRunner {
         prof2.setEmployeeId("PROF" + prof2User.getId());
         prof2.setName("Professor prof2");
         prof2.setEmail("prof2@university.edu");
-        prof2.setDepartment("Computer Science");
+        prof2.setDepartment(departmentService.getOrCreate("Computer Science"));
         
         Professor savedProf2 = professorRepository.save(prof2);
+        departmentService.professorAdded(savedProf2.getDepartment());
         System.out.println("Test prof2 user created with username: prof2, password: prof123");
 
         // Create sample courses
         createSampleCourses(savedProf2);
     }
 
+    private void migrateLegacySchema() {
+        // Courses used to store the semester name inline; move those names into the semesters table
+        Integer legacySemesterColumn = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'courses' AND column_name = 'semester'",
+            Integer.class);
+        if (legacySemesterColumn != null && legacySemesterColumn > 0) {
+            List<String> semesterNames = jdbcTemplate.queryForList(
+                "SELECT DISTINCT semester FROM courses WHERE semester IS NOT NULL", String.class);
+            semesterNames.forEach(semesterService::getOrCreate);
+            jdbcTemplate.update("UPDATE courses c SET semester_id = s.id FROM semesters s " +
+                "WHERE c.semester_id IS NULL AND s.name = c.semester");
+            jdbcTemplate.execute("ALTER TABLE courses DROP COLUMN semester");
+            semesterService.recalculateTotals();
+            System.out.println("Migrated " + semesterNames.size() + " semesters out of the courses table");
+        }
+
+        // Professors used to store the department name inline; courses take the department of their professor
+        Integer legacyDepartmentColumn = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'professors' AND column_name = 'department'",
+            Integer.class);
+        if (legacyDepartmentColumn != null && legacyDepartmentColumn > 0) {
+            List<String> departmentNames = jdbcTemplate.queryForList(
+                "SELECT DISTINCT TRIM(department) FROM professors WHERE department IS NOT NULL AND TRIM(department) <> ''",
+                String.class);
+            departmentNames.forEach(departmentService::getOrCreate);
+            jdbcTemplate.update("UPDATE professors p SET department_id = d.id FROM departments d " +
+                "WHERE p.department_id IS NULL AND d.name = TRIM(p.department)");
+            jdbcTemplate.update("UPDATE courses c SET department_id = p.department_id FROM professors p " +
+                "WHERE c.department_id IS NULL AND p.id = c.professor_id");
+            jdbcTemplate.execute("ALTER TABLE professors DROP COLUMN department");
+            departmentService.recalculateTotals();
+            System.out.println("Migrated " + departmentNames.size() + " departments out of the professors table");
+        }
+
+        // Grades used to be stored as letters; they are SMALLINT codes now
+        String gradeType = jdbcTemplate.query(
+            "SELECT data_type FROM information_schema.columns WHERE table_name = 'enrollments' AND column_name = 'grade'",
+            rs -> rs.next() ? rs.getString(1) : null);
+        if (gradeType != null && !"smallint".equals(gradeType)) {
+            StringBuilder letterToCode = new StringBuilder("CASE UPPER(TRIM(grade))");
+            for (Grade grade : Grade.values()) {
+                letterToCode.append(" WHEN '").append(grade.getLetter()).append("' THEN ").append(grade.getCode());
+            }
+            letterToCode.append(" END");
+            Integer unknown = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM enrollments WHERE grade IS NOT NULL AND " + letterToCode + " IS NULL",
+                Integer.class);
+            jdbcTemplate.execute("ALTER TABLE enrollments ALTER COLUMN grade TYPE SMALLINT USING " + letterToCode);
+            System.out.println("Converted enrollment grades to codes" +
+                (unknown != null && unknown > 0 ? "; " + unknown + " grades not on the scale were cleared" : ""));
+        }
+    }
+
     private void createSampleCourses(Professor professor) {
+        Semester fall2025 = semesterService.getOrCreate("Fall 2025");
+        Department department = professor.getDepartment();
+
         // Create sample courses taught by the professor
         Course course1 = new Course();
         course1.setCode("CS101");
         course1.setTitle("Intro to CS");
         course1.setDescription("Introduction to Computer Science");
-        course1.setSemester("Fall 2025");
+        course1.setSemester(fall2025);
         course1.setCapacity(30);
         course1.setAvailableSeats(30);
         course1.setProfessor(professor);
+        course1.setDepartment(department);
         course1.setScheduleInfo("Mon/Wed/Fri 10:00-11:00 AM");
         courseRepository.save(course1);
+        semesterService.courseAdded(fall2025);
+        departmentService.courseAdded(department);
 
         Course course2 = new Course();
         course2.setCode("CS102");
         course2.setTitle("Intro to Networking");
         course2.setDescription("Introduction to Computer Networking");
-        course2.setSemester("Fall 2025");
+        course2.setSemester(fall2025);
         course2.setCapacity(25);
         course2.setAvailableSeats(25);
         course2.setProfessor(professor);
+        course2.setDepartment(department);
         course2.setScheduleInfo("Tue/Thu 2:00-4:00 PM");
         courseRepository.save(course2);
+        semesterService.courseAdded(fall2025);
+        departmentService.courseAdded(department);
 
         Course course3 = new Course();
         course3.setCode("AI100");
         course3.setTitle("Higher Mathematics");
         course3.setDescription("Advanced Mathematical Concepts");
-        course3.setSemester("Fall 2025");
+        course3.setSemester(fall2025);
         course3.setCapacity(20);
         course3.setAvailableSeats(20);
         course3.setProfessor(professor);
+        course3.setDepartment(department);
         course3.setScheduleInfo("Mon/Wed 1:00-3:00 PM");
         courseRepository.save(course3);
+        semesterService.courseAdded(fall2025);
+        departmentService.courseAdded(department);
 
         System.out.println("Sample courses created and assigned to professor");
     }
@@ -7,16 +7,45 @@ import com.ucms.entity.User;
 import com.ucms.repository.ProfessorRepository;
 import com.ucms.repository.StudentRepository;
 import com.ucms.repository.UserRepository;
+import com.ucms.service.AcademicStandingService;
 import com.ucms.service.AdminService;
+import com.ucms.service.AnalyticsCacheService;
+import com.ucms.service.CapacityForecastService;
+import com.ucms.service.CohortAnalyticsService;
+import com.ucms.service.DistinctActivityService;
+import com.ucms.service.FillRateService;
+import com.ucms.service.GradeCubeService;
+import com.ucms.service.GradeHistoryService;
+import com.ucms.service.GradeSketchService;
+import com.ucms.service.ProfessorWorkloadService;
+import com.ucms.service.ReportJobService;
+import com.ucms.service.ReportService;
+import com.ucms.service.StudentActivityService;
+import com.ucms.service.TranscriptCacheService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import jakarta.validation.Valid;
@@ -41,6 +70,48 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private GradeSketchService gradeSketchService;
+
+    @Autowired
+    private CohortAnalyticsService cohortAnalyticsService;
+
+    @Autowired
+    private ProfessorWorkloadService professorWorkloadService;
+
+    @Autowired
+    private FillRateService fillRateService;
+
+    @Autowired
+    private CapacityForecastService capacityForecastService;
+
+    @Autowired
+    private StudentActivityService studentActivityService;
+
+    @Autowired
+    private DistinctActivityService distinctActivityService;
+
+    @Autowired
+    private AnalyticsCacheService analyticsCacheService;
+
+    @Autowired
+    private TranscriptCacheService transcriptCacheService;
+
+    @Autowired
+    private GradeCubeService gradeCubeService;
+
+    @Autowired
+    private AcademicStandingService academicStandingService;
+
+    @Autowired
+    private GradeHistoryService gradeHistoryService;
+
     // ===============================
     // USER MANAGEMENT ENDPOINTS
     // ===============================
@@ -256,7 +327,7 @@ public class AdminController {
                     response.setName(professor.getName());
                     response.setEmail(professor.getEmail());
                     response.setEmployeeId(professor.getEmployeeId());
-                    response.setDepartment(professor.getDepartment());
+                    response.setDepartment(professor.getDepartmentName());
                 } else {
                     response.setName("Professor Profile Missing");
                     response.setEmail("");
@@ -313,6 +384,61 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getAllStudents(page, size, sortBy, sortDir, search));
     }
 
+    /**
+     * Count students with and without enrollments, overall or in one semester
+     */
+    @GetMapping("/students/activity")
+    public ResponseEntity<StudentActivityResponse> getStudentActivity(
+            @RequestParam(required = false) String semester) {
+        return ResponseEntity.ok(studentActivityService.getActivity(semester));
+    }
+
+    /**
+     * List active or inactive students, overall or in one semester
+     */
+    @GetMapping("/students/activity/{status}")
+    public ResponseEntity<Page<StudentSummaryResponse>> getStudentsByActivity(
+            @PathVariable String status,
+            @RequestParam(required = false) String semester,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!status.equalsIgnoreCase("active") && !status.equalsIgnoreCase("inactive")) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(studentActivityService.getStudents(
+                semester, status.equalsIgnoreCase("active"), page, size));
+    }
+
+    /**
+     * Count distinct active users per day, week or month (HyperLogLog estimates)
+     */
+    @GetMapping("/activity/distinct")
+    public ResponseEntity<DistinctActivityResponse> getDistinctActivity(
+            @RequestParam(defaultValue = "day") String period,
+            @RequestParam(required = false) Integer count) {
+        return ResponseEntity.ok(distinctActivityService.getDistinctActivity(period, count));
+    }
+
+    /**
+     * Export this node's distinct activity sketches so another node can merge them
+     */
+    @GetMapping("/activity/sketches")
+    public ResponseEntity<StreamingResponseBody> exportActivitySketches() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"distinct-activity.bin.gz\"")
+                .body(distinctActivityService::export);
+    }
+
+    /**
+     * Merge distinct activity sketches exported by another node
+     */
+    @PostMapping(value = "/activity/sketches", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<String> mergeActivitySketches(HttpServletRequest request) throws IOException {
+        int days = distinctActivityService.merge(request.getInputStream());
+        return ResponseEntity.ok("Merged activity sketches for " + days + " days");
+    }
+
     /**
      * Get student details with enrollment history
      */
@@ -384,6 +510,14 @@ public class AdminController {
         return ResponseEntity.ok(adminService.updateGrade(enrollmentId, request));
     }
 
+    /**
+     * Get every recorded change to an enrollment, oldest first
+     */
+    @GetMapping("/grades/{enrollmentId}/history")
+    public ResponseEntity<List<GradeHistoryResponse>> getGradeHistory(@PathVariable Long enrollmentId) {
+        return ResponseEntity.ok(gradeHistoryService.getEnrollmentHistory(enrollmentId));
+    }
+
     /**
      * Get grade analytics and reporting
      */
@@ -402,6 +536,82 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getCourseGradeDistribution(courseId));
     }
 
+    /**
+     * Get GPA, attendance and participation percentiles for a semester and/or department
+     */
+    @GetMapping("/grades/percentiles")
+    public ResponseEntity<GradePercentilesResponse> getGradePercentiles(
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String department) {
+        return ResponseEntity.ok(gradeSketchService.getPercentiles(semester, department));
+    }
+
+    /**
+     * Get GPA, attendance and participation percentiles for a single course
+     */
+    @GetMapping("/grades/percentiles/{courseId}")
+    public ResponseEntity<GradePercentilesResponse> getCourseGradePercentiles(@PathVariable Long courseId) {
+        return ResponseEntity.ok(gradeSketchService.getCoursePercentiles(courseId));
+    }
+
+    /**
+     * Drill down grade counts from all semesters to a semester, a department and a course
+     */
+    @GetMapping("/grades/cube")
+    public ResponseEntity<GradeCubeResponse> getGradeCube(
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) Long courseId) {
+        return ResponseEntity.ok(gradeCubeService.drillDown(semester, department, courseId));
+    }
+
+    /**
+     * Get how a semester's courses filled up over time
+     */
+    @GetMapping("/fill-curves")
+    public ResponseEntity<FillCurveResponse> getSemesterFillCurve(@RequestParam String semester) {
+        return ResponseEntity.ok(fillRateService.getSemesterCurve(semester));
+    }
+
+    /**
+     * Get how one course filled up over time
+     */
+    @GetMapping("/fill-curves/courses/{courseId}")
+    public ResponseEntity<FillCurveResponse> getCourseFillCurve(@PathVariable Long courseId) {
+        return ResponseEntity.ok(fillRateService.getCourseCurve(courseId));
+    }
+
+    /**
+     * Get suggested course capacities for the upcoming (or given) semester
+     */
+    @GetMapping("/capacity-forecast")
+    public ResponseEntity<CapacityForecastResponse> getCapacityForecast(
+            @RequestParam(required = false) String semester,
+            @RequestParam(defaultValue = "false") boolean underProvisionedOnly) {
+        return ResponseEntity.ok(capacityForecastService.getForecast(semester, underProvisionedOnly));
+    }
+
+    /**
+     * Recompute the capacity forecast now instead of waiting for the nightly run
+     */
+    @PostMapping("/capacity-forecast/refresh")
+    public ResponseEntity<CapacityForecastResponse> refreshCapacityForecast(
+            @RequestParam(required = false) String semester) {
+        return ResponseEntity.ok(capacityForecastService.refresh(semester));
+    }
+
+    /**
+     * Compare cohorts by major and class year, optionally rolled up by major or by year
+     */
+    @GetMapping("/cohorts")
+    public ResponseEntity<List<CohortStatsResponse>> getCohortStats(
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String major,
+            @RequestParam(required = false) String year,
+            @RequestParam(required = false) String groupBy) {
+        return ResponseEntity.ok(cohortAnalyticsService.getCohortStats(semester, major, year, groupBy));
+    }
+
     // ===============================
     // SYSTEM ADMINISTRATION
     // ===============================
@@ -422,6 +632,60 @@ public class AdminController {
         return ResponseEntity.ok(adminService.createSemester(request));
     }
 
+    /**
+     * Close a semester: its enrollments and grades become read-only and its analytics are frozen
+     */
+    @PostMapping("/semesters/{semesterId}/close")
+    public ResponseEntity<SemesterSnapshotResponse> closeSemester(
+            @PathVariable Long semesterId,
+            @RequestParam(defaultValue = "false") boolean force) {
+        return ResponseEntity.ok(adminService.closeSemester(semesterId, force));
+    }
+
+    /**
+     * Get the analytics frozen when a semester was closed
+     */
+    @GetMapping("/semesters/{semesterId}/snapshot")
+    public ResponseEntity<SemesterSnapshotResponse> getSemesterSnapshot(@PathVariable Long semesterId) {
+        return ResponseEntity.ok(adminService.getSemesterSnapshot(semesterId));
+    }
+
+    /**
+     * Re-evaluate every student's academic standing for every graded semester
+     */
+    @PostMapping("/standing/evaluate")
+    public ResponseEntity<StandingEvaluationResponse> evaluateAcademicStanding() {
+        return ResponseEntity.ok(academicStandingService.evaluate());
+    }
+
+    /**
+     * Get academic standings for a semester, e.g. its dean's list or students on probation
+     */
+    @GetMapping("/standing")
+    public ResponseEntity<List<AcademicStandingResponse>> getSemesterStandings(
+            @RequestParam String semester,
+            @RequestParam(required = false) String standing) {
+        return ResponseEntity.ok(academicStandingService.getSemesterStandings(semester, standing));
+    }
+
+    /**
+     * Get a student's academic standing history
+     */
+    @GetMapping("/students/{studentId}/standing")
+    public ResponseEntity<List<AcademicStandingResponse>> getStudentStandings(@PathVariable Long studentId) {
+        return ResponseEntity.ok(academicStandingService.getStudentStandings(studentId));
+    }
+
+    /**
+     * Get a student's transcript as it stood at a past moment, e.g. ?asOf=2026-01-15T00:00:00
+     */
+    @GetMapping("/students/{studentId}/transcript")
+    public ResponseEntity<StudentTranscriptResponse> getTranscriptAsOf(
+            @PathVariable Long studentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return ResponseEntity.ok(gradeHistoryService.getTranscriptAt(studentId, asOf));
+    }
+
     /**
      * Get department management data
      */
@@ -438,6 +702,30 @@ public class AdminController {
         return ResponseEntity.ok(adminService.createDepartment(request));
     }
 
+    /**
+     * Get teaching workload per professor of a department
+     */
+    @GetMapping("/departments/{departmentId}/workload")
+    public ResponseEntity<DepartmentWorkloadResponse> getDepartmentWorkload(@PathVariable Long departmentId) {
+        return ResponseEntity.ok(professorWorkloadService.getDepartmentWorkload(departmentId));
+    }
+
+    /**
+     * Get analytics cache hit rates and the current data versions
+     */
+    @GetMapping("/analytics/cache")
+    public ResponseEntity<AnalyticsCacheStatsResponse> getAnalyticsCacheStats() {
+        return ResponseEntity.ok(analyticsCacheService.getStats());
+    }
+
+    /**
+     * Get transcript cache hit rates
+     */
+    @GetMapping("/transcripts/cache")
+    public ResponseEntity<TranscriptCacheStatsResponse> getTranscriptCacheStats() {
+        return ResponseEntity.ok(transcriptCacheService.getStats());
+    }
+
     /**
      * Get comprehensive system statistics
      */
@@ -465,4 +753,122 @@ public class AdminController {
             @RequestParam(required = false) String department) {
         return ResponseEntity.ok(adminService.generateReport(reportType, semester, department));
     }
+
+    /**
+     * Stream report rows as CSV or NDJSON straight from the database cursor
+     */
+    @GetMapping("/reports/{reportType}/export")
+    public ResponseEntity<StreamingResponseBody> exportReport(
+            @PathVariable String reportType,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String department) {
+        if (!reportService.isExportable(reportType)) {
+            return ResponseEntity.badRequest().build();
+        }
+        ReportService.ReportFormat reportFormat = ReportService.ReportFormat.fromString(format);
+        String filename = reportType.toLowerCase() + "-report." + reportFormat.getExtension();
+
+        StreamingResponseBody body = outputStream ->
+                reportService.writeReport(reportType, reportFormat, semester, department, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(reportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Queue a report to be generated in the background
+     */
+    @PostMapping("/reports/{reportType}/jobs")
+    public ResponseEntity<ReportJobResponse> submitReportJob(
+            @PathVariable String reportType,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String semester,
+            @RequestParam(required = false) String department,
+            Authentication authentication) {
+        ReportJobResponse job = reportJobService.submit(reportType, format, semester, department, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * Queue transcripts for every student of a year and/or major, e.g. a graduating class
+     */
+    @PostMapping("/transcripts/jobs")
+    public ResponseEntity<ReportJobResponse> submitTranscriptJob(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String year,
+            @RequestParam(required = false) String major,
+            Authentication authentication) {
+        ReportJobResponse job = reportJobService.submitTranscripts(format, year, major, authentication.getName());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    /**
+     * List the current admin's report jobs
+     */
+    @GetMapping("/reports/jobs")
+    public ResponseEntity<List<ReportJobResponse>> getMyReportJobs(Authentication authentication) {
+        return ResponseEntity.ok(reportJobService.getJobsFor(authentication.getName()));
+    }
+
+    /**
+     * Get report job status
+     */
+    @GetMapping("/reports/jobs/{jobId}")
+    public ResponseEntity<ReportJobResponse> getReportJob(@PathVariable String jobId, Authentication authentication) {
+        return reportJobService.getJob(jobId, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a queued or running report job
+     */
+    @DeleteMapping("/reports/jobs/{jobId}")
+    public ResponseEntity<ReportJobResponse> cancelReportJob(@PathVariable String jobId, Authentication authentication) {
+        return reportJobService.cancel(jobId, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Download a finished report job. Uses the container's sendfile support when available
+     * so the file goes from page cache to socket without being copied through the JVM.
+     */
+    @GetMapping("/reports/jobs/{jobId}/download")
+    public void downloadReportJob(
+            @PathVariable String jobId,
+            Authentication authentication,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Optional<Path> found = reportJobService.getArtifact(jobId, authentication.getName());
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path artifact = found.get();
+        long size = Files.size(artifact);
+
+        response.setContentType("application/gzip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\""
+                + reportJobService.getArtifactFilename(jobId, authentication.getName()).orElseThrow() + "\"");
+        response.setContentLengthLong(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", artifact.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", size);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(artifact, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+        }
+    }
 }
@@ -6,14 +6,20 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import com.ucms.dto.DepartmentWorkloadResponse;
 import com.ucms.dto.EnrollmentRequest;
+import com.ucms.dto.GradeComputationResponse;
+import com.ucms.dto.GradingSchemeRequest;
+import com.ucms.dto.GradingSchemeResponse;
 import com.ucms.dto.StudentScheduleResponse;
 import com.ucms.entity.Course;
 import com.ucms.entity.User;
 import com.ucms.repository.UserRepository;
 import com.ucms.service.CourseService;
 import com.ucms.service.EnrollmentService;
+import com.ucms.service.GradeComputationService;
 import com.ucms.service.ProfessorService;
+import com.ucms.service.ProfessorWorkloadService;
 
 import java.util.List;
 import java.util.Map;
@@ -29,6 +35,12 @@ public class ProfessorController {
     @Autowired
     private CourseService courseService;
 
+    @Autowired
+    private ProfessorWorkloadService professorWorkloadService;
+
+    @Autowired
+    private GradeComputationService gradeComputationService;
+
     // @Autowired
     // private EnrollmentService enrollmentService;
 
@@ -53,6 +65,20 @@ public class ProfessorController {
         return ResponseEntity.ok(stats);
     }
 
+    @GetMapping("/department/workload")
+    public ResponseEntity<DepartmentWorkloadResponse> getDepartmentWorkload(Authentication authentication) {
+        String username = authentication.getName();
+        User professor = userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Only the head of the professor's department sees the whole department
+        DepartmentWorkloadResponse workload = professorWorkloadService.getChairWorkload(professor.getId());
+        if (workload == null) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(workload);
+    }
+
     @GetMapping("/my-courses")
     // @PreAuthorize("hasRole('PROFESSOR')")  // Temporarily disabled
     public ResponseEntity<List<Course>> getMyCourses(Authentication authentication) {
@@ -97,4 +123,54 @@ public class ProfessorController {
         Course updatedCourse = professorService.updateCourseDetails(courseId, updates);
         return ResponseEntity.ok(updatedCourse);
     }
+
+    @GetMapping("/course/{courseId}/grading-scheme")
+    public ResponseEntity<GradingSchemeResponse> getGradingScheme(
+            @PathVariable Long courseId,
+            Authentication authentication) {
+        if (!teaches(authentication, courseId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(gradeComputationService.getScheme(courseId));
+    }
+
+    @PutMapping("/course/{courseId}/grading-scheme")
+    public ResponseEntity<GradingSchemeResponse> updateGradingScheme(
+            @PathVariable Long courseId,
+            @RequestBody GradingSchemeRequest request,
+            Authentication authentication) {
+        if (!teaches(authentication, courseId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(gradeComputationService.updateScheme(courseId, request, authentication.getName()));
+    }
+
+    // Computed grades for the whole roster, without saving them
+    @PostMapping("/course/{courseId}/grades/preview")
+    public ResponseEntity<GradeComputationResponse> previewGrades(
+            @PathVariable Long courseId,
+            Authentication authentication) {
+        if (!teaches(authentication, courseId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(gradeComputationService.preview(courseId));
+    }
+
+    // Saves the grades of a preview, if nothing changed since it was computed
+    @PostMapping("/course/{courseId}/grades/apply")
+    public ResponseEntity<GradeComputationResponse> applyGrades(
+            @PathVariable Long courseId,
+            @RequestParam String previewVersion,
+            Authentication authentication) {
+        if (!teaches(authentication, courseId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(gradeComputationService.apply(courseId, previewVersion));
+    }
+
+    private boolean teaches(Authentication authentication, Long courseId) {
+        User professor = userRepository.findByUsername(authentication.getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        return professorService.isProfessorOfCourse(professor.getId(), courseId);
+    }
 }
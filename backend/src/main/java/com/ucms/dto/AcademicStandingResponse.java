@@ -0,0 +1,22 @@
+package com.ucms.dto;
+
+import com.ucms.entity.AcademicStanding;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcademicStandingResponse {
+    private Long studentId;
+    private String studentName;
+    private String semester;
+    private Double termGpa;
+    private Integer termCredits;
+    private Double cumulativeGpa;
+    private Integer cumulativeCredits;
+    private AcademicStanding.Standing standing;
+    private LocalDateTime evaluatedAt;
+}
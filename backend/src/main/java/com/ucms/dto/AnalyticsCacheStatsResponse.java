@@ -0,0 +1,30 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsCacheStatsResponse {
+    private Integer entries;
+    private Integer maxEntries;
+    private Long hits;
+    private Long misses;
+    private Double hitRate; // Percentage of lookups served from the cache
+    private Long evictions; // Dropped to stay within maxEntries
+    private Long invalidations; // Dropped because data they depend on changed
+    private Map<String, Long> dataVersions;
+    private Map<String, RegionStats> regions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RegionStats {
+        private Long hits;
+        private Long misses;
+        private Double hitRate;
+    }
+}
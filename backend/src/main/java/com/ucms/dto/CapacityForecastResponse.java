@@ -0,0 +1,45 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityForecastResponse {
+    private String targetSemester; // Null when no upcoming semester is known; forecasts are then for the next offering
+    private LocalDateTime computedAt;
+    private Long computeMillis;
+    private Integer courseCodes;
+    private Integer underProvisioned; // Offerings in the target semester whose capacity is below the suggestion
+    private List<CourseForecast> forecasts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseForecast {
+        private String courseCode;
+        private String title;
+        private Double forecastDemand;
+        private Integer suggestedCapacity;
+        private Long targetCourseId; // Offering in the target semester, if one exists
+        private Integer currentCapacity;
+        private Integer capacityChange;
+        private Boolean underProvisioned;
+        private List<DemandPoint> history; // Oldest first
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DemandPoint {
+        private String semester;
+        private Integer capacity;
+        private Integer enrolled;
+        private Double fillFraction; // Share of the registration period that passed before it filled, null if it never did
+        private Double estimatedDemand;
+    }
+}
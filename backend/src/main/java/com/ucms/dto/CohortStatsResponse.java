@@ -0,0 +1,20 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CohortStatsResponse {
+    private String semester; // null when the row covers every semester
+    private String major;    // null when grouped by year only
+    private String year;     // null when grouped by major only
+    private Long enrollmentCount;
+    private Long gradedCount;
+    private Double averageGPA;
+    private Long attendanceCount;
+    private Map<String, Double> attendancePercentiles; // p10, p25, p50, p75, p90
+}
@@ -1,5 +1,6 @@
 package com.ucms.dto;
 
+import com.ucms.entity.Grade;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,7 +28,7 @@ public class CourseEnrollmentDetailsResponse {
         private Long studentId;
         private String name;
         private String email;
-        private String grade;
+        private Grade grade;
         private String enrollmentDate;
     }
 
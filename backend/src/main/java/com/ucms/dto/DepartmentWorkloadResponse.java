@@ -0,0 +1,23 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentWorkloadResponse {
+    private Long departmentId;
+    private String department;
+    private String currentSemester;
+    private Integer totalProfessors;
+    private Integer totalCourses;
+    private Integer coursesThisSemester;
+    private Integer totalStudents;
+    private Integer pendingGrades;
+    private Double averageStudentsPerProfessor;
+    private List<ProfessorWorkloadResponse> professors;
+}
@@ -0,0 +1,30 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistinctActivityResponse {
+    private String period; // "day", "week" or "month"
+    private Integer precision;
+    private Double standardErrorPercent; // Counts are estimates within about this error
+    private List<Bucket> buckets;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        private LocalDate start;
+        private LocalDate end;
+        private Long activeStudents;
+        private Long activeProfessors;
+        private Long activeAdmins;
+        private Long activeUsers;
+        private Long enrollingStudents; // Students whose enrollments changed in the period
+    }
+}
@@ -1,5 +1,6 @@
 package com.ucms.dto;
 
+import com.ucms.entity.Grade;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,6 +19,6 @@ public class EnrollmentResponse {
     private String courseTitle;
     private String semester;
     private LocalDateTime enrollmentDate;
-    private String grade;
+    private Grade grade;
     private String gradeStatus; // "Pending", "Graded", "In Progress"
 }
@@ -0,0 +1,17 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FillCurvePoint {
+    private LocalDateTime sampledAt;
+    private Integer capacity;
+    private Integer enrolled;
+    private Integer availableSeats;
+    private Double fillRate; // Percentage of capacity taken
+}
@@ -0,0 +1,18 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FillCurveResponse {
+    private String semester;
+    private Long courseId; // Null for a whole-semester curve
+    private String courseCode;
+    private Integer courseCount;
+    private Boolean archived;
+    private List<FillCurvePoint> points;
+}
@@ -20,4 +20,7 @@ public class GradeAnalyticsResponse {
     private String lowestGrade;
     private Double passRate; // Percentage of non-F grades
     private Map<String, Double> departmentComparison; // Department average GPAs
+    private Map<String, Double> gpaPercentiles; // p10, p25, p50, p75, p90
+    private Map<String, Double> attendancePercentiles;
+    private Map<String, Double> participationPercentiles;
 }
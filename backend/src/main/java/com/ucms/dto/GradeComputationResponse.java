@@ -0,0 +1,42 @@
+package com.ucms.dto;
+
+import com.ucms.entity.Grade;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeComputationResponse {
+    private Long courseId;
+    private String courseCode;
+    private GradingSchemeResponse scheme;
+    // Pass back to apply; applying is refused if grades or components changed since the preview
+    private String previewVersion;
+    private Boolean applied;
+    private Integer students;
+    private Integer computed;
+    private Integer changed;
+    private Integer incomplete;
+    private List<StudentGrade> grades;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StudentGrade {
+        private Long enrollmentId;
+        private Long studentId;
+        private String studentName;
+        private String midtermGrade;
+        private String finalGrade;
+        private Double attendance;
+        private Double participationScore;
+        private Double score; // weighted percentage, null when a weighted component is missing
+        private Grade currentGrade;
+        private Grade computedGrade;
+        private Boolean changed;
+        private List<String> missing; // weighted components without a usable value
+    }
+}
@@ -0,0 +1,24 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeCubeResponse {
+    private String level; // "ALL", "SEMESTER", "DEPARTMENT", "COURSE"
+    private String semester;
+    private String department;
+    private Long courseId;
+    private String courseCode;
+    private Long enrollmentCount;
+    private Long gradedCount;
+    private Long pendingCount;
+    private Double averageGPA;
+    private Map<String, Long> gradeDistribution;
+    private List<GradeCubeResponse> children; // Next level down, without their own children
+}
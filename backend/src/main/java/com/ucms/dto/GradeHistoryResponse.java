@@ -0,0 +1,21 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeHistoryResponse {
+    private Long id;
+    private Long enrollmentId;
+    private Long studentId;
+    private Long courseId;
+    private String grade;
+    private boolean dropped;
+    private LocalDateTime changedAt;
+    private String changedBy;
+    private String comment;
+}
@@ -0,0 +1,21 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradePercentilesResponse {
+    private String semester;
+    private String department;
+    private Long courseId;
+    private Long gradedCount;
+    private Long attendanceCount;
+    private Long participationCount;
+    private Map<String, Double> gpaPercentiles; // p10, p25, p50, p75, p90
+    private Map<String, Double> attendancePercentiles;
+    private Map<String, Double> participationPercentiles;
+}
@@ -1,5 +1,6 @@
 package com.ucms.dto;
 
+import com.ucms.entity.Grade;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,7 +19,7 @@ public class GradeResponse {
     private String courseTitle;
     private String semester;
     private String professorName;
-    private String grade;
+    private Grade grade;
     private LocalDateTime gradeUpdatedDate;
     private String gradeUpdatedBy;
     private String comments;
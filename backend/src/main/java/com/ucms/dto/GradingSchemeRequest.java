@@ -0,0 +1,16 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingSchemeRequest {
+    // Percentages; the four must add up to 100
+    private Double midtermWeight;
+    private Double finalWeight;
+    private Double attendanceWeight;
+    private Double participationWeight;
+}
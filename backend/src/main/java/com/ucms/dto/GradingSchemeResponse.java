@@ -0,0 +1,21 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingSchemeResponse {
+    private Long courseId;
+    private String courseCode;
+    private Double midtermWeight;
+    private Double finalWeight;
+    private Double attendanceWeight;
+    private Double participationWeight;
+    private Boolean defaultScheme; // true when the course has no scheme of its own
+    private String updatedBy;
+    private LocalDateTime updatedAt;
+}
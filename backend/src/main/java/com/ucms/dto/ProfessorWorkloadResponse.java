@@ -0,0 +1,18 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfessorWorkloadResponse {
+    private Long professorId;
+    private String employeeId;
+    private String name;
+    private Integer totalCourses;
+    private Integer coursesThisSemester;
+    private Integer totalStudents;
+    private Integer pendingGrades;
+}
@@ -0,0 +1,28 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobResponse {
+    private String jobId;
+    private String reportType;
+    private String format;
+    private String semester;
+    private String department;
+    private String year;
+    private String major;
+    private String requestedBy;
+    private String status; // "QUEUED", "RUNNING", "COMPLETED", "FAILED", "CANCELLED"
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private Long rowCount;
+    private Long fileSizeBytes;
+    private String errorMessage;
+    private String downloadUrl;
+}
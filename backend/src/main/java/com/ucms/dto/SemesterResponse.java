@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -15,8 +16,9 @@ public class SemesterResponse {
     private String code; // "F24", "S25"
     private LocalDate startDate;
     private LocalDate endDate;
-    private String status; // "Current", "Past", "Future", "Planning"
+    private String status; // "Current", "Past", "Future", "Planning", "Closed"
     private Integer totalCourses;
     private Integer totalEnrollments;
     private Boolean isActive;
+    private LocalDateTime closedAt;
 }
@@ -0,0 +1,23 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SemesterSnapshotResponse {
+    private Long semesterId;
+    private String semester;
+    private LocalDateTime closedAt;
+    private LocalDateTime createdAt;
+    private Integer totalCourses;
+    private Integer totalEnrollments;
+    private GradeAnalyticsResponse semesterAnalytics; // departmentComparison holds each department's average GPA
+    private Map<String, GradeAnalyticsResponse> courseAnalytics; // By course code
+    private Map<String, GradeAnalyticsResponse> departmentAnalytics; // By department name
+    private Map<Long, GradeDistributionResponse> courseDistributions; // By course id
+}
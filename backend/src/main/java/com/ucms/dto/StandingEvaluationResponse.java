@@ -0,0 +1,18 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StandingEvaluationResponse {
+    private LocalDateTime evaluatedAt;
+    private Long durationMillis;
+    private Integer students;
+    private Integer standings; // one per student and graded semester
+    private Map<String, Integer> countsByStanding;
+}
@@ -0,0 +1,15 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentActivityResponse {
+    private String semester; // Null when counted across all semesters
+    private Long totalStudents;
+    private Long activeStudents; // Enrolled in at least one course
+    private Long inactiveStudents;
+}
@@ -1,5 +1,6 @@
 package com.ucms.dto;
 
+import com.ucms.entity.Grade;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -33,7 +34,7 @@ public class StudentDetailResponse {
         private String courseCode;
         private String courseTitle;
         private String semester;
-        private String grade;
+        private Grade grade;
         private String professorName;
         private LocalDateTime enrollmentDate;
     }
@@ -0,0 +1,17 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSummaryResponse {
+    private Long id;
+    private String studentId;
+    private String name;
+    private String email;
+    private String major;
+    private String year;
+}
@@ -16,6 +16,10 @@ public class StudentTranscriptResponse {
     private Double gpa;
     private Integer totalCredits;
     private Integer completedCredits;
+    // Standing among students of the same major and year; null until a course is graded
+    private Integer classRank;
+    private Integer classSize;
+    private Double gpaPercentile;
     private List<TranscriptEntry> courses;
 
     @Data
@@ -0,0 +1,18 @@
+package com.ucms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptCacheStatsResponse {
+    private Integer entries;
+    private Integer maxEntries;
+    private Long hits;
+    private Long misses;
+    private Double hitRate; // Percentage of transcript requests served from the cache
+    private Long evictions; // Dropped to stay within maxEntries
+    private Long invalidations; // Dropped because the student's enrollments, grades or courses changed
+}
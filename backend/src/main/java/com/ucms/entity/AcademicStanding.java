@@ -0,0 +1,54 @@
+package com.ucms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A student's academic standing for one semester, with the term and cumulative GPA it was
+ * decided on. Written by the standing evaluation batch, which replaces all rows on each run.
+ */
+@Entity
+@Table(name = "academic_standings",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "semester_id"}),
+       indexes = @Index(name = "idx_academic_standings_semester", columnList = "semester_id, standing"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AcademicStanding {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "semester_id", nullable = false)
+    private Long semesterId;
+    
+    @Column(name = "term_gpa", nullable = false)
+    private Double termGpa;
+    
+    @Column(name = "term_credits", nullable = false)
+    private Integer termCredits;
+    
+    // Over this semester and every earlier one
+    @Column(name = "cumulative_gpa", nullable = false)
+    private Double cumulativeGpa;
+    
+    @Column(name = "cumulative_credits", nullable = false)
+    private Integer cumulativeCredits;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Standing standing;
+    
+    @Column(name = "evaluated_at", nullable = false)
+    private LocalDateTime evaluatedAt;
+    
+    public enum Standing {
+        DEANS_LIST, GOOD_STANDING, ACADEMIC_WARNING, PROBATION
+    }
+}
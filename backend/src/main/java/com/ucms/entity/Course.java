@@ -1,12 +1,17 @@
 package com.ucms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "courses")
+// A code is offered at most once per semester and again in later semesters
+@Table(name = "courses", indexes = {
+        @Index(name = "idx_courses_semester_id", columnList = "semester_id"),
+        @Index(name = "idx_courses_department_id", columnList = "department_id")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_courses_semester_code", columnNames = {"semester_id", "code"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,8 +29,9 @@ public class Course {
     @Column(columnDefinition = "TEXT")
     private String description;
     
-    @Column(nullable = false, length = 50)
-    private String semester;
+    @ManyToOne
+    @JoinColumn(name = "semester_id")
+    private Semester semester;
     
     @Column(name = "schedule_info")
     private String scheduleInfo;
@@ -39,4 +45,19 @@ public class Course {
     @ManyToOne
     @JoinColumn(name = "professor_id")
     private Professor professor;
+    
+    // Offering department, taken from the professor the course is assigned to
+    @ManyToOne
+    @JoinColumn(name = "department_id")
+    private Department department;
+    
+    @JsonIgnore
+    public String getSemesterName() {
+        return semester != null ? semester.getName() : null;
+    }
+    
+    @JsonIgnore
+    public String getDepartmentName() {
+        return department != null ? department.getName() : null;
+    }
 }
\ No newline at end of file
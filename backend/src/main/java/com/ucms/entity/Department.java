@@ -0,0 +1,49 @@
+package com.ucms.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "departments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Department {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Professors are serialized with just the department name, as they were before this entity existed
+    @JsonValue
+    @Column(unique = true, nullable = false, length = 100)
+    private String name;
+    
+    @Column(length = 10)
+    private String code;
+    
+    @Column(columnDefinition = "TEXT")
+    private String description;
+    
+    @Column(name = "head_of_department", length = 100)
+    private String headOfDepartment;
+    
+    @Column(name = "contact_email")
+    private String contactEmail;
+    
+    @Column(length = 100)
+    private String location;
+    
+    // Maintained counters so department listings never have to scan professors, courses or enrollments
+    @Column(name = "total_professors", nullable = false)
+    private Integer totalProfessors = 0;
+    
+    @Column(name = "total_courses", nullable = false)
+    private Integer totalCourses = 0;
+    
+    // Distinct students enrolled in at least one of the department's courses
+    @Column(name = "total_students", nullable = false)
+    private Integer totalStudents = 0;
+}
@@ -28,8 +28,10 @@ public class Enrollment {
     @Column(name = "enrollment_date", columnDefinition = "TIMESTAMP DEFAULT CURRENT_TIMESTAMP")
     private LocalDateTime enrollmentDate = LocalDateTime.now();
     
-    @Column(length = 5)
-    private String grade;
+    // Stored as the grade's SMALLINT code
+    @Convert(converter = GradeConverter.class)
+    @Column(name = "grade")
+    private Grade grade;
     
     // Additional grade components
     @Column(name = "midterm_grade", length = 5)
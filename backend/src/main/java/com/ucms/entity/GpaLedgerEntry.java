@@ -0,0 +1,39 @@
+package com.ucms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running grade point and credit totals for one student in one semester, kept up to date by
+ * grade and enrollment writes so GPA never has to be recomputed from the enrollment history.
+ */
+@Entity
+@Table(name = "gpa_ledger",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"student_id", "semester_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GpaLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    // 0 for courses that are not in any semester
+    @Column(name = "semester_id", nullable = false)
+    private Long semesterId;
+    
+    // Grade points x credits in tenths of a point, so sums stay exact
+    @Column(name = "grade_point_tenths", nullable = false)
+    private Long gradePointTenths = 0L;
+    
+    @Column(name = "graded_credits", nullable = false)
+    private Integer gradedCredits = 0;
+    
+    @Column(name = "total_credits", nullable = false)
+    private Integer totalCredits = 0;
+}
@@ -0,0 +1,126 @@
+package com.ucms.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Letter grades with their grade points. Stored as a small integer code (see
+ * {@link GradeConverter}) and serialized as the letter, so the API is unchanged.
+ * Counting by grade uses arrays indexed by {@link #ordinal()}, which runs from A+ down to F.
+ */
+public enum Grade {
+    A_PLUS("A+", 1, 40),
+    A("A", 2, 40),
+    A_MINUS("A-", 3, 37),
+    B_PLUS("B+", 4, 33),
+    B("B", 5, 30),
+    B_MINUS("B-", 6, 27),
+    C_PLUS("C+", 7, 23),
+    C("C", 8, 20),
+    C_MINUS("C-", 9, 17),
+    D_PLUS("D+", 10, 13),
+    D("D", 11, 10),
+    D_MINUS("D-", 12, 7),
+    F("F", 13, 0);
+
+    private static final Grade[] VALUES = values();
+    private static final Grade[] BY_CODE = new Grade[VALUES.length + 1];
+    private static final Map<String, Grade> BY_LETTER = new HashMap<>();
+
+    static {
+        for (Grade grade : VALUES) {
+            BY_CODE[grade.code] = grade;
+            BY_LETTER.put(grade.letter, grade);
+            BY_LETTER.put(grade.letter.toLowerCase(), grade);
+        }
+    }
+
+    private final String letter;
+    private final short code;
+    private final int pointTenths;
+    private final double points;
+
+    Grade(String letter, int code, int pointTenths) {
+        this.letter = letter;
+        this.code = (short) code;
+        this.pointTenths = pointTenths;
+        this.points = pointTenths / 10.0;
+    }
+
+    @JsonValue
+    public String getLetter() {
+        return letter;
+    }
+
+    /**
+     * Stored value. Codes are fixed per grade and never reused, unlike ordinals.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    public double getPoints() {
+        return points;
+    }
+
+    // Grade points in tenths, for exact sums
+    public int getPointTenths() {
+        return pointTenths;
+    }
+
+    public boolean isPassing() {
+        return this != F;
+    }
+
+    // First letter of the grade, for A/B/C/D/F bands
+    public char getBand() {
+        return letter.charAt(0);
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public static Grade ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * @return the grade for a letter in either case, or null if it isn't one
+     */
+    public static Grade parse(String letter) {
+        return letter != null ? BY_LETTER.get(letter.trim()) : null;
+    }
+
+    /**
+     * Like {@link #parse(String)} but rejects unknown letters. Null stays null (no grade yet).
+     */
+    public static Grade of(String letter) {
+        if (letter == null) {
+            return null;
+        }
+        Grade grade = parse(letter);
+        if (grade == null) {
+            throw new RuntimeException("Invalid grade: " + letter);
+        }
+        return grade;
+    }
+
+    public static Grade fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown grade code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    public static String letterOf(Grade grade) {
+        return grade != null ? grade.letter : null;
+    }
+
+    @Override
+    public String toString() {
+        return letter;
+    }
+}
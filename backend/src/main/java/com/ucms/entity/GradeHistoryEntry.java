@@ -0,0 +1,53 @@
+package com.ucms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * One change to an enrollment: enrolled, graded or dropped. Rows are only ever appended, so
+ * the latest row of each enrollment at or before a moment is its state at that moment.
+ */
+@Entity
+@Table(name = "grade_history", indexes = {
+        @Index(name = "idx_grade_history_student_enrollment", columnList = "student_id, enrollment_id, changed_at"),
+        @Index(name = "idx_grade_history_enrollment", columnList = "enrollment_id, changed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeHistoryEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "enrollment_id", nullable = false)
+    private Long enrollmentId;
+    
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+    
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+    
+    // Grade from this change on, null while in progress; stored as the grade's SMALLINT code
+    @Convert(converter = GradeConverter.class)
+    @Column(name = "grade")
+    private Grade grade;
+    
+    @Column(name = "dropped", nullable = false)
+    private Boolean dropped = false;
+    
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+    
+    // Null for changes made outside a request, such as batch jobs and the initial backfill
+    @Column(name = "changed_by", length = 50)
+    private String changedBy;
+    
+    // Reason given with an admin override
+    @Column(name = "comment", length = 1000)
+    private String comment;
+}
@@ -0,0 +1,43 @@
+package com.ucms.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * How a course weighs its grade components into the final grade. Weights are percentages that
+ * add up to 100; a course without a scheme uses the configured default weights.
+ */
+@Entity
+@Table(name = "grading_schemes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingScheme {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "course_id", nullable = false, unique = true)
+    private Long courseId;
+    
+    @Column(name = "midterm_weight", nullable = false)
+    private Double midtermWeight;
+    
+    @Column(name = "final_weight", nullable = false)
+    private Double finalWeight;
+    
+    @Column(name = "attendance_weight", nullable = false)
+    private Double attendanceWeight;
+    
+    @Column(name = "participation_weight", nullable = false)
+    private Double participationWeight;
+    
+    @Column(name = "updated_by", length = 50)
+    private String updatedBy;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,12 +1,13 @@
 package com.ucms.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "professors")
+@Table(name = "professors", indexes = @Index(name = "idx_professors_department_id", columnList = "department_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,11 +24,17 @@ public class Professor {
     @Column(unique = true, nullable = false)
     private String email;
     
-    @Column(length = 100)
-    private String department;
+    @ManyToOne
+    @JoinColumn(name = "department_id")
+    private Department department;
     
     @OneToOne
     @MapsId
     @JoinColumn(name = "id")
     private User user;
+    
+    @JsonIgnore
+    public String getDepartmentName() {
+        return department != null ? department.getName() : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.ucms.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "semesters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Semester {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Courses are serialized with just the semester name, as they were before this entity existed
+    @JsonValue
+    @Column(unique = true, nullable = false, length = 50)
+    private String name;
+    
+    @Column(length = 10)
+    private String code;
+    
+    @Column(name = "start_date")
+    private LocalDate startDate;
+    
+    @Column(name = "end_date")
+    private LocalDate endDate;
+    
+    @Column(name = "active", nullable = false)
+    private Boolean active = true;
+    
+    // Maintained counters so semester listings never have to scan courses or enrollments
+    @Column(name = "total_courses", nullable = false)
+    private Integer totalCourses = 0;
+    
+    @Column(name = "total_enrollments", nullable = false)
+    private Integer totalEnrollments = 0;
+    
+    // Set when the semester is closed; its enrollments and grades are read-only from then on
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+}
@@ -0,0 +1,16 @@
+package com.ucms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a course is created, updated or deleted. Carries the professor before and after
+ * the change so listeners keyed by professor can find every affected entry.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseChangedEvent {
+    private final Long courseId;
+    private final Long previousProfessorId;
+    private final Long professorId;
+}
@@ -0,0 +1,27 @@
+package com.ucms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Objects;
+
+/**
+ * Published when a course is moved to another semester or department, taking its enrollments with it.
+ */
+@Getter
+@AllArgsConstructor
+public class CourseMovedEvent {
+    private final Long courseId;
+    private final String previousSemester;
+    private final String semester;
+    private final String previousDepartment;
+    private final String department;
+
+    public boolean isSemesterChanged() {
+        return !Objects.equals(previousSemester, semester);
+    }
+
+    public boolean isDepartmentChanged() {
+        return !Objects.equals(previousDepartment, department);
+    }
+}
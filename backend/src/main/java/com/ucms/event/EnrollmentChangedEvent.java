@@ -0,0 +1,50 @@
+package com.ucms.event;
+
+import com.ucms.entity.Course;
+import com.ucms.entity.Enrollment;
+import com.ucms.entity.Grade;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a student is enrolled in or dropped from a course, including admin overrides.
+ */
+@Getter
+@AllArgsConstructor
+public class EnrollmentChangedEvent {
+
+    public enum Type {
+        ENROLLED, DROPPED
+    }
+
+    private final Type type;
+    private final Long enrollmentId;
+    private final Long studentId;
+    private final Long courseId;
+    private final Long semesterId;
+    private final String semester;
+    private final Long departmentId;
+    private final Grade grade; // Grade held at the time of the change, null while in progress
+    private final Double attendance;
+
+    public static EnrollmentChangedEvent enrolled(Enrollment enrollment) {
+        return of(Type.ENROLLED, enrollment);
+    }
+
+    public static EnrollmentChangedEvent dropped(Enrollment enrollment) {
+        return of(Type.DROPPED, enrollment);
+    }
+
+    private static EnrollmentChangedEvent of(Type type, Enrollment enrollment) {
+        Course course = enrollment.getCourse();
+        return new EnrollmentChangedEvent(type, enrollment.getId(), enrollment.getStudent().getId(), course.getId(),
+                course.getSemester() != null ? course.getSemester().getId() : null,
+                course.getSemesterName(),
+                course.getDepartment() != null ? course.getDepartment().getId() : null,
+                enrollment.getGrade(), enrollment.getAttendance());
+    }
+
+    public boolean isEnrolled() {
+        return type == Type.ENROLLED;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ucms.event;
+
+import com.ucms.entity.Grade;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever an enrollment's grade components are written. Carries both the
+ * previous and the new values so listeners can apply the change incrementally.
+ */
+@Getter
+@AllArgsConstructor
+public class GradeChangedEvent {
+    private final Long enrollmentId;
+    private final Long studentId;
+    private final Long courseId;
+    private final String semester;
+    private final Grade previousGrade;
+    private final Grade grade;
+    private final Double previousAttendance;
+    private final Double attendance;
+    private final Double previousParticipationScore;
+    private final Double participationScore;
+    // Reason given with an admin override, if any
+    private final String comment;
+
+    public GradeChangedEvent(Long enrollmentId, Long studentId, Long courseId, String semester,
+                             Grade previousGrade, Grade grade, Double previousAttendance, Double attendance,
+                             Double previousParticipationScore, Double participationScore) {
+        this(enrollmentId, studentId, courseId, semester, previousGrade, grade, previousAttendance, attendance,
+                previousParticipationScore, participationScore, null);
+    }
+
+    public boolean isGradeChanged() {
+        return previousGrade != grade;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ucms.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a student's major or class year changes, which moves all of their
+ * enrollments into a different cohort.
+ */
+@Getter
+@AllArgsConstructor
+public class StudentCohortChangedEvent {
+    private final Long studentId;
+    private final String previousMajor;
+    private final String previousYear;
+    private final String major;
+    private final String year;
+}
@@ -0,0 +1,21 @@
+package com.ucms.repository;
+
+import com.ucms.entity.AcademicStanding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AcademicStandingRepository extends JpaRepository<AcademicStanding, Long> {
+    List<AcademicStanding> findBySemesterIdOrderByTermGpaDescStudentIdAsc(Long semesterId);
+    
+    List<AcademicStanding> findBySemesterIdAndStandingOrderByTermGpaDescStudentIdAsc(
+            Long semesterId, AcademicStanding.Standing standing);
+    
+    List<AcademicStanding> findByStudentIdOrderByIdAsc(Long studentId);
+    
+    @Query("SELECT a.standing, COUNT(a) FROM AcademicStanding a WHERE a.semesterId = :semesterId GROUP BY a.standing")
+    List<Object[]> countByStandingForSemester(@Param("semesterId") Long semesterId);
+}
@@ -8,17 +8,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface CourseRepository extends JpaRepository<Course, Long> {
-    List<Course> findBySemester(String semester);
+    List<Course> findBySemesterId(Long semesterId);
+    List<Course> findBySemesterIdAndCode(Long semesterId, String code);
+    List<Course> findByDepartmentId(Long departmentId);
+    List<Course> findBySemesterIdAndDepartmentId(Long semesterId, Long departmentId);
     List<Course> findByProfessor(Professor professor);
     List<Course> findByProfessorId(Long professorId);
-    Optional<Course> findByCode(String code);
+    List<Course> findAllByCode(String code);
     List<Course> findByTitleContainingIgnoreCase(String title);
-    boolean existsByCode(String code);
+    boolean existsBySemesterIdAndCode(Long semesterId, String code);
+    long countByAvailableSeatsLessThanEqual(Integer availableSeats);
     
     // Search by both course code and title with pagination
     @Query("SELECT c FROM Course c WHERE " +
@@ -26,4 +30,25 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
            "LOWER(c.title) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<Course> findByCodeContainingIgnoreCaseOrTitleContainingIgnoreCase(
         @Param("search") String search, Pageable pageable);
+    
+    // One row per course: id, code, title, semester id, semester name, semester start date,
+    // semester end date, semester closed at, capacity and enrolled students (which
+    // force-enrollment can push past capacity)
+    @Query("SELECT c.id, c.code, c.title, s.id, s.name, s.startDate, s.endDate, s.closedAt, c.capacity, COUNT(e.id) " +
+           "FROM Course c LEFT JOIN c.semester s LEFT JOIN Enrollment e ON e.course = c " +
+           "GROUP BY c.id, c.code, c.title, s.id, s.name, s.startDate, s.endDate, s.closedAt, c.capacity")
+    List<Object[]> findEnrollmentHistory();
+    
+    // One row per course of the given professors: professor id, course id, semester name,
+    // enrolled students and enrollments still waiting for a grade
+    @Query("SELECT c.professor.id, c.id, s.name, COUNT(e.id), " +
+           "SUM(CASE WHEN e.id IS NOT NULL AND e.grade IS NULL THEN 1 ELSE 0 END) " +
+           "FROM Course c LEFT JOIN c.semester s LEFT JOIN Enrollment e ON e.course = c " +
+           "WHERE c.professor.id IN :professorIds " +
+           "GROUP BY c.professor.id, c.id, s.name")
+    List<Object[]> findWorkloadByProfessorIds(@Param("professorIds") Collection<Long> professorIds);
+    
+    // Seat counters of every course in one read: course id, code, semester id, capacity, available seats
+    @Query("SELECT c.id, c.code, s.id, c.capacity, c.availableSeats FROM Course c LEFT JOIN c.semester s")
+    List<Object[]> findSeatCounters();
 }
\ No newline at end of file
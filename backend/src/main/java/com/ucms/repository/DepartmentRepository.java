@@ -0,0 +1,43 @@
+package com.ucms.repository;
+
+import com.ucms.entity.Department;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface DepartmentRepository extends JpaRepository<Department, Long> {
+    Optional<Department> findByName(String name);
+    boolean existsByName(String name);
+    
+    // Counter updates are applied in the database so concurrent writes never lose an increment
+    @Modifying
+    @Query("UPDATE Department d SET d.totalProfessors = d.totalProfessors + :delta WHERE d.id = :departmentId")
+    int adjustTotalProfessors(@Param("departmentId") Long departmentId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Department d SET d.totalCourses = d.totalCourses + :delta WHERE d.id = :departmentId")
+    int adjustTotalCourses(@Param("departmentId") Long departmentId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Department d SET d.totalStudents = d.totalStudents + :delta WHERE d.id = :departmentId")
+    int adjustTotalStudents(@Param("departmentId") Long departmentId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query(value = "UPDATE departments d SET " +
+           "total_professors = (SELECT COUNT(*) FROM professors p WHERE p.department_id = d.id), " +
+           "total_courses = (SELECT COUNT(*) FROM courses c WHERE c.department_id = d.id), " +
+           "total_students = (SELECT COUNT(DISTINCT e.student_id) FROM enrollments e " +
+           "JOIN courses c ON c.id = e.course_id WHERE c.department_id = d.id)", nativeQuery = true)
+    int recalculateTotals();
+    
+    @Modifying
+    @Query(value = "UPDATE departments d SET " +
+           "total_students = (SELECT COUNT(DISTINCT e.student_id) FROM enrollments e " +
+           "JOIN courses c ON c.id = e.course_id WHERE c.department_id = d.id) " +
+           "WHERE d.id = :departmentId", nativeQuery = true)
+    int recalculateTotalStudents(@Param("departmentId") Long departmentId);
+}
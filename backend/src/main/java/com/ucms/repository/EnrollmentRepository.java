@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,16 +18,84 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     List<Enrollment> findByCourse(Course course);
     List<Enrollment> findByCourseId(Long courseId);
     List<Enrollment> findByCourseIdOrderByEnrollmentDateDesc(Long courseId);
+    List<Enrollment> findByCourseSemesterId(Long semesterId);
     Optional<Enrollment> findByStudentAndCourse(Student student, Course course);
     Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId);
     
+    // Read queries for transcripts, schedules, rosters and course details. Every association the
+    // views touch is fetched in the same statement; the derived finders above leave each course
+    // (with its semester, department and professor) or student to a select of its own.
+    @Query("SELECT e FROM Enrollment e JOIN FETCH e.student s JOIN FETCH s.user " +
+           "JOIN FETCH e.course c LEFT JOIN FETCH c.semester LEFT JOIN FETCH c.department " +
+           "LEFT JOIN FETCH c.professor p LEFT JOIN FETCH p.user LEFT JOIN FETCH p.department " +
+           "WHERE s.id = :studentId ORDER BY e.id")
+    List<Enrollment> findWithCoursesByStudentId(@Param("studentId") Long studentId);
+    
+    @Query("SELECT e FROM Enrollment e JOIN FETCH e.student s JOIN FETCH s.user " +
+           "JOIN FETCH e.course c LEFT JOIN FETCH c.semester LEFT JOIN FETCH c.department " +
+           "LEFT JOIN FETCH c.professor p LEFT JOIN FETCH p.user LEFT JOIN FETCH p.department " +
+           "WHERE c.id = :courseId ORDER BY e.id")
+    List<Enrollment> findWithStudentsByCourseId(@Param("courseId") Long courseId);
+    
+    @Query("SELECT e FROM Enrollment e JOIN FETCH e.student s JOIN FETCH s.user " +
+           "JOIN FETCH e.course c LEFT JOIN FETCH c.semester LEFT JOIN FETCH c.department " +
+           "LEFT JOIN FETCH c.professor p LEFT JOIN FETCH p.user LEFT JOIN FETCH p.department " +
+           "WHERE c.id = :courseId ORDER BY e.enrollmentDate DESC")
+    List<Enrollment> findWithStudentsByCourseIdOrderByEnrollmentDateDesc(@Param("courseId") Long courseId);
+    
     @Query("SELECT e FROM Enrollment e WHERE e.student.id = :studentId AND e.grade IS NOT NULL")
     List<Enrollment> findCompletedEnrollmentsByStudentId(@Param("studentId") Long studentId);
     
     @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.course.id = :courseId")
     Long countEnrollmentsByCourseId(@Param("courseId") Long courseId);
     
+    // Grade components only, for rebuilding analytics sketches without loading entities
+    @Query("SELECT e.grade, e.attendance, e.participationScore FROM Enrollment e WHERE e.course.id = :courseId")
+    List<Object[]> findGradeComponentsByCourseId(@Param("courseId") Long courseId);
+    
+    // Grade inputs of a course's roster, for computing final grades: enrollment id, student id,
+    // student name, midterm grade, final grade, attendance, participation score, grade
+    @Query("SELECT e.id, s.id, s.name, e.midtermGrade, e.finalGrade, e.attendance, e.participationScore, e.grade " +
+           "FROM Enrollment e JOIN e.student s WHERE e.course.id = :courseId ORDER BY e.id")
+    List<Object[]> findGradeInputsByCourseId(@Param("courseId") Long courseId);
+    
+    // Cohort dimensions and grade components for every enrollment in a semester, for building cohort cells
+    @Query("SELECT s.major, s.year, e.grade, e.attendance FROM Enrollment e JOIN e.student s " +
+           "WHERE e.course.semester.id = :semesterId")
+    List<Object[]> findCohortComponentsBySemesterId(@Param("semesterId") Long semesterId);
+    
+    @Query("SELECT DISTINCT e.course.semester.name FROM Enrollment e WHERE e.student.id = :studentId")
+    List<String> findSemesterNamesByStudentId(@Param("studentId") Long studentId);
+    
+    // Grade counts per (semester, department, course, grade), the leaf level of the grade cube
+    @Query("SELECT sem.name, d.name, c.id, c.code, e.grade, COUNT(e) FROM Enrollment e JOIN e.course c " +
+           "LEFT JOIN c.semester sem LEFT JOIN c.department d GROUP BY sem.name, d.name, c.id, c.code, e.grade")
+    List<Object[]> countByCourseAndGrade();
+    
+    // Aggregates for the statistics dashboards
+    long countByGradeIsNotNull();
+    
+    @Query("SELECT e.grade, COUNT(e) FROM Enrollment e WHERE e.grade IS NOT NULL GROUP BY e.grade")
+    List<Object[]> countByGrade();
+    
+    long countByStudentIdAndCourseDepartmentId(Long studentId, Long departmentId);
+    
+    boolean existsByStudentIdAndCourseSemesterId(Long studentId, Long semesterId);
+    
     // Additional methods for professor service
     int countByCourseId(Long courseId);
     int countByCourseIdAndGradeIsNull(Long courseId);
+    long countByCourseSemesterIdAndGradeIsNull(Long semesterId);
+    
+    // Enrollment counts per (student, semester, grade), for rebuilding the GPA ledger
+    @Query("SELECT e.student.id, c.semester.id, e.grade, COUNT(e) FROM Enrollment e JOIN e.course c " +
+           "GROUP BY e.student.id, c.semester.id, e.grade")
+    List<Object[]> countByStudentSemesterAndGrade();
+    
+    @Query("SELECT e.student.id, c.semester.id, e.grade, COUNT(e) FROM Enrollment e JOIN e.course c " +
+           "WHERE e.student.id IN :studentIds GROUP BY e.student.id, c.semester.id, e.grade")
+    List<Object[]> countByStudentSemesterAndGrade(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT DISTINCT e.student.id FROM Enrollment e WHERE e.course.id = :courseId")
+    List<Long> findStudentIdsByCourseId(@Param("courseId") Long courseId);
 }
\ No newline at end of file
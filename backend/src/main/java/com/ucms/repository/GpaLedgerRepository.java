@@ -0,0 +1,55 @@
+package com.ucms.repository;
+
+import com.ucms.entity.GpaLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface GpaLedgerRepository extends JpaRepository<GpaLedgerEntry, Long> {
+    List<GpaLedgerEntry> findByStudentIdOrderBySemesterIdAsc(Long studentId);
+    
+    // Applies a change to the row of the course's semester, creating it on first use, in one statement
+    @Modifying
+    @Query(value = "INSERT INTO gpa_ledger (student_id, semester_id, grade_point_tenths, graded_credits, total_credits) " +
+           "SELECT :studentId, COALESCE(c.semester_id, 0), :tenths, :gradedCredits, :totalCredits " +
+           "FROM courses c WHERE c.id = :courseId " +
+           "ON CONFLICT (student_id, semester_id) DO UPDATE SET " +
+           "grade_point_tenths = gpa_ledger.grade_point_tenths + EXCLUDED.grade_point_tenths, " +
+           "graded_credits = gpa_ledger.graded_credits + EXCLUDED.graded_credits, " +
+           "total_credits = gpa_ledger.total_credits + EXCLUDED.total_credits", nativeQuery = true)
+    int apply(@Param("studentId") Long studentId, @Param("courseId") Long courseId, @Param("tenths") long tenths,
+              @Param("gradedCredits") int gradedCredits, @Param("totalCredits") int totalCredits);
+    
+    // Totals over all semesters: student id, grade point tenths, graded credits, total credits
+    @Query("SELECT g.studentId, SUM(g.gradePointTenths), SUM(g.gradedCredits), SUM(g.totalCredits) " +
+           "FROM GpaLedgerEntry g WHERE g.studentId IN :studentIds GROUP BY g.studentId")
+    List<Object[]> sumByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+    
+    // Graded totals with the student's cohort, for class ranking: student id, major, year,
+    // grade point tenths, graded credits. Students with nothing graded are left out.
+    @Query("SELECT s.id, s.major, s.year, SUM(g.gradePointTenths), SUM(g.gradedCredits) " +
+           "FROM GpaLedgerEntry g, Student s WHERE s.id = g.studentId " +
+           "GROUP BY s.id, s.major, s.year HAVING SUM(g.gradedCredits) > 0")
+    List<Object[]> sumGradedByStudentWithCohort();
+    
+    @Query("SELECT s.id, s.major, s.year, SUM(g.gradePointTenths), SUM(g.gradedCredits) " +
+           "FROM GpaLedgerEntry g, Student s WHERE s.id = g.studentId AND s.id IN :studentIds " +
+           "GROUP BY s.id, s.major, s.year HAVING SUM(g.gradedCredits) > 0")
+    List<Object[]> sumGradedByStudentWithCohort(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Query("SELECT COALESCE(SUM(g.gradedCredits), 0), COALESCE(SUM(g.totalCredits), 0) FROM GpaLedgerEntry g")
+    List<Object[]> sumCredits();
+    
+    @Modifying
+    @Query("DELETE FROM GpaLedgerEntry g WHERE g.studentId IN :studentIds")
+    int deleteByStudentIds(@Param("studentIds") Collection<Long> studentIds);
+    
+    @Modifying
+    @Query("DELETE FROM GpaLedgerEntry g")
+    int deleteAllEntries();
+}
@@ -0,0 +1,34 @@
+package com.ucms.repository;
+
+import com.ucms.entity.GradeHistoryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface GradeHistoryRepository extends JpaRepository<GradeHistoryEntry, Long> {
+    List<GradeHistoryEntry> findByEnrollmentIdOrderByChangedAtAscIdAsc(Long enrollmentId);
+    
+    // The student's enrollments as of a moment: the latest row of each enrollment at or before it,
+    // read backwards along (student_id, enrollment_id, changed_at). Rows are enrollment id,
+    // course id, grade code.
+    @Query(value = "SELECT enrollment_id, course_id, grade FROM (" +
+           "SELECT DISTINCT ON (h.enrollment_id) h.enrollment_id, h.course_id, h.grade, h.dropped " +
+           "FROM grade_history h WHERE h.student_id = :studentId AND h.changed_at <= :at " +
+           "ORDER BY h.enrollment_id, h.changed_at DESC, h.id DESC) latest " +
+           "WHERE NOT latest.dropped ORDER BY enrollment_id", nativeQuery = true)
+    List<Object[]> findStateByStudentIdAt(@Param("studentId") Long studentId, @Param("at") LocalDateTime at);
+    
+    // Starts the history of enrollments that have none (written before the history existed or
+    // directly in the database) with their current grade as of their enrollment date
+    @Modifying
+    @Query(value = "INSERT INTO grade_history (enrollment_id, student_id, course_id, grade, dropped, changed_at) " +
+           "SELECT e.id, e.student_id, e.course_id, e.grade, false, COALESCE(e.enrollment_date, CURRENT_TIMESTAMP) " +
+           "FROM enrollments e WHERE NOT EXISTS (SELECT 1 FROM grade_history h WHERE h.enrollment_id = e.id)",
+           nativeQuery = true)
+    int insertMissingBaselines();
+}
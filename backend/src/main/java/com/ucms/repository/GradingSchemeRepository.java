@@ -0,0 +1,11 @@
+package com.ucms.repository;
+
+import com.ucms.entity.GradingScheme;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface GradingSchemeRepository extends JpaRepository<GradingScheme, Long> {
+    Optional<GradingScheme> findByCourseId(Long courseId);
+}
@@ -11,7 +11,7 @@ public interface ProfessorRepository extends JpaRepository<Professor, Long> {
     Optional<Professor> findByEmployeeId(String employeeId);
     Optional<Professor> findByEmail(String email);
     Optional<Professor> findByUserId(Long userId);
-    List<Professor> findByDepartment(String department);
+    List<Professor> findByDepartmentId(Long departmentId);
     boolean existsByEmployeeId(String employeeId);
     boolean existsByEmail(String email);
 }
\ No newline at end of file
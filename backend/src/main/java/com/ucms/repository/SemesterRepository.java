@@ -0,0 +1,45 @@
+package com.ucms.repository;
+
+import com.ucms.entity.Semester;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SemesterRepository extends JpaRepository<Semester, Long> {
+    Optional<Semester> findByName(String name);
+    boolean existsByName(String name);
+    Optional<Semester> findFirstByStartDateLessThanEqualAndEndDateGreaterThanEqualOrderByStartDateDesc(
+        LocalDate startOnOrBefore, LocalDate endOnOrAfter);
+    Optional<Semester> findFirstByStartDateAfterOrderByStartDateAsc(LocalDate date);
+    
+    // Counter updates are applied in the database so concurrent enrollments never lose an increment.
+    // They skip closed semesters, so a count of 0 means the write has to be rejected.
+    @Modifying
+    @Query("UPDATE Semester s SET s.totalCourses = s.totalCourses + :delta WHERE s.id = :semesterId AND s.closedAt IS NULL")
+    int adjustTotalCourses(@Param("semesterId") Long semesterId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Semester s SET s.totalEnrollments = s.totalEnrollments + :delta WHERE s.id = :semesterId AND s.closedAt IS NULL")
+    int adjustTotalEnrollments(@Param("semesterId") Long semesterId, @Param("delta") int delta);
+    
+    @Modifying
+    @Query("UPDATE Semester s SET s.closedAt = :closedAt WHERE s.id = :semesterId AND s.closedAt IS NULL")
+    int close(@Param("semesterId") Long semesterId, @Param("closedAt") LocalDateTime closedAt);
+    
+    // Shared row lock: waits for a close in progress and keeps the semester from closing until commit
+    @Query(value = "SELECT closed_at IS NOT NULL FROM semesters WHERE name = :name FOR SHARE", nativeQuery = true)
+    Optional<Boolean> isClosedForShare(@Param("name") String name);
+    
+    @Modifying
+    @Query(value = "UPDATE semesters s SET " +
+           "total_courses = (SELECT COUNT(*) FROM courses c WHERE c.semester_id = s.id), " +
+           "total_enrollments = (SELECT COUNT(*) FROM enrollments e JOIN courses c ON c.id = e.course_id " +
+           "WHERE c.semester_id = s.id)", nativeQuery = true)
+    int recalculateTotals();
+}
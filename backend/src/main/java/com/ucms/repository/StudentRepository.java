@@ -24,4 +24,13 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     Page<Student> findBySearch(@Param("search") String search, Pageable pageable);
     
     List<Student> findByIdIn(List<Long> ids);
+    
+    // Anti-joins for students without enrollments, used until the activity bitmaps are built
+    @Query("SELECT COUNT(s) FROM Student s WHERE NOT EXISTS " +
+           "(SELECT e.id FROM Enrollment e WHERE e.student = s)")
+    long countWithoutEnrollments();
+    
+    @Query("SELECT COUNT(s) FROM Student s WHERE NOT EXISTS " +
+           "(SELECT e.id FROM Enrollment e WHERE e.student = s AND e.course.semester.id = :semesterId)")
+    long countWithoutEnrollmentsInSemester(@Param("semesterId") Long semesterId);
 }
\ No newline at end of file
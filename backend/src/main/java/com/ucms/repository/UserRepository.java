@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -17,6 +18,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // New methods for admin functionality
     Page<User> findByRole(User.Role role, Pageable pageable);
     long countByRole(User.Role role);
+    long countByCreatedAtGreaterThanEqual(LocalDateTime since);
     
     // Search methods for filtering users
     @Query("""
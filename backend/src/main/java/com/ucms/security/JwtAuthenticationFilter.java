@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.ucms.service.DistinctActivityService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +28,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private DistinctActivityService distinctActivityService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
@@ -65,6 +69,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                         logger.debug("Authentication set in security context for user: {}", username);
+
+                        if (userDetails instanceof UserPrincipal principal) {
+                            distinctActivityService.recordRequest(principal.getId(), principal.getRole());
+                        }
                         
                         // Verify it was set
                         if (SecurityContextHolder.getContext().getAuthentication() != null) {
@@ -0,0 +1,299 @@
+package com.ucms.service;
+
+import com.ucms.dto.AcademicStandingResponse;
+import com.ucms.dto.StandingEvaluationResponse;
+import com.ucms.entity.AcademicStanding;
+import com.ucms.entity.AcademicStanding.Standing;
+import com.ucms.entity.Semester;
+import com.ucms.entity.Student;
+import com.ucms.repository.AcademicStandingRepository;
+import com.ucms.repository.SemesterRepository;
+import com.ucms.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Decides every student's academic standing (dean's list, good standing, warning, probation)
+ * for every semester in which they have grades. The batch reads the per-semester totals of
+ * the GPA ledger in one pass, ordered by student and then by semester start, so term and
+ * cumulative GPA come out of running sums and only one student is ever held in memory. The
+ * results replace the stored standings in a single transaction.
+ */
+@Service
+public class AcademicStandingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcademicStandingService.class);
+
+    // Semesters without a start date sort after dated ones, in the order they were created
+    private static final String LEDGER_SQL =
+            "SELECT g.student_id, g.semester_id, g.grade_point_tenths, g.graded_credits FROM gpa_ledger g" +
+            " JOIN semesters sem ON sem.id = g.semester_id" +
+            " WHERE g.graded_credits > 0" +
+            " ORDER BY g.student_id, sem.start_date NULLS LAST, sem.id";
+
+    // A whole batch of rows goes in as one statement with one array parameter per column
+    private static final String INSERT_SQL =
+            "INSERT INTO academic_standings (student_id, semester_id, term_gpa, term_credits, cumulative_gpa," +
+            " cumulative_credits, standing, evaluated_at)" +
+            " SELECT t.*, ? FROM unnest(?::bigint[], ?::bigint[], ?::float8[], ?::int[], ?::float8[], ?::int[]," +
+            " ?::varchar[]) AS t";
+
+    private static final Standing[] STANDINGS = Standing.values();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AcademicStandingRepository academicStandingRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${ucms.standing.deans-list-gpa:3.5}")
+    private double deansListGpa;
+
+    @Value("${ucms.standing.deans-list-min-credits:12}")
+    private int deansListMinCredits;
+
+    @Value("${ucms.standing.warning-gpa:2.0}")
+    private double warningGpa;
+
+    @Value("${ucms.standing.probation-gpa:2.0}")
+    private double probationGpa;
+
+    @Value("${ucms.standing.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${ucms.reports.fetch-size:1000}")
+    private int fetchSize;
+
+    @Scheduled(cron = "${ucms.standing.evaluate-cron:0 30 3 * * *}")
+    public void evaluateNightly() {
+        try {
+            evaluate();
+        } catch (RuntimeException e) {
+            logger.warn("Nightly academic standing evaluation failed", e);
+        }
+    }
+
+    /**
+     * Re-evaluates the standing of every student for every graded semester.
+     */
+    public synchronized StandingEvaluationResponse evaluate() {
+        long started = System.currentTimeMillis();
+        LocalDateTime evaluatedAt = LocalDateTime.now();
+        Timestamp evaluatedAtValue = Timestamp.valueOf(evaluatedAt);
+        // Thresholds in hundredths, compared with GPAs rounded the way transcripts show them
+        int deansList = (int) Math.round(deansListGpa * 100);
+        int warning = (int) Math.round(warningGpa * 100);
+        int probation = (int) Math.round(probationGpa * 100);
+
+        int[] counts = new int[STANDINGS.length];
+        StandingBatch batch = new StandingBatch(batchSize);
+        int students = 0;
+        int rows = 0;
+        try (Connection reader = dataSource.getConnection();
+             Connection writer = dataSource.getConnection()) {
+            boolean readerAutoCommit = reader.getAutoCommit();
+            boolean writerAutoCommit = writer.getAutoCommit();
+            // PostgreSQL only honours the fetch size inside a transaction; otherwise it buffers everything
+            reader.setAutoCommit(false);
+            reader.setReadOnly(true);
+            // Readers keep seeing the previous standings until the new ones are complete
+            writer.setAutoCommit(false);
+            try (PreparedStatement select = reader.prepareStatement(LEDGER_SQL,
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                 PreparedStatement delete = writer.prepareStatement("DELETE FROM academic_standings");
+                 PreparedStatement insert = writer.prepareStatement(INSERT_SQL)) {
+                delete.executeUpdate();
+                select.setFetchSize(fetchSize);
+                try (ResultSet rs = select.executeQuery()) {
+                    long currentStudent = -1;
+                    long cumulativeTenths = 0;
+                    int cumulativeCredits = 0;
+                    while (rs.next()) {
+                        long studentId = rs.getLong(1);
+                        long tenths = rs.getLong(3);
+                        int credits = rs.getInt(4);
+                        if (studentId != currentStudent) {
+                            currentStudent = studentId;
+                            cumulativeTenths = 0;
+                            cumulativeCredits = 0;
+                            students++;
+                        }
+                        cumulativeTenths += tenths;
+                        cumulativeCredits += credits;
+
+                        int termGpa = hundredths(tenths, credits);
+                        int cumulativeGpa = hundredths(cumulativeTenths, cumulativeCredits);
+                        Standing standing;
+                        if (cumulativeGpa < probation) {
+                            standing = Standing.PROBATION;
+                        } else if (termGpa < warning) {
+                            standing = Standing.ACADEMIC_WARNING;
+                        } else if (termGpa >= deansList && credits >= deansListMinCredits) {
+                            standing = Standing.DEANS_LIST;
+                        } else {
+                            standing = Standing.GOOD_STANDING;
+                        }
+                        counts[standing.ordinal()]++;
+
+                        batch.add(studentId, rs.getLong(2), termGpa / 100.0, credits, cumulativeGpa / 100.0,
+                                cumulativeCredits, standing);
+                        rows++;
+                        if (batch.size == batchSize) {
+                            batch.insert(insert, evaluatedAtValue);
+                        }
+                    }
+                }
+                batch.insert(insert, evaluatedAtValue);
+                writer.commit();
+            } catch (SQLException | RuntimeException e) {
+                writer.rollback();
+                throw e;
+            } finally {
+                reader.rollback();
+                reader.setReadOnly(false);
+                reader.setAutoCommit(readerAutoCommit);
+                writer.setAutoCommit(writerAutoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error evaluating academic standing: " + e.getMessage(), e);
+        }
+
+        Map<String, Integer> countsByStanding = new LinkedHashMap<>();
+        for (Standing standing : STANDINGS) {
+            countsByStanding.put(standing.name(), counts[standing.ordinal()]);
+        }
+        long duration = System.currentTimeMillis() - started;
+        logger.info("Evaluated academic standing: {} students, {} semester standings in {} ms", students, rows, duration);
+        return new StandingEvaluationResponse(evaluatedAt, duration, students, rows, countsByStanding);
+    }
+
+    /**
+     * Standings for a semester, best term GPA first, optionally only those of one standing.
+     */
+    public List<AcademicStandingResponse> getSemesterStandings(String semesterName, String standing) {
+        Semester semester = semesterRepository.findByName(semesterName.trim())
+                .orElseThrow(() -> new RuntimeException("Semester not found: " + semesterName));
+        List<AcademicStanding> standings = standing == null || standing.isBlank()
+                ? academicStandingRepository.findBySemesterIdOrderByTermGpaDescStudentIdAsc(semester.getId())
+                : academicStandingRepository.findBySemesterIdAndStandingOrderByTermGpaDescStudentIdAsc(
+                        semester.getId(), parseStanding(standing));
+        return toResponses(standings);
+    }
+
+    /**
+     * A student's standings, oldest semester first.
+     */
+    public List<AcademicStandingResponse> getStudentStandings(Long studentId) {
+        if (!studentRepository.existsById(studentId)) {
+            throw new RuntimeException("Student not found with id: " + studentId);
+        }
+        // Rows are inserted in semester order for each student, so id order is semester order
+        return toResponses(academicStandingRepository.findByStudentIdOrderByIdAsc(studentId));
+    }
+
+    private List<AcademicStandingResponse> toResponses(List<AcademicStanding> standings) {
+        // Names are looked up once per list instead of once per row
+        Map<Long, String> studentNames = studentRepository.findAllById(standings.stream()
+                        .map(AcademicStanding::getStudentId).distinct().collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Student::getId, Student::getName));
+        Map<Long, String> semesterNames = semesterRepository.findAllById(standings.stream()
+                        .map(AcademicStanding::getSemesterId).distinct().collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Semester::getId, Semester::getName));
+        return standings.stream()
+                .map(standing -> new AcademicStandingResponse(standing.getStudentId(),
+                        studentNames.get(standing.getStudentId()), semesterNames.get(standing.getSemesterId()),
+                        standing.getTermGpa(), standing.getTermCredits(), standing.getCumulativeGpa(),
+                        standing.getCumulativeCredits(), standing.getStanding(), standing.getEvaluatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    private static Standing parseStanding(String standing) {
+        String name = standing.trim().toUpperCase().replace(' ', '_').replace('-', '_');
+        for (Standing candidate : STANDINGS) {
+            if (candidate.name().equals(name)) {
+                return candidate;
+            }
+        }
+        throw new RuntimeException("Unknown standing: " + standing + ". Use one of "
+                + Arrays.stream(STANDINGS).map(Standing::name).collect(Collectors.joining(", ")));
+    }
+
+    // Same rounding as GpaLedgerService.Summary
+    private static int hundredths(long gradePointTenths, int gradedCredits) {
+        return (int) Math.round(gradePointTenths * 10.0 / gradedCredits);
+    }
+
+    // Column arrays for the rows of one insert
+    private static final class StandingBatch {
+        private final Long[] studentIds;
+        private final Long[] semesterIds;
+        private final Double[] termGpas;
+        private final Integer[] termCredits;
+        private final Double[] cumulativeGpas;
+        private final Integer[] cumulativeCredits;
+        private final String[] standings;
+        private int size;
+
+        private StandingBatch(int capacity) {
+            studentIds = new Long[capacity];
+            semesterIds = new Long[capacity];
+            termGpas = new Double[capacity];
+            termCredits = new Integer[capacity];
+            cumulativeGpas = new Double[capacity];
+            cumulativeCredits = new Integer[capacity];
+            standings = new String[capacity];
+        }
+
+        private void add(long studentId, long semesterId, double termGpa, int termCredit, double cumulativeGpa,
+                         int cumulativeCredit, Standing standing) {
+            studentIds[size] = studentId;
+            semesterIds[size] = semesterId;
+            termGpas[size] = termGpa;
+            termCredits[size] = termCredit;
+            cumulativeGpas[size] = cumulativeGpa;
+            cumulativeCredits[size] = cumulativeCredit;
+            standings[size] = standing.name();
+            size++;
+        }
+
+        private void insert(PreparedStatement insert, Timestamp evaluatedAt) throws SQLException {
+            if (size == 0) {
+                return;
+            }
+            Connection connection = insert.getConnection();
+            insert.setTimestamp(1, evaluatedAt);
+            insert.setArray(2, connection.createArrayOf("bigint", Arrays.copyOf(studentIds, size)));
+            insert.setArray(3, connection.createArrayOf("bigint", Arrays.copyOf(semesterIds, size)));
+            insert.setArray(4, connection.createArrayOf("float8", Arrays.copyOf(termGpas, size)));
+            insert.setArray(5, connection.createArrayOf("int4", Arrays.copyOf(termCredits, size)));
+            insert.setArray(6, connection.createArrayOf("float8", Arrays.copyOf(cumulativeGpas, size)));
+            insert.setArray(7, connection.createArrayOf("int4", Arrays.copyOf(cumulativeCredits, size)));
+            insert.setArray(8, connection.createArrayOf("varchar", Arrays.copyOf(standings, size)));
+            insert.executeUpdate();
+            size = 0;
+        }
+    }
+}
@@ -2,15 +2,25 @@ package com.ucms.service;
 
 import com.ucms.dto.*;
 import com.ucms.entity.*;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.event.StudentCohortChangedEvent;
+import com.ucms.service.DataVersionService.Domain;
 import com.ucms.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import java.time.LocalDate;
@@ -19,6 +29,8 @@ import java.time.LocalDateTime;
 @Service
 public class AdminService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
+
     @Autowired
     private UserRepository userRepository;
 
@@ -37,6 +49,36 @@ public class AdminService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private GradeSketchService gradeSketchService;
+
+    @Autowired
+    private SemesterService semesterService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private StatsQueryExecutor statsQueryExecutor;
+
+    @Autowired
+    private AnalyticsCacheService analyticsCacheService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private SemesterSnapshotService semesterSnapshotService;
+
+    @Autowired
+    private GpaLedgerService gpaLedgerService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Transactional
     public User createUser(CreateUserRequest request) {
         // Check if username already exists
@@ -68,6 +110,7 @@ public class AdminService {
                 break;
         }
 
+        dataVersionService.bump(Domain.USERS);
         return user;
     }
 
@@ -95,6 +138,7 @@ public class AdminService {
                 break;
         }
 
+        dataVersionService.bump(Domain.USERS);
         return userRepository.save(user);
     }
 
@@ -122,6 +166,7 @@ public class AdminService {
                 break;
         }
 
+        dataVersionService.bump(Domain.USERS);
         return userRepository.save(user);
     }
 
@@ -134,9 +179,13 @@ public class AdminService {
         switch (user.getRole()) {
             case STUDENT:
                 studentRepository.deleteById(userId);
+                gpaLedgerService.studentRemoved(userId);
                 break;
             case PROFESSOR:
-                professorRepository.deleteById(userId);
+                professorRepository.findById(userId).ifPresent(professor -> {
+                    professorRepository.delete(professor);
+                    departmentService.professorRemoved(professor.getDepartment());
+                });
                 break;
             case ADMIN:
                 // No additional profile to delete
@@ -145,6 +194,7 @@ public class AdminService {
 
         // Delete the user
         userRepository.delete(user);
+        dataVersionService.bump(Domain.USERS);
     }
 
     private void createStudentProfile(User user, CreateUserRequest request) {
@@ -169,9 +219,10 @@ public class AdminService {
         professor.setEmployeeId(generateEmployeeId()); // Always auto-generate
         professor.setName(request.getName());
         professor.setEmail(request.getEmail());
-        professor.setDepartment(request.getDepartment());
+        professor.setDepartment(departmentService.getOrCreate(request.getDepartment()));
 
         professorRepository.save(professor);
+        departmentService.professorAdded(professor.getDepartment());
     }
 
     private void updateStudentProfile(User user, CreateUserRequest request) {
@@ -196,7 +247,9 @@ public class AdminService {
         professor.setEmail(request.getEmail());
         // Note: employeeId is not updated as it's auto-generated and should remain constant
         if (request.getDepartment() != null) {
-            professor.setDepartment(request.getDepartment());
+            Department department = departmentService.getOrCreate(request.getDepartment());
+            departmentService.professorMoved(professor.getDepartment(), department);
+            professor.setDepartment(department);
         }
 
         professorRepository.save(professor);
@@ -236,7 +289,9 @@ public class AdminService {
         professor.setEmail(request.getEmail());
         // Note: employeeId is not updated as it's auto-generated and should remain constant
         if (request.getDepartment() != null) {
-            professor.setDepartment(request.getDepartment());
+            Department department = departmentService.getOrCreate(request.getDepartment());
+            departmentService.professorMoved(professor.getDepartment(), department);
+            professor.setDepartment(department);
         }
 
         professorRepository.save(professor);
@@ -273,6 +328,9 @@ public class AdminService {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found with id: " + studentId));
 
+        String previousMajor = student.getMajor();
+        String previousYear = student.getYear();
+
         // Update student information
         if (request.getName() != null) student.setName(request.getName());
         if (request.getEmail() != null) student.setEmail(request.getEmail());
@@ -280,6 +338,11 @@ public class AdminService {
         if (request.getYear() != null) student.setYear(request.getYear());
         
         Student savedStudent = studentRepository.save(student);
+        dataVersionService.bump(Domain.USERS);
+        if (!Objects.equals(previousMajor, savedStudent.getMajor()) || !Objects.equals(previousYear, savedStudent.getYear())) {
+            eventPublisher.publishEvent(new StudentCohortChangedEvent(savedStudent.getId(),
+                    previousMajor, previousYear, savedStudent.getMajor(), savedStudent.getYear()));
+        }
         return convertToStudentDetailResponse(savedStudent);
     }
 
@@ -306,7 +369,8 @@ public class AdminService {
         // Update course capacity (even if it goes negative)
         course.setAvailableSeats(course.getAvailableSeats() - 1);
         courseRepository.save(course);
-        enrollmentRepository.save(enrollment);
+        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.enrolled(savedEnrollment));
 
         // Log the force enrollment action
         // In production, you'd want an audit log
@@ -323,6 +387,7 @@ public class AdminService {
         course.setAvailableSeats(course.getAvailableSeats() + 1);
         courseRepository.save(course);
         enrollmentRepository.delete(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.dropped(enrollment));
 
         // Log the force drop action
         System.out.println("ADMIN FORCE DROP: Student " + studentId + " dropped from course " + courseId + 
@@ -349,13 +414,15 @@ public class AdminService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + enrollmentId));
 
-        // Validate grade
-        if (request.getGrade() != null && !isValidGrade(request.getGrade())) {
-            throw new RuntimeException("Invalid grade: " + request.getGrade());
-        }
+        // Validates the letter; null clears the grade
+        Grade grade = Grade.of(request.getGrade());
+
+        Grade previousGrade = enrollment.getGrade();
+        Double previousAttendance = enrollment.getAttendance();
+        Double previousParticipationScore = enrollment.getParticipationScore();
 
         // Update all grade fields
-        enrollment.setGrade(request.getGrade());
+        enrollment.setGrade(grade);
         enrollment.setComments(request.getComments());
         enrollment.setMidtermGrade(request.getMidtermGrade());
         enrollment.setFinalGrade(request.getFinalGrade());
@@ -364,21 +431,51 @@ public class AdminService {
         
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
 
-        // Log grade override
-        System.out.println("ADMIN GRADE OVERRIDE: Enrollment " + enrollmentId + " grade updated to " + request.getGrade() +
-                          (request.getComments() != null ? " Comments: " + request.getComments() : ""));
+        eventPublisher.publishEvent(new GradeChangedEvent(
+                savedEnrollment.getId(), savedEnrollment.getStudent().getId(), savedEnrollment.getCourse().getId(),
+                savedEnrollment.getCourse().getSemesterName(), previousGrade, savedEnrollment.getGrade(),
+                previousAttendance, savedEnrollment.getAttendance(),
+                previousParticipationScore, savedEnrollment.getParticipationScore(), request.getComments()));
+
+        // The override and its reason are kept in the grade history; this only notes it in the log
+        logger.info("Admin grade override: enrollment {} grade {} -> {}", enrollmentId,
+                Grade.letterOf(previousGrade), Grade.letterOf(savedEnrollment.getGrade()));
 
         return convertToGradeResponse(savedEnrollment);
     }
 
     public GradeAnalyticsResponse getGradeAnalytics(String semester, String courseCode) {
-        List<Enrollment> enrollments = enrollmentRepository.findAll();
-        
-        // Filter by semester and course code if provided
+        // Parameters are normalized so identical requests share a cache entry and one scan
+        String normalizedSemester = normalizeParameter(semester);
+        String normalizedCourseCode = normalizeParameter(courseCode);
+        String key = normalizedSemester + "|" + normalizedCourseCode;
+        return analyticsCacheService.get("grade-analytics", key,
+                () -> computeGradeAnalytics(normalizedSemester, normalizedCourseCode),
+                Domain.ENROLLMENTS, Domain.GRADES, Domain.COURSES, Domain.SEMESTERS);
+    }
+
+    private GradeAnalyticsResponse computeGradeAnalytics(String semester, String courseCode) {
+        Optional<Semester> semesterEntity = semesterService.findByName(semester);
+
+        // A closed semester's analytics were frozen when it closed
+        Optional<SemesterSnapshotResponse> snapshot = semesterEntity.flatMap(semesterSnapshotService::find);
+        if (snapshot.isPresent()) {
+            GradeAnalyticsResponse frozen = courseCode == null
+                    ? snapshot.get().getSemesterAnalytics()
+                    : snapshot.get().getCourseAnalytics().get(courseCode);
+            if (frozen != null) {
+                return frozen;
+            }
+        }
+
+        // Semester filtering is an indexed lookup on the course's semester_id
+        List<Enrollment> enrollments;
         if (semester != null) {
-            enrollments = enrollments.stream()
-                    .filter(e -> semester.equals(e.getCourse().getSemester()))
-                    .collect(Collectors.toList());
+            enrollments = semesterEntity
+                    .map(s -> enrollmentRepository.findByCourseSemesterId(s.getId()))
+                    .orElse(List.of());
+        } else {
+            enrollments = enrollmentRepository.findAll();
         }
         if (courseCode != null) {
             enrollments = enrollments.stream()
@@ -386,36 +483,50 @@ public class AdminService {
                     .collect(Collectors.toList());
         }
 
-        // Calculate analytics
-        Map<String, Integer> gradeDistribution = new HashMap<>();
-        List<String> validGrades = Arrays.asList("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
-        validGrades.forEach(grade -> gradeDistribution.put(grade, 0));
+        GradeAnalyticsResponse analytics = summarizeGrades(semester, courseCode, enrollments);
+
+        // Percentiles come from the maintained sketches rather than sorting the result set
+        GradePercentilesResponse percentiles;
+        if (courseCode != null) {
+            List<Course> courses = semester != null
+                    ? semesterEntity.map(s -> courseRepository.findBySemesterIdAndCode(s.getId(), courseCode)).orElse(List.of())
+                    : courseRepository.findAllByCode(courseCode);
+            percentiles = gradeSketchService.getPercentilesForCourses(courses);
+        } else {
+            percentiles = gradeSketchService.getPercentiles(semester, null);
+        }
+        setPercentiles(analytics, percentiles);
+
+        return analytics;
+    }
 
+    private GradeAnalyticsResponse summarizeGrades(String semester, String courseCode, List<Enrollment> enrollments) {
+        // Calculate analytics
+        int[] gradeCounts = new int[Grade.count()];
         int totalGrades = 0;
+        int passingGrades = 0;
         double totalGradePoints = 0;
         int pendingGrades = 0;
 
         for (Enrollment enrollment : enrollments) {
-            String grade = enrollment.getGrade();
+            Grade grade = enrollment.getGrade();
             if (grade == null) {
                 pendingGrades++;
             } else {
-                gradeDistribution.put(grade, gradeDistribution.getOrDefault(grade, 0) + 1);
-                totalGradePoints += getGradePoints(grade);
+                gradeCounts[grade.ordinal()]++;
+                totalGradePoints += grade.getPoints();
                 totalGrades++;
+                if (grade.isPassing()) {
+                    passingGrades++;
+                }
             }
         }
 
         double averageGPA = totalGrades > 0 ? totalGradePoints / totalGrades : 0.0;
-        double passRate = totalGrades > 0 ? 
-            (double) enrollments.stream().filter(e -> e.getGrade() != null && !e.getGrade().equals("F")).collect(Collectors.toList()).size() / totalGrades * 100 : 0.0;
+        double passRate = totalGrades > 0 ? (double) passingGrades / totalGrades * 100 : 0.0;
 
-        // Calculate percentages
-        Map<String, Double> gradePercentages = new HashMap<>();
-        for (Map.Entry<String, Integer> entry : gradeDistribution.entrySet()) {
-            double percentage = totalGrades > 0 ? (double) entry.getValue() / totalGrades * 100 : 0.0;
-            gradePercentages.put(entry.getKey(), Math.round(percentage * 100.0) / 100.0);
-        }
+        Map<String, Integer> gradeDistribution = countsByLetter(gradeCounts);
+        Map<String, Double> gradePercentages = percentagesByLetter(gradeCounts, totalGrades);
 
         GradeAnalyticsResponse analytics = new GradeAnalyticsResponse();
         analytics.setSemester(semester);
@@ -426,47 +537,57 @@ public class AdminService {
         analytics.setGradePercentages(gradePercentages);
         analytics.setPendingGrades(pendingGrades);
         analytics.setPassRate(Math.round(passRate * 100.0) / 100.0);
-
         return analytics;
     }
 
+    private static void setPercentiles(GradeAnalyticsResponse analytics, GradePercentilesResponse percentiles) {
+        analytics.setGpaPercentiles(percentiles.getGpaPercentiles());
+        analytics.setAttendancePercentiles(percentiles.getAttendancePercentiles());
+        analytics.setParticipationPercentiles(percentiles.getParticipationPercentiles());
+    }
+
     public GradeDistributionResponse getCourseGradeDistribution(Long courseId) {
+        return analyticsCacheService.get("grade-distribution", String.valueOf(courseId),
+                () -> computeCourseGradeDistribution(courseId),
+                Domain.ENROLLMENTS, Domain.GRADES, Domain.COURSES);
+    }
+
+    private GradeDistributionResponse computeCourseGradeDistribution(Long courseId) {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
 
-        List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
-        
-        Map<String, Integer> gradeCount = new HashMap<>();
-        List<String> validGrades = Arrays.asList("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
-        validGrades.forEach(grade -> gradeCount.put(grade, 0));
+        Optional<SemesterSnapshotResponse> snapshot = semesterSnapshotService.find(course.getSemester());
+        if (snapshot.isPresent() && snapshot.get().getCourseDistributions().containsKey(courseId)) {
+            return snapshot.get().getCourseDistributions().get(courseId);
+        }
+        return summarizeCourseGrades(course, enrollmentRepository.findWithStudentsByCourseId(courseId));
+    }
 
+    private GradeDistributionResponse summarizeCourseGrades(Course course, List<Enrollment> enrollments) {
+        int[] gradeCounts = new int[Grade.count()];
         int totalStudents = enrollments.size();
         int gradedStudents = 0;
         double totalGradePoints = 0;
 
         for (Enrollment enrollment : enrollments) {
-            String grade = enrollment.getGrade();
+            Grade grade = enrollment.getGrade();
             if (grade != null) {
-                gradeCount.put(grade, gradeCount.getOrDefault(grade, 0) + 1);
-                totalGradePoints += getGradePoints(grade);
+                gradeCounts[grade.ordinal()]++;
+                totalGradePoints += grade.getPoints();
                 gradedStudents++;
             }
         }
 
         double courseAverageGPA = gradedStudents > 0 ? totalGradePoints / gradedStudents : 0.0;
 
-        // Calculate percentages
-        Map<String, Double> gradePercentage = new HashMap<>();
-        for (Map.Entry<String, Integer> entry : gradeCount.entrySet()) {
-            double percentage = gradedStudents > 0 ? (double) entry.getValue() / gradedStudents * 100 : 0.0;
-            gradePercentage.put(entry.getKey(), Math.round(percentage * 100.0) / 100.0);
-        }
+        Map<String, Integer> gradeCount = countsByLetter(gradeCounts);
+        Map<String, Double> gradePercentage = percentagesByLetter(gradeCounts, gradedStudents);
 
         GradeDistributionResponse distribution = new GradeDistributionResponse();
-        distribution.setCourseId(courseId);
+        distribution.setCourseId(course.getId());
         distribution.setCourseCode(course.getCode());
         distribution.setCourseTitle(course.getTitle());
-        distribution.setSemester(course.getSemester());
+        distribution.setSemester(course.getSemesterName());
         distribution.setProfessorName(course.getProfessor() != null ? course.getProfessor().getName() : "TBA");
         distribution.setTotalStudents(totalStudents);
         distribution.setGradedStudents(gradedStudents);
@@ -475,98 +596,155 @@ public class AdminService {
         distribution.setGradeCount(gradeCount);
         distribution.setGradePercentage(gradePercentage);
 
+        Double medianPoints = gradeSketchService.getCoursePercentiles(course.getId()).getGpaPercentiles().get("p50");
+        if (medianPoints != null) {
+            distribution.setMedianGrade(nearestGrade(medianPoints));
+        }
+        gradeCount.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .max(Map.Entry.comparingByValue())
+                .ifPresent(entry -> distribution.setModeGrade(entry.getKey()));
+
         return distribution;
     }
 
+    /**
+     * Closes a semester and freezes its analytics. The semester is closed first, so nothing can
+     * change while the snapshot is computed from one load of its enrollments. If writing the
+     * snapshot fails the semester stays closed and closing it again retries the snapshot.
+     */
+    public SemesterSnapshotResponse closeSemester(Long semesterId, boolean force) {
+        if (semesterSnapshotService.exists(semesterId)) {
+            throw new RuntimeException("Semester is already closed");
+        }
+        Semester semester = semesterService.closeSemester(semesterId, force);
+
+        List<Course> courses = courseRepository.findBySemesterId(semesterId);
+        Map<Long, List<Enrollment>> enrollmentsByCourse = enrollmentRepository.findByCourseSemesterId(semesterId).stream()
+                .collect(Collectors.groupingBy(e -> e.getCourse().getId()));
+        List<Enrollment> all = enrollmentsByCourse.values().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        String name = semester.getName();
+
+        Map<String, List<Course>> coursesByCode = new TreeMap<>();
+        Map<String, List<Course>> coursesByDepartment = new TreeMap<>();
+        Map<Long, GradeDistributionResponse> distributions = new TreeMap<>();
+        for (Course course : courses) {
+            coursesByCode.computeIfAbsent(course.getCode(), code -> new ArrayList<>()).add(course);
+            if (course.getDepartmentName() != null) {
+                coursesByDepartment.computeIfAbsent(course.getDepartmentName(), department -> new ArrayList<>()).add(course);
+            }
+            distributions.put(course.getId(),
+                    summarizeCourseGrades(course, enrollmentsByCourse.getOrDefault(course.getId(), List.of())));
+        }
+
+        Map<String, GradeAnalyticsResponse> courseAnalytics = new TreeMap<>();
+        coursesByCode.forEach((code, group) -> {
+            GradeAnalyticsResponse analytics = summarizeGrades(name, code, enrollmentsOf(group, enrollmentsByCourse));
+            setPercentiles(analytics, gradeSketchService.getPercentilesForCourses(group));
+            courseAnalytics.put(code, analytics);
+        });
+
+        Map<String, GradeAnalyticsResponse> departmentAnalytics = new TreeMap<>();
+        Map<String, Double> departmentComparison = new TreeMap<>();
+        coursesByDepartment.forEach((department, group) -> {
+            GradeAnalyticsResponse analytics = summarizeGrades(name, null, enrollmentsOf(group, enrollmentsByCourse));
+            setPercentiles(analytics, gradeSketchService.getPercentilesForCourses(group));
+            departmentAnalytics.put(department, analytics);
+            departmentComparison.put(department, analytics.getAverageGPA());
+        });
+
+        GradeAnalyticsResponse semesterAnalytics = summarizeGrades(name, null, all);
+        setPercentiles(semesterAnalytics, gradeSketchService.getPercentiles(name, null));
+        semesterAnalytics.setDepartmentComparison(departmentComparison);
+
+        SemesterSnapshotResponse snapshot = new SemesterSnapshotResponse(semesterId, name, semester.getClosedAt(),
+                LocalDateTime.now(), courses.size(), all.size(), semesterAnalytics, courseAnalytics,
+                departmentAnalytics, distributions);
+        semesterSnapshotService.write(snapshot);
+        return snapshot;
+    }
+
+    public SemesterSnapshotResponse getSemesterSnapshot(Long semesterId) {
+        Semester semester = semesterService.findById(semesterId)
+                .orElseThrow(() -> new RuntimeException("Semester not found with id: " + semesterId));
+        return semesterSnapshotService.find(semester)
+                .orElseThrow(() -> new RuntimeException("Semester '" + semester.getName() + "' has not been closed"));
+    }
+
+    private static List<Enrollment> enrollmentsOf(List<Course> courses, Map<Long, List<Enrollment>> enrollmentsByCourse) {
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (Course course : courses) {
+            enrollments.addAll(enrollmentsByCourse.getOrDefault(course.getId(), List.of()));
+        }
+        return enrollments;
+    }
+
     // ===============================
     // SYSTEM ADMINISTRATION METHODS
     // ===============================
 
     public List<SemesterResponse> getAllSemesters() {
-        // In a real system, you'd have a Semester entity
-        // For now, we'll return semesters based on existing courses
-        List<Course> courses = courseRepository.findAll();
-        Set<String> semesterNames = courses.stream()
-                .map(Course::getSemester)
-                .collect(Collectors.toSet());
-
-        return semesterNames.stream()
-                .map(semesterName -> {
-                    SemesterResponse semester = new SemesterResponse();
-                    semester.setName(semesterName);
-                    semester.setCode(generateSemesterCode(semesterName));
-                    semester.setTotalCourses((int) courses.stream().filter(c -> semesterName.equals(c.getSemester())).count());
-                    semester.setIsActive(true); // Simplified logic
-                    return semester;
-                })
-                .collect(Collectors.toList());
+        // Semester status depends on today's date, so the date is part of the key
+        return analyticsCacheService.get("semesters", LocalDate.now().toString(),
+                semesterService::getAllSemesters,
+                Domain.SEMESTERS, Domain.COURSES, Domain.ENROLLMENTS);
     }
 
     public SemesterResponse createSemester(CreateSemesterRequest request) {
-        // In a real system, you'd save to a Semester entity
-        SemesterResponse semester = new SemesterResponse();
-        semester.setName(request.getName());
-        semester.setCode(request.getCode());
-        semester.setStartDate(request.getStartDate());
-        semester.setEndDate(request.getEndDate());
-        semester.setIsActive(request.getIsActive());
-        semester.setTotalCourses(0);
-        semester.setTotalEnrollments(0);
-        return semester;
+        return semesterService.createSemester(request);
     }
 
     public List<DepartmentResponse> getAllDepartments() {
-        // In a real system, you'd have a Department entity
-        // For now, we'll return departments based on existing professors
-        List<Professor> professors = professorRepository.findAll();
-        Map<String, List<Professor>> professorsByDepartment = professors.stream()
-                .collect(Collectors.groupingBy(Professor::getDepartment));
-
-        return professorsByDepartment.entrySet().stream()
-                .map(entry -> {
-                    DepartmentResponse dept = new DepartmentResponse();
-                    dept.setName(entry.getKey());
-                    dept.setCode(generateDepartmentCode(entry.getKey()));
-                    dept.setTotalProfessors(entry.getValue().size());
-                    return dept;
-                })
-                .collect(Collectors.toList());
+        return analyticsCacheService.get("departments", "all",
+                departmentService::getAllDepartments,
+                Domain.DEPARTMENTS, Domain.USERS, Domain.COURSES, Domain.ENROLLMENTS);
     }
 
     public DepartmentResponse createDepartment(CreateDepartmentRequest request) {
-        // In a real system, you'd save to a Department entity
-        DepartmentResponse department = new DepartmentResponse();
-        department.setName(request.getName());
-        department.setCode(request.getCode());
-        department.setDescription(request.getDescription());
-        department.setHeadOfDepartment(request.getHeadOfDepartment());
-        department.setContactEmail(request.getContactEmail());
-        department.setLocation(request.getLocation());
-        department.setTotalProfessors(0);
-        department.setTotalCourses(0);
-        department.setTotalStudents(0);
-        return department;
+        return departmentService.createDepartment(request);
     }
 
     public SystemStatisticsResponse getSystemStatistics() {
+        // Keyed by month so "new users this month" starts over when the month does
+        return analyticsCacheService.get("system-stats", "system:" + LocalDate.now().withDayOfMonth(1),
+                this::computeSystemStatistics,
+                Domain.USERS, Domain.ENROLLMENTS, Domain.GRADES, Domain.COURSES);
+    }
+
+    private SystemStatisticsResponse computeSystemStatistics() {
+        // Every figure below is an independent aggregate, so the queries run concurrently
+        CompletableFuture<Long> totalUsersQuery = statsQueryExecutor.submit(userRepository::count);
+        CompletableFuture<Long> studentsQuery = statsQueryExecutor.submit(studentRepository::count);
+        CompletableFuture<Long> professorsQuery = statsQueryExecutor.submit(professorRepository::count);
+        CompletableFuture<Long> adminsQuery = statsQueryExecutor.submit(() -> userRepository.countByRole(User.Role.ADMIN));
+        CompletableFuture<Long> newUsersQuery = statsQueryExecutor.submit(() -> userRepository.countByCreatedAtGreaterThanEqual(
+                LocalDate.now().withDayOfMonth(1).atStartOfDay()));
+        CompletableFuture<Long> totalEnrollmentsQuery = statsQueryExecutor.submit(enrollmentRepository::count);
+        CompletableFuture<Long> gradedEnrollmentsQuery = statsQueryExecutor.submit(enrollmentRepository::countByGradeIsNotNull);
+        CompletableFuture<Long> totalCoursesQuery = statsQueryExecutor.submit(courseRepository::count);
+        CompletableFuture<Long> fullCoursesQuery = statsQueryExecutor.submit(
+                () -> courseRepository.countByAvailableSeatsLessThanEqual(0));
+        statsQueryExecutor.awaitAll(totalUsersQuery, studentsQuery, professorsQuery, adminsQuery, newUsersQuery,
+                totalEnrollmentsQuery, gradedEnrollmentsQuery, totalCoursesQuery, fullCoursesQuery);
+
         // User statistics
-        long totalUsers = userRepository.count();
-        long activeStudents = studentRepository.count();
-        long activeProfessors = professorRepository.count();
-        long admins = userRepository.countByRole(User.Role.ADMIN);
+        long totalUsers = totalUsersQuery.join();
+        long activeStudents = studentsQuery.join();
+        long activeProfessors = professorsQuery.join();
+        long admins = adminsQuery.join();
 
         SystemStatisticsResponse.UserStatistics userStats = new SystemStatisticsResponse.UserStatistics();
         userStats.setTotalUsers(totalUsers);
         userStats.setActiveStudents(activeStudents);
         userStats.setActiveProfessors(activeProfessors);
         userStats.setAdmins(admins);
-        userStats.setNewUsersThisMonth(0L); // Would need date filtering
+        userStats.setNewUsersThisMonth(newUsersQuery.join());
 
         // Enrollment statistics
-        long totalEnrollments = enrollmentRepository.count();
-        long completedEnrollments = enrollmentRepository.findAll().stream()
-                .filter(e -> e.getGrade() != null)
-                .collect(Collectors.toList()).size();
+        long totalEnrollments = totalEnrollmentsQuery.join();
+        long completedEnrollments = gradedEnrollmentsQuery.join();
         long activeEnrollments = totalEnrollments - completedEnrollments;
 
         SystemStatisticsResponse.EnrollmentStatistics enrollmentStats = new SystemStatisticsResponse.EnrollmentStatistics();
@@ -576,10 +754,8 @@ public class AdminService {
         enrollmentStats.setAverageEnrollmentsPerStudent(activeStudents > 0 ? (double) totalEnrollments / activeStudents : 0.0);
 
         // Course statistics
-        long totalCourses = courseRepository.count();
-        long fullCapacityCourses = courseRepository.findAll().stream()
-                .filter(c -> c.getAvailableSeats() <= 0)
-                .count();
+        long totalCourses = totalCoursesQuery.join();
+        long fullCapacityCourses = fullCoursesQuery.join();
 
         SystemStatisticsResponse.CourseStatistics courseStats = new SystemStatisticsResponse.CourseStatistics();
         courseStats.setTotalCourses(totalCourses);
@@ -587,8 +763,7 @@ public class AdminService {
         courseStats.setFullCapacityCourses(fullCapacityCourses);
 
         // Grade statistics
-        List<Enrollment> allEnrollments = enrollmentRepository.findAll();
-        long totalGrades = allEnrollments.stream().filter(e -> e.getGrade() != null).count();
+        long totalGrades = completedEnrollments;
         long pendingGrades = totalEnrollments - totalGrades;
 
         SystemStatisticsResponse.GradeStatistics gradeStats = new SystemStatisticsResponse.GradeStatistics();
@@ -649,6 +824,11 @@ public class AdminService {
                 report.setTitle("System Overview Report");
         }
 
+        // Report bodies are streamed separately so large reports never sit in memory
+        if (reportService.isExportable(reportType)) {
+            report.setDownloadUrl(buildReportExportUrl(reportType, semester, department));
+        }
+
         return report;
     }
 
@@ -667,7 +847,7 @@ public class AdminService {
         response.setStatus("Active"); // Simplified
 
         // Get enrollments
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(student.getId());
+        List<Enrollment> enrollments = enrollmentRepository.findWithCoursesByStudentId(student.getId());
         
         List<StudentDetailResponse.EnrollmentSummary> currentEnrollments = enrollments.stream()
                 .filter(e -> e.getGrade() == null) // Current enrollments
@@ -682,18 +862,10 @@ public class AdminService {
         response.setCurrentEnrollments(currentEnrollments);
         response.setEnrollmentHistory(enrollmentHistory);
 
-        // Calculate GPA
-        double totalGradePoints = 0;
-        int completedCredits = 0;
-        for (Enrollment enrollment : enrollments) {
-            if (enrollment.getGrade() != null) {
-                totalGradePoints += getGradePoints(enrollment.getGrade()) * 3; // Assuming 3 credits per course
-                completedCredits += 3;
-            }
-        }
-        response.setGpa(completedCredits > 0 ? Math.round((totalGradePoints / completedCredits) * 100.0) / 100.0 : 0.0);
-        response.setCompletedCredits(completedCredits);
-        response.setTotalCredits(enrollments.size() * 3);
+        GpaLedgerService.Summary summary = gpaLedgerService.getSummary(student.getId());
+        response.setGpa(summary.getGpaOrZero());
+        response.setCompletedCredits(summary.getCompletedCredits());
+        response.setTotalCredits(summary.getTotalCredits());
 
         return response;
     }
@@ -703,7 +875,7 @@ public class AdminService {
         summary.setEnrollmentId(enrollment.getId());
         summary.setCourseCode(enrollment.getCourse().getCode());
         summary.setCourseTitle(enrollment.getCourse().getTitle());
-        summary.setSemester(enrollment.getCourse().getSemester());
+        summary.setSemester(enrollment.getCourse().getSemesterName());
         summary.setGrade(enrollment.getGrade());
         summary.setProfessorName(enrollment.getCourse().getProfessor() != null ? 
                 enrollment.getCourse().getProfessor().getName() : "TBA");
@@ -720,12 +892,12 @@ public class AdminService {
         response.setCourseId(enrollment.getCourse().getId());
         response.setCourseCode(enrollment.getCourse().getCode());
         response.setCourseTitle(enrollment.getCourse().getTitle());
-        response.setSemester(enrollment.getCourse().getSemester());
+        response.setSemester(enrollment.getCourse().getSemesterName());
         response.setProfessorName(enrollment.getCourse().getProfessor() != null ? 
                 enrollment.getCourse().getProfessor().getName() : "TBA");
         response.setGrade(enrollment.getGrade());
-        response.setCredits(3); // Assuming 3 credits per course
-        response.setGradePoints(enrollment.getGrade() != null ? getGradePoints(enrollment.getGrade()) : 0.0);
+        response.setCredits(GpaLedgerService.CREDITS_PER_COURSE);
+        response.setGradePoints(enrollment.getGrade() != null ? enrollment.getGrade().getPoints() : 0.0);
         response.setComments(enrollment.getComments());
         response.setMidtermGrade(enrollment.getMidtermGrade());
         response.setFinalGrade(enrollment.getFinalGrade());
@@ -734,43 +906,55 @@ public class AdminService {
         return response;
     }
 
-    private boolean isValidGrade(String grade) {
-        Set<String> validGrades = Set.of("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
-        return validGrades.contains(grade.toUpperCase());
+    // Counts indexed by grade ordinal, keyed by letter in grade order
+    private static Map<String, Integer> countsByLetter(int[] gradeCounts) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < gradeCounts.length; i++) {
+            counts.put(Grade.ofOrdinal(i).getLetter(), gradeCounts[i]);
+        }
+        return counts;
     }
 
-    private double getGradePoints(String grade) {
-        if (grade == null) return 0.0;
-        switch (grade.toUpperCase()) {
-            case "A+": case "A": return 4.0;
-            case "A-": return 3.7;
-            case "B+": return 3.3;
-            case "B": return 3.0;
-            case "B-": return 2.7;
-            case "C+": return 2.3;
-            case "C": return 2.0;
-            case "C-": return 1.7;
-            case "D+": return 1.3;
-            case "D": return 1.0;
-            case "D-": return 0.7;
-            case "F": return 0.0;
-            default: return 0.0;
+    private static Map<String, Double> percentagesByLetter(int[] gradeCounts, int total) {
+        Map<String, Double> percentages = new LinkedHashMap<>();
+        for (int i = 0; i < gradeCounts.length; i++) {
+            double percentage = total > 0 ? (double) gradeCounts[i] / total * 100 : 0.0;
+            percentages.put(Grade.ofOrdinal(i).getLetter(), Math.round(percentage * 100.0) / 100.0);
         }
+        return percentages;
     }
 
-    private String generateSemesterCode(String semesterName) {
-        // Simple code generation - you'd want more sophisticated logic
-        if (semesterName.toLowerCase().contains("fall")) {
-            return "F" + semesterName.substring(semesterName.length() - 2);
-        } else if (semesterName.toLowerCase().contains("spring")) {
-            return "S" + semesterName.substring(semesterName.length() - 2);
-        } else if (semesterName.toLowerCase().contains("summer")) {
-            return "U" + semesterName.substring(semesterName.length() - 2);
+    private String nearestGrade(double gradePoints) {
+        Grade nearest = Grade.F;
+        double smallestGap = Double.MAX_VALUE;
+        for (Grade grade : Grade.values()) {
+            // A+ is worth the same as A, which is the letter reported
+            if (grade == Grade.A_PLUS) {
+                continue;
+            }
+            double gap = Math.abs(grade.getPoints() - gradePoints);
+            if (gap < smallestGap) {
+                smallestGap = gap;
+                nearest = grade;
+            }
         }
-        return semesterName.substring(0, Math.min(3, semesterName.length())).toUpperCase();
+        return nearest.getLetter();
+    }
+
+    private String normalizeParameter(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
-    private String generateDepartmentCode(String departmentName) {
-        return departmentName.substring(0, Math.min(4, departmentName.length())).toUpperCase();
+    private String buildReportExportUrl(String reportType, String semester, String department) {
+        StringBuilder url = new StringBuilder("/api/admin/reports/")
+                .append(reportType.toLowerCase())
+                .append("/export?format=csv");
+        if (semester != null && !semester.isBlank()) {
+            url.append("&semester=").append(URLEncoder.encode(semester, StandardCharsets.UTF_8));
+        }
+        if (department != null && !department.isBlank()) {
+            url.append("&department=").append(URLEncoder.encode(department, StandardCharsets.UTF_8));
+        }
+        return url.toString();
     }
 }
@@ -0,0 +1,100 @@
+package com.ucms.service;
+
+import com.ucms.dto.AnalyticsCacheStatsResponse;
+import com.ucms.service.DataVersionService.Domain;
+import com.ucms.util.SingleFlight;
+import com.ucms.util.VersionedLruCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches analytics results until the data they were computed from changes. Each entry is tagged
+ * with the versions of the domains it reads, so a committed enrollment drops enrollment-based
+ * results but leaves, say, the department list alone. Hits and misses are counted per region
+ * (one region per endpoint) to show which caches pay off. Concurrent misses for the same entry
+ * share one computation.
+ */
+@Service
+public class AnalyticsCacheService {
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${ucms.analytics.cache-max-entries:500}")
+    private int maxEntries;
+
+    @Value("${ucms.analytics.coalesce-window-ms:1000}")
+    private long coalesceWindowMs;
+
+    private VersionedLruCache<String, Object> cache;
+    private SingleFlight<String, Object> flights;
+    private final Map<String, AtomicLong[]> regionCounters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new VersionedLruCache<>(maxEntries);
+        flights = new SingleFlight<>(coalesceWindowMs);
+        dataVersionService.addListener(domain -> cache.invalidate(maskOf(domain)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String region, String key, Supplier<T> computation, Domain... dependsOn) {
+        AtomicLong[] counters = regionCounters.computeIfAbsent(region,
+                r -> new AtomicLong[] {new AtomicLong(), new AtomicLong()});
+        String cacheKey = region + ":" + key;
+        long[] versions = dataVersionService.snapshot(dependsOn);
+        Object cached = cache.get(cacheKey, versions);
+        if (cached != null) {
+            counters[0].incrementAndGet();
+            return (T) cached;
+        }
+        counters[1].incrementAndGet();
+
+        // Flights are keyed by the versions too, so a result computed before a write is never
+        // handed to a caller that already saw the write and then cached under the newer versions
+        T value = (T) flights.execute(cacheKey + "@" + Arrays.toString(versions), computation::get);
+        // A write that committed while this was computing may be missing from it, so don't keep it
+        if (value != null && Arrays.equals(versions, dataVersionService.snapshot(dependsOn))) {
+            cache.put(cacheKey, value, versions, maskOf(dependsOn));
+        }
+        return value;
+    }
+
+    public AnalyticsCacheStatsResponse getStats() {
+        VersionedLruCache.Stats stats = cache.stats();
+
+        Map<String, Long> versions = new LinkedHashMap<>();
+        for (Domain domain : Domain.values()) {
+            versions.put(domain.name().toLowerCase(), dataVersionService.version(domain));
+        }
+        Map<String, AnalyticsCacheStatsResponse.RegionStats> regions = new TreeMap<>();
+        regionCounters.forEach((region, counters) -> regions.put(region, new AnalyticsCacheStatsResponse.RegionStats(
+                counters[0].get(), counters[1].get(), hitRate(counters[0].get(), counters[1].get()))));
+
+        return new AnalyticsCacheStatsResponse(stats.size, stats.maxEntries, stats.hits, stats.misses,
+                hitRate(stats.hits, stats.misses), stats.evictions, stats.invalidations, versions, regions);
+    }
+
+    private static int maskOf(Domain... domains) {
+        int mask = 0;
+        for (Domain domain : domains) {
+            mask |= 1 << domain.ordinal();
+        }
+        return mask;
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups > 0 ? Math.round(hits * 1000.0 / lookups) / 10.0 : 0.0;
+    }
+}
@@ -18,6 +18,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
@@ -36,6 +37,9 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private DataVersionService dataVersionService;
+
     public LoginResponse authenticateUser(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(
@@ -68,6 +72,7 @@ public class AuthService {
         user.setUsername(signUpRequest.getUsername());
         user.setPasswordHash(passwordEncoder.encode(signUpRequest.getPassword()));
         user.setRole(User.Role.STUDENT);
+        user.setCreatedAt(LocalDateTime.now());
 
         User savedUser = userRepository.save(user);
 
@@ -81,6 +86,7 @@ public class AuthService {
         student.setUser(savedUser);
 
         studentRepository.save(student);
+        dataVersionService.bump(DataVersionService.Domain.USERS);
 
         return new UserInfo(
             savedUser.getId(),
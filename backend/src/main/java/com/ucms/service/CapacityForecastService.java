@@ -0,0 +1,347 @@
+package com.ucms.service;
+
+import com.ucms.dto.CapacityForecastResponse;
+import com.ucms.dto.CapacityForecastResponse.CourseForecast;
+import com.ucms.dto.CapacityForecastResponse.DemandPoint;
+import com.ucms.entity.Semester;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.SemesterRepository;
+import com.ucms.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests course capacities for an upcoming semester from how earlier offerings of the same
+ * course code filled. Only semesters before the target that are over (closed or past their end
+ * date) count as history. A section that filled up only shows a lower bound on demand, so its
+ * demand is extrapolated from how early in registration it ran out of seats; the per-semester
+ * demand series of each code is then projected one semester ahead with Holt's linear
+ * smoothing. The batch runs nightly on a small pool (fill curves are read per semester in
+ * parallel, codes are forecast in parallel chunks) and results are kept until they age out.
+ */
+@Service
+public class CapacityForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapacityForecastService.class);
+
+    private static final double LEVEL_SMOOTHING = 0.5;
+    private static final double TREND_SMOOTHING = 0.3;
+    // A section that filled within the first 5% of registration is treated as filling at 5%,
+    // and extrapolated demand is capped at twice the capacity it had
+    private static final double MIN_FILL_FRACTION = 0.05;
+    private static final double MAX_DEMAND_MULTIPLE = 2.0;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private FillRateService fillRateService;
+
+    @Value("${ucms.forecast.threads:2}")
+    private int threads;
+
+    @Value("${ucms.forecast.headroom:0.1}")
+    private double headroom;
+
+    @Value("${ucms.forecast.max-age-ms:21600000}")
+    private long maxAgeMs;
+
+    private ThreadPoolExecutor executor;
+    private final SingleFlight<String, CapacityForecastResponse> flights = new SingleFlight<>(0);
+    private final Map<String, CapacityForecastResponse> results = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue runs the task on the submitting thread, which slows the batch instead of failing it
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "capacity-forecast-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${ucms.forecast.refresh-cron:0 30 2 * * *}")
+    public void refreshNightly() {
+        try {
+            refresh(null);
+        } catch (RuntimeException e) {
+            logger.warn("Nightly capacity forecast failed", e);
+        }
+    }
+
+    /**
+     * Forecast for the given semester, or for the next semester to start when none is given.
+     * A cached forecast is returned while it is younger than the configured maximum age.
+     */
+    public CapacityForecastResponse getForecast(String semester, boolean underProvisionedOnly) {
+        Optional<Semester> target = resolveTarget(semester);
+        String key = target.map(Semester::getName).orElse("");
+        CapacityForecastResponse cached = results.get(key);
+        if (cached == null || cached.getComputedAt().plusNanos(maxAgeMs * 1_000_000).isBefore(LocalDateTime.now())) {
+            cached = flights.execute(key, () -> compute(target));
+            results.put(key, cached);
+        }
+        if (!underProvisionedOnly) {
+            return cached;
+        }
+        return new CapacityForecastResponse(cached.getTargetSemester(), cached.getComputedAt(), cached.getComputeMillis(),
+                cached.getCourseCodes(), cached.getUnderProvisioned(), cached.getForecasts().stream()
+                        .filter(CourseForecast::getUnderProvisioned)
+                        .collect(Collectors.toList()));
+    }
+
+    public CapacityForecastResponse refresh(String semester) {
+        Optional<Semester> target = resolveTarget(semester);
+        String key = target.map(Semester::getName).orElse("");
+        CapacityForecastResponse forecast = flights.execute(key, () -> compute(target));
+        results.put(key, forecast);
+        return forecast;
+    }
+
+    private CapacityForecastResponse compute(Optional<Semester> target) {
+        long started = System.currentTimeMillis();
+        Long targetId = target.map(Semester::getId).orElse(null);
+        SemesterKey targetKey = target.map(semester -> new SemesterKey(semester.getId(), semester.getName(),
+                semester.getStartDate(), false)).orElse(null);
+        LocalDate today = LocalDate.now();
+
+        Map<String, List<Offering>> offeringsByCode = new HashMap<>();
+        Map<Long, SemesterKey> semesters = new HashMap<>();
+        for (Object[] row : courseRepository.findEnrollmentHistory()) {
+            if (row[3] == null) {
+                continue;
+            }
+            Offering offering = new Offering((Long) row[0], (String) row[1], (String) row[2], (Long) row[3],
+                    intOf(row[8]), intOf(row[9]));
+            offeringsByCode.computeIfAbsent(offering.code, code -> new ArrayList<>()).add(offering);
+            LocalDate endDate = (LocalDate) row[6];
+            boolean over = row[7] != null || (endDate != null && endDate.isBefore(today));
+            semesters.computeIfAbsent(offering.semesterId,
+                    id -> new SemesterKey(id, (String) row[4], (LocalDate) row[5], over));
+        }
+
+        // Fill curves live in one archive per semester, so each semester is read by one task
+        Map<Long, CompletableFuture<Map<Long, Double>>> fillReads = new HashMap<>();
+        for (Map.Entry<Long, SemesterKey> semester : semesters.entrySet()) {
+            Long semesterId = semester.getKey();
+            if (isHistory(semester.getValue(), targetKey)) {
+                fillReads.put(semesterId, CompletableFuture.supplyAsync(
+                        () -> fillRateService.getFillFractions(semesterId), executor));
+            }
+        }
+        Map<Long, Double> fillFractions = new HashMap<>();
+        fillReads.values().forEach(read -> fillFractions.putAll(read.join()));
+
+        List<String> codes = new ArrayList<>(offeringsByCode.keySet());
+        int chunkSize = Math.max(1, (codes.size() + threads * 4 - 1) / (threads * 4));
+        List<CompletableFuture<List<CourseForecast>>> chunks = new ArrayList<>();
+        for (int from = 0; from < codes.size(); from += chunkSize) {
+            List<String> chunk = codes.subList(from, Math.min(codes.size(), from + chunkSize));
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                List<CourseForecast> forecasts = new ArrayList<>(chunk.size());
+                for (String code : chunk) {
+                    forecast(offeringsByCode.get(code), targetId, targetKey, semesters, fillFractions)
+                            .ifPresent(forecasts::add);
+                }
+                return forecasts;
+            }, executor));
+        }
+        List<CourseForecast> forecasts = chunks.stream()
+                .flatMap(chunk -> chunk.join().stream())
+                .sorted(Comparator.comparing(CourseForecast::getUnderProvisioned).reversed()
+                        .thenComparing(forecast -> forecast.getCapacityChange() != null ? -forecast.getCapacityChange() : 0)
+                        .thenComparing(CourseForecast::getCourseCode))
+                .collect(Collectors.toList());
+        int underProvisioned = (int) forecasts.stream().filter(CourseForecast::getUnderProvisioned).count();
+
+        long elapsed = System.currentTimeMillis() - started;
+        logger.info("Forecast capacity for {} course codes ({} under-provisioned) in {} ms",
+                forecasts.size(), underProvisioned, elapsed);
+        return new CapacityForecastResponse(target.map(Semester::getName).orElse(null), LocalDateTime.now(), elapsed,
+                forecasts.size(), underProvisioned, forecasts);
+    }
+
+    private Optional<CourseForecast> forecast(List<Offering> offerings, Long targetId, SemesterKey targetKey,
+                                              Map<Long, SemesterKey> semesters, Map<Long, Double> fillFractions) {
+        // Sections of a code in the same semester add up to one demand figure
+        Map<Long, List<Offering>> bySemester = new LinkedHashMap<>();
+        offerings.stream()
+                .sorted(Comparator.comparing((Offering offering) -> semesters.get(offering.semesterId)))
+                .forEach(offering -> bySemester.computeIfAbsent(offering.semesterId, id -> new ArrayList<>()).add(offering));
+
+        List<DemandPoint> history = new ArrayList<>();
+        List<Offering> targetOfferings = List.of();
+        Offering latest = null;
+        for (Map.Entry<Long, List<Offering>> entry : bySemester.entrySet()) {
+            latest = entry.getValue().get(0);
+            if (entry.getKey().equals(targetId)) {
+                targetOfferings = entry.getValue();
+                continue;
+            }
+            if (!isHistory(semesters.get(entry.getKey()), targetKey)) {
+                continue;
+            }
+            int capacity = 0;
+            int enrolled = 0;
+            double demand = 0;
+            Double earliestFill = null;
+            for (Offering offering : entry.getValue()) {
+                capacity += offering.capacity;
+                enrolled += offering.enrolled;
+                Double fillFraction = fillFractions.get(offering.courseId);
+                demand += estimateDemand(offering, fillFraction);
+                if (fillFraction != null && (earliestFill == null || fillFraction < earliestFill)) {
+                    earliestFill = fillFraction;
+                }
+            }
+            history.add(new DemandPoint(semesters.get(entry.getKey()).name, capacity, enrolled,
+                    earliestFill != null ? round(earliestFill) : null, round(demand)));
+        }
+        if (history.isEmpty()) {
+            return Optional.empty();
+        }
+
+        double[] projection = project(history.stream().mapToDouble(DemandPoint::getEstimatedDemand).toArray());
+        double forecastDemand = projection[0];
+        int suggested = (int) Math.max(1, Math.ceil(forecastDemand + Math.max(forecastDemand * headroom, projection[1])));
+
+        Long targetCourseId = targetOfferings.isEmpty() ? null : targetOfferings.get(0).courseId;
+        Integer currentCapacity = targetOfferings.isEmpty() ? null
+                : targetOfferings.stream().mapToInt(offering -> offering.capacity).sum();
+        Integer change = currentCapacity != null ? suggested - currentCapacity : null;
+        return Optional.of(new CourseForecast(latest.code, latest.title, round(forecastDemand), suggested,
+                targetCourseId, currentCapacity, change, change != null && change > 0, history));
+    }
+
+    // Enrollment is the demand unless the section filled; then seats ran out at fillFraction of
+    // the registration period, so demand at that pace over the whole period is extrapolated
+    private static double estimateDemand(Offering offering, Double fillFraction) {
+        if (fillFraction == null || offering.capacity <= 0) {
+            return offering.enrolled;
+        }
+        double extrapolated = offering.capacity / Math.max(fillFraction, MIN_FILL_FRACTION);
+        return Math.max(offering.enrolled, Math.min(extrapolated, offering.capacity * MAX_DEMAND_MULTIPLE));
+    }
+
+    /**
+     * Holt's linear smoothing one step ahead.
+     *
+     * @return the forecast and the mean absolute error of the one-step forecasts along the series
+     */
+    private static double[] project(double[] series) {
+        double level = series[0];
+        // Starting from the average slope keeps one noisy semester from setting the trend
+        double trend = series.length > 1 ? (series[series.length - 1] - series[0]) / (series.length - 1) : 0;
+        double absoluteError = 0;
+        for (int i = 1; i < series.length; i++) {
+            double predicted = level + trend;
+            absoluteError += Math.abs(series[i] - predicted);
+            double previousLevel = level;
+            level = LEVEL_SMOOTHING * series[i] + (1 - LEVEL_SMOOTHING) * predicted;
+            trend = TREND_SMOOTHING * (level - previousLevel) + (1 - TREND_SMOOTHING) * trend;
+        }
+        double meanError = series.length > 1 ? absoluteError / (series.length - 1) : 0;
+        return new double[] {Math.max(0, level + trend), meanError};
+    }
+
+    // Later semesters and ones still running would let the forecast learn from registration in progress
+    private static boolean isHistory(SemesterKey semester, SemesterKey target) {
+        return semester.over && (target == null || semester.compareTo(target) < 0);
+    }
+
+    private Optional<Semester> resolveTarget(String semester) {
+        if (semester != null && !semester.isBlank()) {
+            return Optional.of(semesterRepository.findByName(semester.trim())
+                    .orElseThrow(() -> new RuntimeException("Semester not found: " + semester)));
+        }
+        return semesterRepository.findFirstByStartDateAfterOrderByStartDateAsc(LocalDate.now());
+    }
+
+    private static int intOf(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private static final class Offering {
+        private final Long courseId;
+        private final String code;
+        private final String title;
+        private final Long semesterId;
+        private final int capacity;
+        private final int enrolled;
+
+        private Offering(Long courseId, String code, String title, Long semesterId, int capacity, int enrolled) {
+            this.courseId = courseId;
+            this.code = code;
+            this.title = title;
+            this.semesterId = semesterId;
+            this.capacity = capacity;
+            this.enrolled = enrolled;
+        }
+    }
+
+    // Semesters without dates sort after dated ones, in creation order
+    private static final class SemesterKey implements Comparable<SemesterKey> {
+        private final Long id;
+        private final String name;
+        private final LocalDate startDate;
+        // Closed or past its end date, so its enrollment figures are final
+        private final boolean over;
+
+        private SemesterKey(Long id, String name, LocalDate startDate, boolean over) {
+            this.id = id;
+            this.name = name;
+            this.startDate = startDate;
+            this.over = over;
+        }
+
+        @Override
+        public int compareTo(SemesterKey other) {
+            if (startDate != null && other.startDate != null && !startDate.equals(other.startDate)) {
+                return startDate.compareTo(other.startDate);
+            }
+            if ((startDate == null) != (other.startDate == null)) {
+                return startDate == null ? 1 : -1;
+            }
+            return id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.ucms.service;
+
+import com.ucms.dto.StudentTranscriptResponse;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.GpaLedgerRepository;
+import com.ucms.service.DataVersionService.Domain;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class rank and GPA percentile of each student within their cohort (same major and year).
+ * Every cohort's GPAs are kept as a sorted array of hundredths, so a lookup is a binary search
+ * instead of computing and sorting the GPA of every cohort member. Students whose grades
+ * change are re-placed in their cohort's array shortly after the change commits; changes to
+ * students themselves (major, year, deletions) and a nightly pass rebuild all cohorts from the
+ * GPA ledger. Students with nothing graded are not ranked.
+ */
+@Service
+public class ClassRankService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassRankService.class);
+
+    @Autowired
+    private GpaLedgerRepository gpaLedgerRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    // Replaced as a whole, so readers always see one consistent set of cohorts
+    private volatile Rankings rankings = new Rankings(Map.of(), Map.of());
+    private final Set<Long> changedStudents = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuildNeeded = true;
+
+    @PostConstruct
+    public void init() {
+        dataVersionService.addListener(domain -> {
+            if (domain == Domain.USERS) {
+                rebuildNeeded = true;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        refresh();
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        if (event.isGradeChanged()) {
+            changedStudents.add(event.getStudentId());
+        }
+    }
+
+    // A dropped enrollment only moves the GPA if it was graded
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getGrade() != null) {
+            changedStudents.add(event.getStudentId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${ucms.ranking.refresh-interval-ms:10000}",
+               fixedDelayString = "${ucms.ranking.refresh-interval-ms:10000}")
+    public synchronized void refresh() {
+        if (rebuildNeeded) {
+            rebuildAll();
+        } else if (!changedStudents.isEmpty()) {
+            applyChanges();
+        }
+    }
+
+    @Scheduled(cron = "${ucms.ranking.rebuild-cron:0 0 3 * * *}")
+    public void rebuildNightly() {
+        rebuildNeeded = true;
+        refresh();
+    }
+
+    /**
+     * The student's standing in their cohort, or null if they have no graded courses (or
+     * were graded within the last refresh interval).
+     */
+    public Rank getRank(Long studentId) {
+        Rankings current = rankings;
+        Standing standing = current.students.get(studentId);
+        if (standing == null) {
+            return null;
+        }
+        int[] gpas = current.cohorts.get(standing.cohort);
+        int atOrBelow = upperBound(gpas, standing.gpa);
+        // Ties share the best rank: one more than the number of students with a higher GPA
+        return new Rank(gpas.length - atOrBelow + 1, gpas.length,
+                Math.round(atOrBelow * 1000.0 / gpas.length) / 10.0);
+    }
+
+    /**
+     * Fills in the rank fields of a transcript; they stay null for unranked students.
+     */
+    public void applyTo(StudentTranscriptResponse transcript) {
+        Rank rank = getRank(transcript.getStudentId());
+        if (rank != null) {
+            transcript.setClassRank(rank.getRank());
+            transcript.setClassSize(rank.getCohortSize());
+            transcript.setGpaPercentile(rank.getPercentile());
+        }
+    }
+
+    private void rebuildAll() {
+        // Cleared first: a change committed while the ledger is read is applied again next time
+        rebuildNeeded = false;
+        changedStudents.clear();
+        try {
+            List<Object[]> rows = gpaLedgerRepository.sumGradedByStudentWithCohort();
+            Map<Long, Standing> students = new HashMap<>(rows.size() * 2);
+            Map<List<String>, Integer> sizes = new HashMap<>();
+            for (Object[] row : rows) {
+                Standing standing = standingOf(row);
+                students.put((Long) row[0], standing);
+                sizes.merge(standing.cohort, 1, Integer::sum);
+            }
+            Map<List<String>, int[]> cohorts = new HashMap<>(sizes.size() * 2);
+            Map<List<String>, Integer> filled = new HashMap<>(sizes.size() * 2);
+            for (Standing standing : students.values()) {
+                int[] gpas = cohorts.computeIfAbsent(standing.cohort, cohort -> new int[sizes.get(cohort)]);
+                gpas[filled.merge(standing.cohort, 1, Integer::sum) - 1] = standing.gpa;
+            }
+            for (int[] gpas : cohorts.values()) {
+                Arrays.sort(gpas);
+            }
+            rankings = new Rankings(students, cohorts);
+            logger.info("Ranked {} students in {} cohorts", students.size(), cohorts.size());
+        } catch (RuntimeException e) {
+            rebuildNeeded = true;
+            throw e;
+        }
+    }
+
+    private void applyChanges() {
+        List<Long> studentIds = new ArrayList<>(changedStudents);
+        changedStudents.removeAll(studentIds);
+        Map<Long, Standing> updated = new HashMap<>();
+        try {
+            for (Object[] row : gpaLedgerRepository.sumGradedByStudentWithCohort(studentIds)) {
+                updated.put((Long) row[0], standingOf(row));
+            }
+        } catch (RuntimeException e) {
+            changedStudents.addAll(studentIds);
+            throw e;
+        }
+
+        Rankings current = rankings;
+        Map<Long, Standing> students = new HashMap<>(current.students);
+        Map<List<String>, List<Integer>> removed = new HashMap<>();
+        Map<List<String>, List<Integer>> added = new HashMap<>();
+        for (Long studentId : studentIds) {
+            Standing before = students.remove(studentId);
+            Standing after = updated.get(studentId);
+            if (before != null) {
+                removed.computeIfAbsent(before.cohort, cohort -> new ArrayList<>()).add(before.gpa);
+            }
+            if (after != null) {
+                students.put(studentId, after);
+                added.computeIfAbsent(after.cohort, cohort -> new ArrayList<>()).add(after.gpa);
+            }
+        }
+
+        // Only the cohorts that changed get new arrays; the rest are shared with the old rankings
+        Map<List<String>, int[]> cohorts = new HashMap<>(current.cohorts);
+        Set<List<String>> touched = new HashSet<>(removed.keySet());
+        touched.addAll(added.keySet());
+        for (List<String> cohort : touched) {
+            int[] gpas = update(cohorts.getOrDefault(cohort, new int[0]),
+                    toSortedArray(removed.get(cohort)), toSortedArray(added.get(cohort)));
+            if (gpas.length == 0) {
+                cohorts.remove(cohort);
+            } else {
+                cohorts.put(cohort, gpas);
+            }
+        }
+        rankings = new Rankings(students, cohorts);
+    }
+
+    // Rows are (student id, major, year, grade point tenths, graded credits)
+    private static Standing standingOf(Object[] row) {
+        long gradePointTenths = ((Number) row[3]).longValue();
+        int gradedCredits = ((Number) row[4]).intValue();
+        // Hundredths, rounded the same way as the GPA shown on transcripts
+        int gpa = (int) Math.round(gradePointTenths * 10.0 / gradedCredits);
+        return new Standing(Arrays.asList((String) row[1], (String) row[2]), gpa);
+    }
+
+    // Sorted values minus one occurrence of each removed value, plus the added values, still sorted
+    private static int[] update(int[] values, int[] removed, int[] added) {
+        int[] result = new int[values.length + added.length];
+        int r = 0;
+        int a = 0;
+        int n = 0;
+        for (int value : values) {
+            while (r < removed.length && removed[r] < value) {
+                r++;
+            }
+            if (r < removed.length && removed[r] == value) {
+                r++;
+                continue;
+            }
+            while (a < added.length && added[a] <= value) {
+                result[n++] = added[a++];
+            }
+            result[n++] = value;
+        }
+        while (a < added.length) {
+            result[n++] = added[a++];
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    private static int[] toSortedArray(List<Integer> values) {
+        if (values == null) {
+            return new int[0];
+        }
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    // Number of values at or below the key
+    private static int upperBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static final class Rank {
+        private final int rank;
+        private final int cohortSize;
+        private final double percentile;
+
+        private Rank(int rank, int cohortSize, double percentile) {
+            this.rank = rank;
+            this.cohortSize = cohortSize;
+            this.percentile = percentile;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public int getCohortSize() {
+            return cohortSize;
+        }
+
+        /**
+         * Percentage of the cohort with the same or a lower GPA.
+         */
+        public double getPercentile() {
+            return percentile;
+        }
+    }
+
+    private static final class Standing {
+        // (major, year); either may be null
+        private final List<String> cohort;
+        private final int gpa;
+
+        private Standing(List<String> cohort, int gpa) {
+            this.cohort = cohort;
+            this.gpa = gpa;
+        }
+    }
+
+    private static final class Rankings {
+        private final Map<Long, Standing> students;
+        private final Map<List<String>, int[]> cohorts;
+
+        private Rankings(Map<Long, Standing> students, Map<List<String>, int[]> cohorts) {
+            this.students = students;
+            this.cohorts = cohorts;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.ucms.service;
+
+import com.ucms.dto.CohortStatsResponse;
+import com.ucms.entity.Grade;
+import com.ucms.entity.Semester;
+import com.ucms.event.CourseMovedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.event.StudentCohortChangedEvent;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.repository.SemesterRepository;
+import com.ucms.repository.StudentRepository;
+import com.ucms.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps pre-aggregated cohort cells keyed by (semester, major, class year). Each cell holds
+ * enrollment and graded counts, a grade point sum and an attendance sketch, so cohort
+ * comparisons are answered from a handful of cells instead of joining students and enrollments.
+ * A semester's cells are built with one query the first time they are needed and are then kept
+ * current from enrollment and grade writes.
+ */
+@Service
+public class CohortAnalyticsService {
+
+    private static final double[] REPORTED_QUANTILES = {0.10, 0.25, 0.50, 0.75, 0.90};
+    private static final List<String> YEAR_ORDER = List.of("Freshman", "Sophomore", "Junior", "Senior", "Graduate");
+
+    public enum GroupBy {
+        COHORT, MAJOR, YEAR;
+
+        public static GroupBy fromString(String groupBy) {
+            if (groupBy == null || groupBy.isBlank()) {
+                return COHORT;
+            }
+            switch (groupBy.trim().toLowerCase()) {
+                case "cohort": return COHORT;
+                case "major": return MAJOR;
+                case "year": return YEAR;
+                default: throw new RuntimeException("Unsupported cohort grouping: " + groupBy);
+            }
+        }
+    }
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    private final Map<String, Map<CohortKey, CohortCell>> semesterCells = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        Map<CohortKey, CohortCell> cells = event.getSemester() != null ? semesterCells.get(event.getSemester()) : null;
+        if (cells == null) {
+            return;
+        }
+        Optional<CohortKey> key = cohortOf(event.getStudentId());
+        if (key.isEmpty()) {
+            semesterCells.remove(event.getSemester());
+            return;
+        }
+        CohortCell cell = cells.computeIfAbsent(key.get(), k -> new CohortCell());
+        boolean applied = event.isEnrolled()
+                ? cell.enrolled(event.getGrade(), event.getAttendance())
+                : cell.dropped(event.getGrade(), event.getAttendance());
+        if (!applied) {
+            semesterCells.remove(event.getSemester());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        Map<CohortKey, CohortCell> cells = event.getSemester() != null ? semesterCells.get(event.getSemester()) : null;
+        if (cells == null) {
+            return;
+        }
+        Optional<CohortKey> key = cohortOf(event.getStudentId());
+        if (key.isEmpty() || !cells.computeIfAbsent(key.get(), k -> new CohortCell()).gradeChanged(event)) {
+            semesterCells.remove(event.getSemester());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCourseMoved(CourseMovedEvent event) {
+        if (!event.isSemesterChanged()) {
+            return;
+        }
+        if (event.getPreviousSemester() != null) {
+            semesterCells.remove(event.getPreviousSemester());
+        }
+        if (event.getSemester() != null) {
+            semesterCells.remove(event.getSemester());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStudentCohortChanged(StudentCohortChangedEvent event) {
+        // Every semester the student took courses in has the enrollments under the old cohort
+        enrollmentRepository.findSemesterNamesByStudentId(event.getStudentId())
+                .forEach(semesterCells::remove);
+    }
+
+    /**
+     * Cohort statistics for one semester, or across all semesters when none is given, optionally
+     * filtered to a major and/or class year and rolled up by major or by year.
+     */
+    public List<CohortStatsResponse> getCohortStats(String semester, String major, String year, String groupBy) {
+        GroupBy grouping = GroupBy.fromString(groupBy);
+        boolean allSemesters = semester == null || semester.isBlank();
+
+        List<String> semesters = new ArrayList<>();
+        if (allSemesters) {
+            semesterRepository.findAll().forEach(s -> semesters.add(s.getName()));
+        } else {
+            semesters.add(semester.trim());
+        }
+
+        Map<CohortKey, CohortCell> merged = new LinkedHashMap<>();
+        for (String semesterName : semesters) {
+            for (Map.Entry<CohortKey, CohortCell> entry : getSemesterCells(semesterName).entrySet()) {
+                CohortKey key = entry.getKey();
+                if (major != null && !major.isBlank() && !key.major.equalsIgnoreCase(major.trim())) continue;
+                if (year != null && !year.isBlank() && !key.year.equalsIgnoreCase(year.trim())) continue;
+
+                CohortKey rollup = new CohortKey(
+                        grouping == GroupBy.YEAR ? null : key.major,
+                        grouping == GroupBy.MAJOR ? null : key.year);
+                merged.computeIfAbsent(rollup, k -> new CohortCell()).merge(entry.getValue());
+            }
+        }
+
+        List<CohortStatsResponse> results = new ArrayList<>();
+        merged.forEach((key, cell) -> results.add(toResponse(allSemesters ? null : semester.trim(), key, cell)));
+        results.sort(Comparator
+                .comparing(CohortStatsResponse::getMajor, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(response -> yearRank(response.getYear())));
+        return results;
+    }
+
+    private Map<CohortKey, CohortCell> getSemesterCells(String semester) {
+        Map<CohortKey, CohortCell> cells = semesterCells.get(semester);
+        if (cells != null) {
+            return cells;
+        }
+        Optional<Semester> semesterEntity = semesterRepository.findByName(semester);
+        if (semesterEntity.isEmpty()) {
+            return Map.of();
+        }
+        return semesterCells.computeIfAbsent(semester, key -> loadSemesterCells(semesterEntity.get().getId()));
+    }
+
+    private Map<CohortKey, CohortCell> loadSemesterCells(Long semesterId) {
+        Map<CohortKey, CohortCell> cells = new ConcurrentHashMap<>();
+        for (Object[] row : enrollmentRepository.findCohortComponentsBySemesterId(semesterId)) {
+            CohortKey key = CohortKey.of((String) row[0], (String) row[1]);
+            cells.computeIfAbsent(key, k -> new CohortCell()).enrolled((Grade) row[2], (Double) row[3]);
+        }
+        return cells;
+    }
+
+    private Optional<CohortKey> cohortOf(Long studentId) {
+        return studentRepository.findById(studentId)
+                .map(student -> CohortKey.of(student.getMajor(), student.getYear()));
+    }
+
+    private CohortStatsResponse toResponse(String semester, CohortKey key, CohortCell cell) {
+        synchronized (cell) {
+            CohortStatsResponse response = new CohortStatsResponse();
+            response.setSemester(semester);
+            response.setMajor(key.major);
+            response.setYear(key.year);
+            response.setEnrollmentCount(cell.enrollments);
+            response.setGradedCount(cell.graded);
+            response.setAverageGPA(cell.graded > 0 ? Math.round(cell.gradePointSum / cell.graded * 100.0) / 100.0 : 0.0);
+            response.setAttendanceCount(cell.attendance.count());
+            response.setAttendancePercentiles(percentiles(cell.attendance));
+            return response;
+        }
+    }
+
+    private static int yearRank(String year) {
+        if (year == null) return -1;
+        int index = YEAR_ORDER.indexOf(year);
+        return index >= 0 ? index : YEAR_ORDER.size();
+    }
+
+    private static Map<String, Double> percentiles(QuantileSketch sketch) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (sketch.count() == 0) {
+            return result;
+        }
+        for (double q : REPORTED_QUANTILES) {
+            double value = sketch.quantile(q);
+            result.put("p" + Math.round(q * 100), Math.round(value * 100.0) / 100.0);
+        }
+        return result;
+    }
+
+    private static final class CohortKey {
+        private final String major;
+        private final String year;
+
+        private CohortKey(String major, String year) {
+            this.major = major;
+            this.year = year;
+        }
+
+        // Same defaults the student detail views show for missing values
+        static CohortKey of(String major, String year) {
+            return new CohortKey(
+                    major != null && !major.isBlank() ? major.trim() : "Undeclared",
+                    year != null && !year.isBlank() ? year.trim() : "Freshman");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CohortKey)) return false;
+            CohortKey other = (CohortKey) o;
+            return Objects.equals(major, other.major) && Objects.equals(year, other.year);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(major, year);
+        }
+    }
+
+    /**
+     * Counts are always updated exactly. The attendance sketch can't forget a value, so any
+     * change that would need to remove one reports false and the caller rebuilds the semester.
+     */
+    private static final class CohortCell {
+        private long enrollments;
+        private long graded;
+        private double gradePointSum;
+        private final QuantileSketch attendance = new QuantileSketch();
+
+        synchronized boolean enrolled(Grade grade, Double attendanceValue) {
+            enrollments++;
+            if (grade != null) {
+                graded++;
+                gradePointSum += grade.getPoints();
+            }
+            if (attendanceValue != null) {
+                attendance.add(attendanceValue);
+            }
+            return true;
+        }
+
+        synchronized boolean dropped(Grade grade, Double attendanceValue) {
+            enrollments--;
+            if (grade != null) {
+                graded--;
+                gradePointSum -= grade.getPoints();
+            }
+            return attendanceValue == null;
+        }
+
+        synchronized boolean gradeChanged(GradeChangedEvent event) {
+            if (event.getPreviousGrade() != null) {
+                graded--;
+                gradePointSum -= event.getPreviousGrade().getPoints();
+            }
+            if (event.getGrade() != null) {
+                graded++;
+                gradePointSum += event.getGrade().getPoints();
+            }
+            if (Objects.equals(event.getPreviousAttendance(), event.getAttendance())) {
+                return true;
+            }
+            if (event.getPreviousAttendance() != null) {
+                return false;
+            }
+            attendance.add(event.getAttendance());
+            return true;
+        }
+
+        void merge(CohortCell other) {
+            synchronized (other) {
+                enrollments += other.enrollments;
+                graded += other.graded;
+                gradePointSum += other.gradePointSum;
+                attendance.merge(other.attendance);
+            }
+        }
+    }
+}
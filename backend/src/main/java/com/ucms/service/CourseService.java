@@ -4,10 +4,16 @@ import com.ucms.dto.CourseResponse;
 import com.ucms.dto.CreateCourseRequest;
 import com.ucms.dto.UpdateCourseRequest;
 import com.ucms.entity.Course;
+import com.ucms.entity.Department;
 import com.ucms.entity.Professor;
+import com.ucms.entity.Semester;
+import com.ucms.event.CourseChangedEvent;
+import com.ucms.event.CourseMovedEvent;
 import com.ucms.repository.CourseRepository;
+import com.ucms.repository.EnrollmentRepository;
 import com.ucms.repository.ProfessorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -29,6 +35,18 @@ public class CourseService {
     @Autowired
     private ProfessorRepository professorRepository;
 
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SemesterService semesterService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public Page<CourseResponse> getAllCourses(int page, int size, String sortBy, String sortDir) {
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
@@ -51,7 +69,9 @@ public class CourseService {
     }
 
     public List<CourseResponse> getCoursesBySemester(String semester) {
-        List<Course> courses = courseRepository.findBySemester(semester);
+        List<Course> courses = semesterService.findByName(semester)
+            .map(s -> courseRepository.findBySemesterId(s.getId()))
+            .orElse(List.of());
         return courses.stream()
             .map(this::convertToResponse)
             .collect(Collectors.toList());
@@ -65,16 +85,18 @@ public class CourseService {
     }
 
     public CourseResponse createCourse(CreateCourseRequest request) {
-        // Check if course code already exists
-        if (courseRepository.existsByCode(request.getCode())) {
-            throw new RuntimeException("Course with code '" + request.getCode() + "' already exists");
+        // A code can be offered again in another semester, but only once per semester
+        Semester semester = semesterService.getOrCreate(request.getSemester());
+        if (courseRepository.existsBySemesterIdAndCode(semester.getId(), request.getCode())) {
+            throw new RuntimeException("Course with code '" + request.getCode() + "' already exists in "
+                + semester.getName());
         }
 
         Course course = new Course();
         course.setCode(request.getCode());
         course.setTitle(request.getTitle());
         course.setDescription(request.getDescription());
-        course.setSemester(request.getSemester());
+        course.setSemester(semester);
         course.setScheduleInfo(request.getScheduleInfo());
         course.setCapacity(request.getCapacity());
         course.setAvailableSeats(request.getCapacity()); // Initially all seats are available
@@ -84,9 +106,13 @@ public class CourseService {
             Professor professor = professorRepository.findById(request.getProfessorId())
                 .orElseThrow(() -> new RuntimeException("Professor not found with id: " + request.getProfessorId()));
             course.setProfessor(professor);
+            course.setDepartment(professor.getDepartment());
         }
 
         Course savedCourse = courseRepository.save(course);
+        semesterService.courseAdded(savedCourse.getSemester());
+        departmentService.courseAdded(savedCourse.getDepartment());
+        eventPublisher.publishEvent(new CourseChangedEvent(savedCourse.getId(), null, professorIdOf(savedCourse)));
         return convertToResponse(savedCourse);
     }
 
@@ -94,9 +120,20 @@ public class CourseService {
         Course course = courseRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Course not found with id: " + id));
 
+        Semester previousSemester = course.getSemester();
+        semesterService.requireOpen(previousSemester);
+
         course.setTitle(request.getTitle());
         course.setDescription(request.getDescription());
-        course.setSemester(request.getSemester());
+        Semester semester = semesterService.getOrCreate(request.getSemester());
+        if (previousSemester == null || !previousSemester.getId().equals(semester.getId())) {
+            if (courseRepository.existsBySemesterIdAndCode(semester.getId(), course.getCode())) {
+                throw new RuntimeException("Course with code '" + course.getCode() + "' already exists in "
+                    + semester.getName());
+            }
+            semesterService.courseMoved(previousSemester, semester, enrollmentRepository.countByCourseId(id));
+            course.setSemester(semester);
+        }
         course.setScheduleInfo(request.getScheduleInfo());
         
         // Update capacity and available seats
@@ -106,16 +143,30 @@ public class CourseService {
             course.setAvailableSeats(Math.max(0, request.getCapacity() - enrolledStudents));
         }
 
-        // Update professor assignment
+        // Update professor assignment; an unassigned course stays with its current department
+        Long previousProfessorId = professorIdOf(course);
+        Department previousDepartment = course.getDepartment();
         if (request.getProfessorId() != null) {
             Professor professor = professorRepository.findById(request.getProfessorId())
                 .orElseThrow(() -> new RuntimeException("Professor not found with id: " + request.getProfessorId()));
             course.setProfessor(professor);
+            if (professor.getDepartment() != null) {
+                course.setDepartment(professor.getDepartment());
+            }
         } else {
             course.setProfessor(null);
         }
 
-        Course savedCourse = courseRepository.save(course);
+        Course savedCourse = courseRepository.saveAndFlush(course);
+        departmentService.courseMoved(previousDepartment, savedCourse.getDepartment());
+
+        CourseMovedEvent moved = new CourseMovedEvent(id,
+            previousSemester != null ? previousSemester.getName() : null, savedCourse.getSemesterName(),
+            previousDepartment != null ? previousDepartment.getName() : null, savedCourse.getDepartmentName());
+        if (moved.isSemesterChanged() || moved.isDepartmentChanged()) {
+            eventPublisher.publishEvent(moved);
+        }
+        eventPublisher.publishEvent(new CourseChangedEvent(id, previousProfessorId, professorIdOf(savedCourse)));
         return convertToResponse(savedCourse);
     }
 
@@ -130,6 +181,9 @@ public class CourseService {
         }
         
         courseRepository.delete(course);
+        semesterService.courseRemoved(course.getSemester());
+        departmentService.courseRemoved(course.getDepartment());
+        eventPublisher.publishEvent(new CourseChangedEvent(id, professorIdOf(course), null));
     }
 
     public Page<CourseResponse> searchCourses(String search, int page, int size) {
@@ -146,13 +200,17 @@ public class CourseService {
         return coursePage.map(this::convertToResponse);
     }
 
+    private Long professorIdOf(Course course) {
+        return course.getProfessor() != null ? course.getProfessor().getId() : null;
+    }
+
     private CourseResponse convertToResponse(Course course) {
         CourseResponse response = new CourseResponse();
         response.setId(course.getId());
         response.setCode(course.getCode());
         response.setTitle(course.getTitle());
         response.setDescription(course.getDescription());
-        response.setSemester(course.getSemester());
+        response.setSemester(course.getSemesterName());
         response.setScheduleInfo(course.getScheduleInfo());
         response.setCapacity(course.getCapacity());
         response.setAvailableSeats(course.getAvailableSeats());
@@ -0,0 +1,83 @@
+package com.ucms.service;
+
+import com.ucms.event.CourseChangedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Monotonic version counters, one per kind of data. A counter is bumped after every committed
+ * write to that data, so anything derived from it can be tagged with the versions it was
+ * computed at and recognised as stale once any of them moves.
+ */
+@Service
+public class DataVersionService {
+
+    public enum Domain {
+        ENROLLMENTS, GRADES, COURSES, USERS, SEMESTERS, DEPARTMENTS
+    }
+
+    private final AtomicLongArray versions = new AtomicLongArray(Domain.values().length);
+    private final List<Consumer<Domain>> listeners = new CopyOnWriteArrayList<>();
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        bumpNow(Domain.ENROLLMENTS);
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        bumpNow(Domain.GRADES);
+    }
+
+    @TransactionalEventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        bumpNow(Domain.COURSES);
+    }
+
+    /**
+     * Bumps the domain once the current transaction commits, or right away outside of one.
+     * A rolled back write leaves the version alone.
+     */
+    public void bump(Domain domain) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpNow(domain);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumpNow(domain);
+            }
+        });
+    }
+
+    public long[] snapshot(Domain... domains) {
+        long[] snapshot = new long[domains.length];
+        for (int i = 0; i < domains.length; i++) {
+            snapshot[i] = versions.get(domains[i].ordinal());
+        }
+        return snapshot;
+    }
+
+    public long version(Domain domain) {
+        return versions.get(domain.ordinal());
+    }
+
+    public void addListener(Consumer<Domain> listener) {
+        listeners.add(listener);
+    }
+
+    private void bumpNow(Domain domain) {
+        versions.incrementAndGet(domain.ordinal());
+        listeners.forEach(listener -> listener.accept(domain));
+    }
+}
@@ -0,0 +1,183 @@
+package com.ucms.service;
+
+import com.ucms.dto.CreateDepartmentRequest;
+import com.ucms.dto.DepartmentResponse;
+import com.ucms.entity.Department;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.repository.DepartmentRepository;
+import com.ucms.repository.EnrollmentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class DepartmentService {
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Transactional(readOnly = true)
+    public List<DepartmentResponse> getAllDepartments() {
+        return departmentRepository.findAll(Sort.by("name")).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Department> findByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return departmentRepository.findByName(name.trim());
+    }
+
+    public DepartmentResponse createDepartment(CreateDepartmentRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new RuntimeException("Department name is required");
+        }
+        if (departmentRepository.existsByName(request.getName().trim())) {
+            throw new RuntimeException("Department '" + request.getName() + "' already exists");
+        }
+
+        Department department = new Department();
+        department.setName(request.getName().trim());
+        department.setCode(request.getCode() != null && !request.getCode().isBlank()
+                ? request.getCode() : generateDepartmentCode(department.getName()));
+        department.setDescription(request.getDescription());
+        department.setHeadOfDepartment(request.getHeadOfDepartment());
+        department.setContactEmail(request.getContactEmail());
+        department.setLocation(request.getLocation());
+
+        Department saved = departmentRepository.save(department);
+        dataVersionService.bump(DataVersionService.Domain.DEPARTMENTS);
+        return convertToResponse(saved);
+    }
+
+    /**
+     * Resolves a department by name, creating it on first use so professors can still be
+     * assigned to a department that hasn't been set up explicitly. Blank names mean no department.
+     */
+    public Department getOrCreate(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String trimmed = name.trim();
+        return departmentRepository.findByName(trimmed).orElseGet(() -> {
+            Department department = new Department();
+            department.setName(trimmed);
+            department.setCode(generateDepartmentCode(trimmed));
+            dataVersionService.bump(DataVersionService.Domain.DEPARTMENTS);
+            return departmentRepository.save(department);
+        });
+    }
+
+    public void professorAdded(Department department) {
+        if (department != null) {
+            departmentRepository.adjustTotalProfessors(department.getId(), 1);
+        }
+    }
+
+    public void professorRemoved(Department department) {
+        if (department != null) {
+            departmentRepository.adjustTotalProfessors(department.getId(), -1);
+        }
+    }
+
+    public void professorMoved(Department from, Department to) {
+        if (sameDepartment(from, to)) {
+            return;
+        }
+        professorRemoved(from);
+        professorAdded(to);
+    }
+
+    public void courseAdded(Department department) {
+        if (department != null) {
+            departmentRepository.adjustTotalCourses(department.getId(), 1);
+        }
+    }
+
+    public void courseRemoved(Department department) {
+        if (department != null) {
+            departmentRepository.adjustTotalCourses(department.getId(), -1);
+        }
+    }
+
+    /**
+     * Moves a course's counters between departments. Must be called after the course has been
+     * saved with its new department, since the student counts of both sides are recounted.
+     */
+    public void courseMoved(Department from, Department to) {
+        if (sameDepartment(from, to)) {
+            return;
+        }
+        courseRemoved(from);
+        courseAdded(to);
+        // A moved course can take students with it or not, depending on their other courses
+        if (from != null) {
+            departmentRepository.recalculateTotalStudents(from.getId());
+        }
+        if (to != null) {
+            departmentRepository.recalculateTotalStudents(to.getId());
+        }
+    }
+
+    // Runs inside the enrolling transaction so the counter commits or rolls back with the enrollment
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getDepartmentId() == null) {
+            return;
+        }
+        // The student only counts once per department, so only the first enrollment and last drop matter
+        long remaining = enrollmentRepository.countByStudentIdAndCourseDepartmentId(
+                event.getStudentId(), event.getDepartmentId());
+        if (event.isEnrolled() && remaining == 1) {
+            departmentRepository.adjustTotalStudents(event.getDepartmentId(), 1);
+        } else if (!event.isEnrolled() && remaining == 0) {
+            departmentRepository.adjustTotalStudents(event.getDepartmentId(), -1);
+        }
+    }
+
+    public void recalculateTotals() {
+        departmentRepository.recalculateTotals();
+    }
+
+    private boolean sameDepartment(Department a, Department b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getId().equals(b.getId());
+    }
+
+    private DepartmentResponse convertToResponse(Department department) {
+        DepartmentResponse response = new DepartmentResponse();
+        response.setId(department.getId());
+        response.setName(department.getName());
+        response.setCode(department.getCode());
+        response.setDescription(department.getDescription());
+        response.setHeadOfDepartment(department.getHeadOfDepartment());
+        response.setContactEmail(department.getContactEmail());
+        response.setLocation(department.getLocation());
+        response.setTotalProfessors(department.getTotalProfessors());
+        response.setTotalCourses(department.getTotalCourses());
+        response.setTotalStudents(department.getTotalStudents());
+        return response;
+    }
+
+    private String generateDepartmentCode(String departmentName) {
+        return departmentName.substring(0, Math.min(4, departmentName.length())).toUpperCase();
+    }
+}
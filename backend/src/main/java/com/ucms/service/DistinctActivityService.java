@@ -0,0 +1,306 @@
+package com.ucms.service;
+
+import com.ucms.dto.DistinctActivityResponse;
+import com.ucms.entity.User;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.util.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Counts distinct active users per day with HyperLogLog sketches: one sketch per day for each
+ * role seen by the authentication filter, plus one for students whose enrollments changed.
+ * Weeks and months are answered by merging the days they cover, so only days are stored and
+ * memory is fixed at (retention days x metrics x sketch size) however many users are active.
+ * Sketches are saved periodically and on shutdown, and the same format can be exported from
+ * one node and merged into another to count distinct users across the cluster.
+ */
+@Service
+public class DistinctActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistinctActivityService.class);
+
+    private static final int FILE_MAGIC = 0x55434841;
+    private static final int FILE_VERSION = 1;
+
+    public enum Metric {
+        STUDENTS, PROFESSORS, ADMINS, ENROLLING_STUDENTS
+    }
+
+    private static final Metric[] METRICS = Metric.values();
+
+    @Value("${ucms.analytics.activity-file:./analytics/distinct-activity.bin.gz}")
+    private String file;
+
+    @Value("${ucms.analytics.activity-precision:12}")
+    private int precision;
+
+    @Value("${ucms.analytics.activity-retention-days:400}")
+    private int retentionDays;
+
+    private final NavigableMap<Long, HyperLogLog[]> days = new ConcurrentSkipListMap<>();
+    private volatile Today today;
+    private volatile boolean dirty;
+    private volatile boolean loaded;
+
+    // Sketches recorded before the file is read are kept; loading merges into them
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Path source = Paths.get(file).toAbsolutePath();
+        if (Files.exists(source)) {
+            try (InputStream in = Files.newInputStream(source)) {
+                int merged = merge(in);
+                logger.info("Loaded distinct activity sketches for {} days from {}", merged, source);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable distinct activity file {}", source, e);
+            }
+        }
+        loaded = true;
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        if (loaded && dirty) {
+            save();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${ucms.analytics.activity-persist-interval-ms:300000}",
+               fixedDelayString = "${ucms.analytics.activity-persist-interval-ms:300000}")
+    public void persist() {
+        long oldest = LocalDate.now().toEpochDay() - retentionDays;
+        NavigableMap<Long, HyperLogLog[]> expired = days.headMap(oldest, false);
+        boolean pruned = !expired.isEmpty();
+        expired.clear();
+        if (loaded && (dirty || pruned)) {
+            save();
+        }
+    }
+
+    /**
+     * Called by the authentication filter for every authenticated request.
+     */
+    public void recordRequest(Long userId, User.Role role) {
+        if (userId == null || role == null) {
+            return;
+        }
+        Metric metric = role == User.Role.STUDENT ? Metric.STUDENTS
+                : role == User.Role.PROFESSOR ? Metric.PROFESSORS : Metric.ADMINS;
+        record(metric, userId);
+    }
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        record(Metric.ENROLLING_STUDENTS, event.getStudentId());
+    }
+
+    /**
+     * Distinct users for the last {@code count} days, weeks (Monday to Sunday) or calendar
+     * months, oldest first. The current period is included and still filling up.
+     */
+    public DistinctActivityResponse getDistinctActivity(String period, Integer count) {
+        String unit = period != null ? period.trim().toLowerCase() : "day";
+        LocalDate now = LocalDate.now();
+        LocalDate currentStart;
+        int defaultCount;
+        switch (unit) {
+            case "day":
+                currentStart = now;
+                defaultCount = 14;
+                break;
+            case "week":
+                currentStart = now.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                defaultCount = 8;
+                break;
+            case "month":
+                currentStart = now.withDayOfMonth(1);
+                defaultCount = 6;
+                break;
+            default:
+                throw new RuntimeException("Unknown period: " + period + ". Use day, week or month.");
+        }
+        int buckets = Math.max(1, Math.min(count != null ? count : defaultCount, 366));
+
+        List<DistinctActivityResponse.Bucket> result = new ArrayList<>(buckets);
+        for (int i = buckets - 1; i >= 0; i--) {
+            LocalDate start = shift(currentStart, unit, -i);
+            LocalDate end = shift(start, unit, 1).minusDays(1);
+            HyperLogLog[] merged = mergeDays(start, end);
+            HyperLogLog anyone = new HyperLogLog(precision);
+            for (Metric metric : new Metric[] {Metric.STUDENTS, Metric.PROFESSORS, Metric.ADMINS}) {
+                anyone.merge(merged[metric.ordinal()]);
+            }
+            result.add(new DistinctActivityResponse.Bucket(start, end,
+                    merged[Metric.STUDENTS.ordinal()].estimate(),
+                    merged[Metric.PROFESSORS.ordinal()].estimate(),
+                    merged[Metric.ADMINS.ordinal()].estimate(),
+                    anyone.estimate(),
+                    merged[Metric.ENROLLING_STUDENTS.ordinal()].estimate()));
+        }
+        double standardError = 1.04 / Math.sqrt(1 << precision);
+        return new DistinctActivityResponse(unit, precision, Math.round(standardError * 10000) / 100.0, result);
+    }
+
+    /**
+     * Writes every stored day in the file format, for another node to merge.
+     */
+    public void export(OutputStream target) throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(target);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip));
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_VERSION);
+        out.writeByte(precision);
+        List<Map.Entry<Long, HyperLogLog[]>> entries = new ArrayList<>(days.entrySet());
+        out.writeInt(entries.size());
+        for (Map.Entry<Long, HyperLogLog[]> entry : entries) {
+            out.writeLong(entry.getKey());
+            out.writeByte(METRICS.length);
+            for (HyperLogLog sketch : entry.getValue()) {
+                sketch.write(out);
+            }
+        }
+        out.flush();
+        // The caller owns the target stream, so finish the gzip trailer without closing it
+        gzip.finish();
+    }
+
+    /**
+     * Merges sketches exported by another node (or read back from disk) into this one.
+     * Merging is idempotent, so importing the same export twice changes nothing.
+     *
+     * @return the number of days merged
+     */
+    public int merge(InputStream source) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(source)));
+        if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+            throw new IOException("Not a distinct activity export");
+        }
+        int theirPrecision = in.readUnsignedByte();
+        if (theirPrecision != precision) {
+            throw new RuntimeException("Cannot merge activity sketches of precision " + theirPrecision
+                    + " into sketches of precision " + precision);
+        }
+        long oldest = LocalDate.now().toEpochDay() - retentionDays;
+        int dayCount = in.readInt();
+        for (int d = 0; d < dayCount; d++) {
+            long day = in.readLong();
+            int metricCount = in.readUnsignedByte();
+            HyperLogLog[] mine = day >= oldest ? sketchesFor(day) : null;
+            for (int m = 0; m < metricCount; m++) {
+                HyperLogLog theirs = HyperLogLog.readFrom(in);
+                // Metrics added by a newer version are skipped
+                if (mine != null && m < mine.length) {
+                    mine[m].merge(theirs);
+                }
+            }
+        }
+        if (dayCount > 0) {
+            dirty = true;
+        }
+        return dayCount;
+    }
+
+    private void record(Metric metric, Long id) {
+        if (id == null) {
+            return;
+        }
+        Today current = today;
+        long day = LocalDate.now().toEpochDay();
+        if (current == null || current.epochDay != day) {
+            current = new Today(day, sketchesFor(day));
+            today = current;
+        }
+        if (current.sketches[metric.ordinal()].offer(id)) {
+            dirty = true;
+        }
+    }
+
+    private HyperLogLog[] sketchesFor(long epochDay) {
+        return days.computeIfAbsent(epochDay, day -> {
+            HyperLogLog[] sketches = new HyperLogLog[METRICS.length];
+            for (int i = 0; i < sketches.length; i++) {
+                sketches[i] = new HyperLogLog(precision);
+            }
+            return sketches;
+        });
+    }
+
+    private HyperLogLog[] mergeDays(LocalDate start, LocalDate end) {
+        HyperLogLog[] merged = new HyperLogLog[METRICS.length];
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = new HyperLogLog(precision);
+        }
+        for (HyperLogLog[] day : days.subMap(start.toEpochDay(), true, end.toEpochDay(), true).values()) {
+            for (int i = 0; i < merged.length; i++) {
+                merged[i].merge(day[i]);
+            }
+        }
+        return merged;
+    }
+
+    private static LocalDate shift(LocalDate date, String unit, int amount) {
+        switch (unit) {
+            case "week":
+                return date.plusWeeks(amount);
+            case "month":
+                return date.plusMonths(amount);
+            default:
+                return date.plusDays(amount);
+        }
+    }
+
+    private synchronized void save() {
+        Path target = Paths.get(file).toAbsolutePath();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(target.getParent());
+            dirty = false;
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                export(out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Could not save distinct activity sketches to {}", target, e);
+        }
+    }
+
+    private static final class Today {
+        private final long epochDay;
+        private final HyperLogLog[] sketches;
+
+        private Today(long epochDay, HyperLogLog[] sketches) {
+            this.epochDay = epochDay;
+            this.sketches = sketches;
+        }
+    }
+}
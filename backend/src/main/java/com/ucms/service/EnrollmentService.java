@@ -2,18 +2,26 @@ package com.ucms.service;
 
 import com.ucms.dto.*;
 import com.ucms.entity.*;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
 import com.ucms.repository.*;
+import com.ucms.util.SingleFlight;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +40,34 @@ public class EnrollmentService {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private StatsQueryExecutor statsQueryExecutor;
+
+    @Autowired
+    private StudentActivityService studentActivityService;
+
+    @Autowired
+    private GpaLedgerService gpaLedgerService;
+
+    @Autowired
+    private TranscriptCacheService transcriptCacheService;
+
+    @Autowired
+    private ClassRankService classRankService;
+
+    @Value("${ucms.analytics.coalesce-window-ms:1000}")
+    private long coalesceWindowMs;
+
+    private SingleFlight<String, EnrollmentStatsResponse> enrollmentStatsFlights;
+
+    @PostConstruct
+    public void initStatsFlights() {
+        enrollmentStatsFlights = new SingleFlight<>(coalesceWindowMs);
+    }
+
     // Student enroll in course
     public EnrollmentResponse enrollStudent(Long courseId) {
         // Get current student
@@ -68,6 +104,7 @@ public class EnrollmentService {
         courseRepository.save(course);
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.enrolled(savedEnrollment));
         return convertToResponse(savedEnrollment);
     }
 
@@ -87,6 +124,7 @@ public class EnrollmentService {
         courseRepository.save(course);
 
         enrollmentRepository.delete(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.dropped(enrollment));
     }
 
     // Get current student's schedule
@@ -96,21 +134,19 @@ public class EnrollmentService {
             throw new RuntimeException("Only students can view schedules");
         }
 
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(currentUser.getProfileId());
+        List<Enrollment> enrollments = enrollmentRepository.findWithCoursesByStudentId(currentUser.getProfileId());
         List<EnrollmentResponse> enrollmentResponses = enrollments.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
 
-        // Calculate total credits (assuming each course is 3 credits)
-        int totalCredits = enrollments.size() * 3;
-
-        // Calculate GPA if there are graded courses
-        Double gpa = calculateGPA(enrollments);
+        // Credits and GPA come from the ledger; GPA stays null until a course is graded
+        GpaLedgerService.Summary summary = gpaLedgerService.getSummary(currentUser.getProfileId());
 
-        return new StudentScheduleResponse(enrollmentResponses, totalCredits, gpa);
+        return new StudentScheduleResponse(enrollmentResponses, summary.getTotalCredits(), summary.getGpa());
     }
 
     // Get current student's transcript
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public StudentTranscriptResponse getStudentTranscript() {
         UserInfo currentUser = authService.getCurrentUserInfo();
         if (currentUser.getRole() != User.Role.STUDENT) {
@@ -146,7 +182,7 @@ public class EnrollmentService {
 
     // Get enrollments by student ID
     public List<EnrollmentResponse> getEnrollmentsByStudentId(Long studentId) {
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
+        List<Enrollment> enrollments = enrollmentRepository.findWithCoursesByStudentId(studentId);
         return enrollments.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -154,7 +190,7 @@ public class EnrollmentService {
 
     // Get enrollments by course ID
     public List<EnrollmentResponse> getEnrollmentsByCourseId(Long courseId) {
-        List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
+        List<Enrollment> enrollments = enrollmentRepository.findWithStudentsByCourseId(courseId);
         return enrollments.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -185,6 +221,7 @@ public class EnrollmentService {
         courseRepository.save(course);
 
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.enrolled(savedEnrollment));
         return convertToResponse(savedEnrollment);
     }
 
@@ -198,6 +235,7 @@ public class EnrollmentService {
         courseRepository.save(course);
 
         enrollmentRepository.delete(enrollment);
+        eventPublisher.publishEvent(EnrollmentChangedEvent.dropped(enrollment));
     }
 
     // Update grade for enrollment
@@ -205,61 +243,65 @@ public class EnrollmentService {
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + enrollmentId));
 
-        // Validate grade
-        if (grade != null && !isValidGrade(grade)) {
-            throw new RuntimeException("Invalid grade: " + grade);
-        }
+        // Validates the letter; null clears the grade
+        Grade newGrade = Grade.of(grade);
 
-        enrollment.setGrade(grade);
+        Grade previousGrade = enrollment.getGrade();
+        enrollment.setGrade(newGrade);
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+
+        eventPublisher.publishEvent(new GradeChangedEvent(
+                savedEnrollment.getId(), savedEnrollment.getStudent().getId(), savedEnrollment.getCourse().getId(),
+                savedEnrollment.getCourse().getSemesterName(), previousGrade, newGrade,
+                savedEnrollment.getAttendance(), savedEnrollment.getAttendance(),
+                savedEnrollment.getParticipationScore(), savedEnrollment.getParticipationScore()));
+
         return convertToResponse(savedEnrollment);
     }
 
     // Get student transcript
+    // Runs outside a transaction so a cached transcript is served without taking a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public StudentTranscriptResponse getStudentTranscript(Long studentId) {
+        StudentTranscriptResponse transcript = transcriptCacheService.get(studentId, () -> loadStudentTranscript(studentId));
+        // Rank moves with other students' grades, so it is added on every read instead of being cached
+        classRankService.applyTo(transcript);
+        return transcript;
+    }
+
+    private StudentTranscriptResponse loadStudentTranscript(Long studentId) {
         Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found with id: " + studentId));
 
-        List<Enrollment> enrollments = enrollmentRepository.findByStudentId(studentId);
-        
-        // Calculate GPA and credits
-        double totalGradePoints = 0;
-        int totalCredits = 0;
-        int completedCredits = 0;
+        List<Enrollment> enrollments = enrollmentRepository.findWithCoursesByStudentId(studentId);
 
         List<StudentTranscriptResponse.TranscriptEntry> transcriptEntries = new ArrayList<>();
 
         for (Enrollment enrollment : enrollments) {
             Course course = enrollment.getCourse();
-            String grade = enrollment.getGrade();
+            Grade grade = enrollment.getGrade();
             
             StudentTranscriptResponse.TranscriptEntry entry = new StudentTranscriptResponse.TranscriptEntry();
             entry.setCourseCode(course.getCode());
             entry.setCourseTitle(course.getTitle());
-            entry.setSemester(course.getSemester());
-            entry.setGrade(grade != null ? grade : "In Progress");
-            entry.setCredits(3); // Assuming 3 credits per course
+            entry.setSemester(course.getSemesterName());
+            entry.setGrade(grade != null ? grade.getLetter() : "In Progress");
+            entry.setCredits(GpaLedgerService.CREDITS_PER_COURSE);
             entry.setProfessorName(course.getProfessor() != null ? course.getProfessor().getName() : "TBA");
             
             transcriptEntries.add(entry);
-            
-            totalCredits += 3;
-            if (grade != null) {
-                completedCredits += 3;
-                totalGradePoints += getGradePoints(grade) * 3;
-            }
         }
 
-        double gpa = completedCredits > 0 ? totalGradePoints / completedCredits : 0.0;
+        GpaLedgerService.Summary summary = gpaLedgerService.getSummary(studentId);
 
         StudentTranscriptResponse transcript = new StudentTranscriptResponse();
         transcript.setStudentId(studentId);
         transcript.setStudentName(student.getName());
         transcript.setEmail(student.getEmail());
-        transcript.setMajor("Computer Science"); // Default since major not in entity
-        transcript.setGpa(Math.round(gpa * 100.0) / 100.0);
-        transcript.setTotalCredits(totalCredits);
-        transcript.setCompletedCredits(completedCredits);
+        transcript.setMajor(student.getMajor() != null ? student.getMajor() : "Undeclared");
+        transcript.setGpa(summary.getGpaOrZero());
+        transcript.setTotalCredits(summary.getTotalCredits());
+        transcript.setCompletedCredits(summary.getCompletedCredits());
         transcript.setCourses(transcriptEntries);
 
         return transcript;
@@ -280,35 +322,45 @@ public class EnrollmentService {
     }
 
     // Get enrollment statistics
+    // Runs outside a transaction so the request thread holds no connection while the queries run
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EnrollmentStatsResponse getEnrollmentStats() {
-        List<Enrollment> allEnrollments = enrollmentRepository.findAll();
-        
-        long totalEnrollments = allEnrollments.size();
-        long completedEnrollments = allEnrollments.stream()
-                .filter(e -> e.getGrade() != null)
-                .count();
+        // Concurrent dashboard loads share one set of queries
+        return enrollmentStatsFlights.execute("enrollment", this::computeEnrollmentStats);
+    }
+
+    private EnrollmentStatsResponse computeEnrollmentStats() {
+        // The aggregates are independent of each other, so they run concurrently
+        CompletableFuture<Long> totalEnrollmentsQuery = statsQueryExecutor.submit(enrollmentRepository::count);
+        CompletableFuture<Long> completedEnrollmentsQuery = statsQueryExecutor.submit(enrollmentRepository::countByGradeIsNotNull);
+        CompletableFuture<List<Object[]>> gradeCountsQuery = statsQueryExecutor.submit(enrollmentRepository::countByGrade);
+        CompletableFuture<Long> totalStudentsQuery = statsQueryExecutor.submit(studentRepository::count);
+        CompletableFuture<Long> totalCoursesQuery = statsQueryExecutor.submit(courseRepository::count);
+        CompletableFuture<Long> fullCoursesQuery = statsQueryExecutor.submit(
+                () -> courseRepository.countByAvailableSeatsLessThanEqual(0));
+        statsQueryExecutor.awaitAll(totalEnrollmentsQuery, completedEnrollmentsQuery, gradeCountsQuery,
+                totalStudentsQuery, totalCoursesQuery, fullCoursesQuery);
+
+        long totalEnrollments = totalEnrollmentsQuery.join();
+        long completedEnrollments = completedEnrollmentsQuery.join();
         long activeEnrollments = totalEnrollments - completedEnrollments;
         long pendingGrades = totalEnrollments - completedEnrollments;
-        
-        double averageGradePoints = allEnrollments.stream()
-                .filter(e -> e.getGrade() != null)
-                .mapToDouble(e -> getGradePoints(e.getGrade()))
-                .average()
-                .orElse(0.0);
-
-        long totalStudents = studentRepository.count();
-        long totalCourses = courseRepository.count();
-        
-        List<Course> allCourses = courseRepository.findAll();
-        long coursesWithFullCapacity = allCourses.stream()
-                .filter(c -> c.getAvailableSeats() <= 0)
-                .count();
 
-        // Students without enrollments
-        long studentsWithoutEnrollments = totalStudents - allEnrollments.stream()
-                .map(e -> e.getStudent().getId())
-                .distinct()
-                .count();
+        double totalGradePoints = 0;
+        long gradedCount = 0;
+        for (Object[] row : gradeCountsQuery.join()) {
+            long count = (Long) row[1];
+            totalGradePoints += ((Grade) row[0]).getPoints() * count;
+            gradedCount += count;
+        }
+        double averageGradePoints = gradedCount > 0 ? totalGradePoints / gradedCount : 0.0;
+
+        long totalStudents = totalStudentsQuery.join();
+        long totalCourses = totalCoursesQuery.join();
+        long coursesWithFullCapacity = fullCoursesQuery.join();
+
+        // Students without enrollments, from the activity bitmaps or an anti-join while they build
+        long studentsWithoutEnrollments = studentActivityService.countStudentsWithoutEnrollments(totalStudents);
 
         EnrollmentStatsResponse stats = new EnrollmentStatsResponse();
         stats.setTotalEnrollments(totalEnrollments);
@@ -329,7 +381,7 @@ public class EnrollmentService {
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
 
-        List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
+        List<Enrollment> enrollments = enrollmentRepository.findWithStudentsByCourseId(courseId);
 
         List<CourseEnrollmentDetailsResponse.EnrolledStudent> students = enrollments.stream()
                 .map(enrollment -> {
@@ -345,45 +397,31 @@ public class EnrollmentService {
                 .collect(Collectors.toList());
 
         // Calculate grade distribution
-        Map<String, Integer> gradeCount = new HashMap<>();
-        gradeCount.put("A", 0);
-        gradeCount.put("B", 0);
-        gradeCount.put("C", 0);
-        gradeCount.put("D", 0);
-        gradeCount.put("F", 0);
-        gradeCount.put("Pending", 0);
-
+        int[] gradeCounts = new int[Grade.count()];
+        int pending = 0;
         for (Enrollment enrollment : enrollments) {
-            String grade = enrollment.getGrade();
+            Grade grade = enrollment.getGrade();
             if (grade == null) {
-                gradeCount.put("Pending", gradeCount.get("Pending") + 1);
-            } else if (grade.startsWith("A")) {
-                gradeCount.put("A", gradeCount.get("A") + 1);
-            } else if (grade.startsWith("B")) {
-                gradeCount.put("B", gradeCount.get("B") + 1);
-            } else if (grade.startsWith("C")) {
-                gradeCount.put("C", gradeCount.get("C") + 1);
-            } else if (grade.startsWith("D")) {
-                gradeCount.put("D", gradeCount.get("D") + 1);
-            } else if (grade.startsWith("F")) {
-                gradeCount.put("F", gradeCount.get("F") + 1);
+                pending++;
+            } else {
+                gradeCounts[grade.ordinal()]++;
             }
         }
 
         CourseEnrollmentDetailsResponse.GradeDistribution gradeDistribution = 
             new CourseEnrollmentDetailsResponse.GradeDistribution();
-        gradeDistribution.setAGrades(gradeCount.get("A"));
-        gradeDistribution.setBGrades(gradeCount.get("B"));
-        gradeDistribution.setCGrades(gradeCount.get("C"));
-        gradeDistribution.setDGrades(gradeCount.get("D"));
-        gradeDistribution.setFGrades(gradeCount.get("F"));
-        gradeDistribution.setPending(gradeCount.get("Pending"));
+        gradeDistribution.setAGrades(countBand(gradeCounts, 'A'));
+        gradeDistribution.setBGrades(countBand(gradeCounts, 'B'));
+        gradeDistribution.setCGrades(countBand(gradeCounts, 'C'));
+        gradeDistribution.setDGrades(countBand(gradeCounts, 'D'));
+        gradeDistribution.setFGrades(countBand(gradeCounts, 'F'));
+        gradeDistribution.setPending(pending);
 
         CourseEnrollmentDetailsResponse details = new CourseEnrollmentDetailsResponse();
         details.setCourseId(courseId);
         details.setCourseCode(course.getCode());
         details.setCourseTitle(course.getTitle());
-        details.setSemester(course.getSemester());
+        details.setSemester(course.getSemesterName());
         details.setCapacity(course.getCapacity());
         details.setEnrolledStudents(enrollments.size());
         details.setAvailableSeats(course.getAvailableSeats());
@@ -404,52 +442,21 @@ public class EnrollmentService {
         response.setCourseId(enrollment.getCourse().getId());
         response.setCourseCode(enrollment.getCourse().getCode());
         response.setCourseTitle(enrollment.getCourse().getTitle());
-        response.setSemester(enrollment.getCourse().getSemester());
+        response.setSemester(enrollment.getCourse().getSemesterName());
         response.setEnrollmentDate(enrollment.getEnrollmentDate());
         response.setGrade(enrollment.getGrade());
         response.setGradeStatus(enrollment.getGrade() != null ? "Graded" : "Pending");
         return response;
     }
 
-    // Helper method to validate grade
-    private boolean isValidGrade(String grade) {
-        Set<String> validGrades = Set.of("A+", "A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F");
-        return validGrades.contains(grade.toUpperCase());
-    }
-
-    // Helper method to get grade points
-    private double getGradePoints(String grade) {
-        if (grade == null) return 0.0;
-        switch (grade.toUpperCase()) {
-            case "A+": case "A": return 4.0;
-            case "A-": return 3.7;
-            case "B+": return 3.3;
-            case "B": return 3.0;
-            case "B-": return 2.7;
-            case "C+": return 2.3;
-            case "C": return 2.0;
-            case "C-": return 1.7;
-            case "D+": return 1.3;
-            case "D": return 1.0;
-            case "D-": return 0.7;
-            case "F": return 0.0;
-            default: return 0.0;
-        }
-    }
-
-    // Helper method to calculate GPA
-    private Double calculateGPA(List<Enrollment> enrollments) {
-        double totalGradePoints = 0;
-        int totalCredits = 0;
-
-        for (Enrollment enrollment : enrollments) {
-            if (enrollment.getGrade() != null) {
-                totalGradePoints += getGradePoints(enrollment.getGrade()) * 3; // 3 credits per course
-                totalCredits += 3;
+    // Sum of the counts of every grade in a letter band, e.g. A+, A and A- for 'A'
+    private static int countBand(int[] gradeCounts, char band) {
+        int total = 0;
+        for (int i = 0; i < gradeCounts.length; i++) {
+            if (Grade.ofOrdinal(i).getBand() == band) {
+                total += gradeCounts[i];
             }
         }
-
-        if (totalCredits == 0) return null;
-        return Math.round((totalGradePoints / totalCredits) * 100.0) / 100.0;
+        return total;
     }
 }
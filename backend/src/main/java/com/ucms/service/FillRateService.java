@@ -0,0 +1,387 @@
+package com.ucms.service;
+
+import com.ucms.dto.FillCurvePoint;
+import com.ucms.dto.FillCurveResponse;
+import com.ucms.entity.Course;
+import com.ucms.entity.Semester;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.SemesterRepository;
+import com.ucms.util.SeatSampleRing;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Samples every course's seat counters on a fixed interval so fill curves can be drawn after
+ * the fact. Samples live in a fixed-size primitive ring per course and are read straight from
+ * the course table, so enrollment requests never write anything extra. When a semester ends
+ * its rings are written to a compressed archive file and dropped from memory; the rings of
+ * running semesters are also saved on shutdown and after each sample so a restart keeps them.
+ */
+@Service
+public class FillRateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FillRateService.class);
+
+    private static final int FILE_MAGIC = 0x55434652;
+    private static final int FILE_VERSION = 1;
+    private static final String LIVE_FILE = "live.bin.gz";
+    private static final String ARCHIVE_PREFIX = "semester-";
+    private static final String ARCHIVE_SUFFIX = ".bin.gz";
+    private static final long NO_SEMESTER = -1L;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Value("${ucms.analytics.fill-rate-directory:./analytics/fill-rates}")
+    private String directory;
+
+    @Value("${ucms.analytics.fill-rate-samples-per-course:2048}")
+    private int samplesPerCourse;
+
+    private final Map<Long, CourseSeries> series = new ConcurrentHashMap<>();
+    private final Set<Long> archivedSemesters = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        ensureLoaded();
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        if (loaded) {
+            saveLive();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${ucms.analytics.fill-rate-initial-delay-ms:60000}",
+               fixedDelayString = "${ucms.analytics.fill-rate-sample-interval-ms:900000}")
+    public void sample() {
+        ensureLoaded();
+        long now = Instant.now().getEpochSecond();
+        boolean stored = false;
+        for (Object[] row : courseRepository.findSeatCounters()) {
+            Long semesterId = (Long) row[2];
+            if (semesterId != null && archivedSemesters.contains(semesterId)) {
+                continue;
+            }
+            Long courseId = (Long) row[0];
+            CourseSeries course = series.computeIfAbsent(courseId,
+                    id -> new CourseSeries(id, (String) row[1], new SeatSampleRing(samplesPerCourse)));
+            // A course moved to another semester takes its history along
+            course.semesterId = semesterId != null ? semesterId : NO_SEMESTER;
+            stored |= course.ring.add(now, intOf(row[3]), intOf(row[4]));
+        }
+        boolean archived = archiveEndedSemesters();
+        if (stored || archived) {
+            saveLive();
+        }
+    }
+
+    public FillCurveResponse getCourseCurve(Long courseId) {
+        ensureLoaded();
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        String semesterName = course.getSemesterName();
+        boolean archived = course.getSemester() != null && archivedSemesters.contains(course.getSemester().getId());
+
+        CourseSeries live = series.get(courseId);
+        SeatSampleRing.Snapshot samples = null;
+        if (live != null) {
+            samples = live.ring.snapshot();
+        } else if (archived) {
+            samples = readArchive(course.getSemester().getId()).stream()
+                    .filter(stored -> stored.courseId == courseId)
+                    .map(stored -> stored.ring.snapshot())
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        List<FillCurvePoint> points = new ArrayList<>();
+        if (samples != null) {
+            for (int i = 0; i < samples.size(); i++) {
+                points.add(point(samples.timestamps[i], samples.capacities[i], samples.availableSeats[i]));
+            }
+        }
+        return new FillCurveResponse(semesterName, courseId, course.getCode(), 1, archived, points);
+    }
+
+    /**
+     * Fill curve of a whole semester: seats taken across all of its courses at every sample time.
+     * Each course's series is a step function, so a course contributes its latest sample at or
+     * before each point once it has been sampled at all.
+     */
+    public FillCurveResponse getSemesterCurve(String semesterName) {
+        ensureLoaded();
+        Semester semester = semesterRepository.findByName(semesterName != null ? semesterName.trim() : "")
+                .orElseThrow(() -> new RuntimeException("Semester not found: " + semesterName));
+        boolean archived = archivedSemesters.contains(semester.getId());
+
+        Collection<CourseSeries> courses = archived
+                ? readArchive(semester.getId())
+                : series.values().stream()
+                        .filter(course -> course.semesterId == semester.getId())
+                        .collect(Collectors.toList());
+        List<SeatSampleRing.Snapshot> snapshots = courses.stream()
+                .map(course -> course.ring.snapshot())
+                .filter(snapshot -> snapshot.size() > 0)
+                .collect(Collectors.toList());
+
+        long[] times = snapshots.stream()
+                .flatMapToLong(snapshot -> Arrays.stream(snapshot.timestamps))
+                .distinct()
+                .sorted()
+                .toArray();
+        int[] cursors = new int[snapshots.size()];
+        List<FillCurvePoint> points = new ArrayList<>(times.length);
+        for (long time : times) {
+            int capacity = 0;
+            int available = 0;
+            for (int c = 0; c < snapshots.size(); c++) {
+                SeatSampleRing.Snapshot snapshot = snapshots.get(c);
+                while (cursors[c] < snapshot.size() && snapshot.timestamps[cursors[c]] <= time) {
+                    cursors[c]++;
+                }
+                if (cursors[c] > 0) {
+                    capacity += snapshot.capacities[cursors[c] - 1];
+                    available += snapshot.availableSeats[cursors[c] - 1];
+                }
+            }
+            points.add(point(time, capacity, available));
+        }
+        return new FillCurveResponse(semester.getName(), null, null, snapshots.size(), archived, points);
+    }
+
+    /**
+     * How early each course of a semester ran out of seats: the time from the semester's first
+     * sample to the course's first sample with no seats left, as a fraction of the whole sampled
+     * period. Courses that never filled have no entry, and neither does a semester that was
+     * sampled at only one point in time.
+     */
+    public Map<Long, Double> getFillFractions(Long semesterId) {
+        ensureLoaded();
+        Collection<CourseSeries> courses = archivedSemesters.contains(semesterId)
+                ? readArchive(semesterId)
+                : series.values().stream()
+                        .filter(course -> course.semesterId == semesterId)
+                        .collect(Collectors.toList());
+        Map<Long, SeatSampleRing.Snapshot> snapshots = new HashMap<>();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (CourseSeries course : courses) {
+            SeatSampleRing.Snapshot snapshot = course.ring.snapshot();
+            if (snapshot.size() > 0) {
+                snapshots.put(course.courseId, snapshot);
+                start = Math.min(start, snapshot.timestamps[0]);
+                end = Math.max(end, snapshot.timestamps[snapshot.size() - 1]);
+            }
+        }
+        if (end <= start) {
+            return Map.of();
+        }
+        Map<Long, Double> fractions = new HashMap<>();
+        for (Map.Entry<Long, SeatSampleRing.Snapshot> entry : snapshots.entrySet()) {
+            SeatSampleRing.Snapshot snapshot = entry.getValue();
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.capacities[i] > 0 && snapshot.availableSeats[i] <= 0) {
+                    fractions.put(entry.getKey(), (double) (snapshot.timestamps[i] - start) / (end - start));
+                    break;
+                }
+            }
+        }
+        return fractions;
+    }
+
+    // Semesters whose end date has passed are written out once and no longer sampled
+    private boolean archiveEndedSemesters() {
+        LocalDate today = LocalDate.now();
+        boolean archivedAny = false;
+        for (Semester semester : semesterRepository.findAll()) {
+            if (semester.getEndDate() == null || !semester.getEndDate().isBefore(today)
+                    || archivedSemesters.contains(semester.getId())) {
+                continue;
+            }
+            List<CourseSeries> courses = series.values().stream()
+                    .filter(course -> course.semesterId == semester.getId())
+                    .collect(Collectors.toList());
+            if (courses.isEmpty()) {
+                continue;
+            }
+            try {
+                writeFile(resolve(ARCHIVE_PREFIX + semester.getId() + ARCHIVE_SUFFIX), courses);
+            } catch (IOException e) {
+                logger.warn("Could not archive fill rates of semester {}", semester.getName(), e);
+                continue;
+            }
+            archivedSemesters.add(semester.getId());
+            courses.forEach(course -> series.remove(course.courseId, course));
+            archivedAny = true;
+            logger.info("Archived fill rates of {} courses for semester {}", courses.size(), semester.getName());
+        }
+        return archivedAny;
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        Path root = Paths.get(directory).toAbsolutePath();
+        if (Files.isDirectory(root)) {
+            try (DirectoryStream<Path> archives = Files.newDirectoryStream(root, ARCHIVE_PREFIX + "*" + ARCHIVE_SUFFIX)) {
+                for (Path archive : archives) {
+                    String name = archive.getFileName().toString();
+                    try {
+                        archivedSemesters.add(Long.parseLong(
+                                name.substring(ARCHIVE_PREFIX.length(), name.length() - ARCHIVE_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        logger.warn("Ignoring unexpected fill rate file {}", archive);
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Could not list fill rate archives in {}", root, e);
+            }
+        }
+        readFile(resolve(LIVE_FILE)).ifPresent(stored -> stored.forEach(course -> series.put(course.courseId, course)));
+        loaded = true;
+    }
+
+    private synchronized void saveLive() {
+        try {
+            writeFile(resolve(LIVE_FILE), new ArrayList<>(series.values()));
+        } catch (IOException e) {
+            logger.warn("Could not save fill rate samples to {}", directory, e);
+        }
+    }
+
+    private List<CourseSeries> readArchive(Long semesterId) {
+        return readFile(resolve(ARCHIVE_PREFIX + semesterId + ARCHIVE_SUFFIX)).orElse(List.of());
+    }
+
+    private Path resolve(String fileName) {
+        return Paths.get(directory).toAbsolutePath().resolve(fileName);
+    }
+
+    // Timestamps are delta-encoded seconds; gzip takes care of the long runs of equal seat counts
+    private void writeFile(Path target, List<CourseSeries> courses) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(partial))))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(courses.size());
+            for (CourseSeries course : courses) {
+                SeatSampleRing.Snapshot samples = course.ring.snapshot();
+                out.writeLong(course.courseId);
+                out.writeUTF(course.code != null ? course.code : "");
+                out.writeLong(course.semesterId);
+                out.writeInt(samples.size());
+                for (int i = 0; i < samples.size(); i++) {
+                    if (i == 0) {
+                        out.writeLong(samples.timestamps[0]);
+                    } else {
+                        out.writeInt((int) (samples.timestamps[i] - samples.timestamps[i - 1]));
+                    }
+                    out.writeInt(samples.capacities[i]);
+                    out.writeInt(samples.availableSeats[i]);
+                }
+            }
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Optional<List<CourseSeries>> readFile(Path source) {
+        if (!Files.exists(source)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(source))))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                logger.warn("Ignoring fill rate file {} with an unknown format", source);
+                return Optional.empty();
+            }
+            int courseCount = in.readInt();
+            List<CourseSeries> courses = new ArrayList<>(courseCount);
+            for (int i = 0; i < courseCount; i++) {
+                long courseId = in.readLong();
+                String code = in.readUTF();
+                long semesterId = in.readLong();
+                int sampleCount = in.readInt();
+                CourseSeries course = new CourseSeries(courseId, code,
+                        new SeatSampleRing(Math.max(samplesPerCourse, sampleCount)));
+                course.semesterId = semesterId;
+                long timestamp = 0;
+                for (int s = 0; s < sampleCount; s++) {
+                    timestamp = s == 0 ? in.readLong() : timestamp + in.readInt();
+                    course.ring.add(timestamp, in.readInt(), in.readInt());
+                }
+                courses.add(course);
+            }
+            return Optional.of(courses);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable fill rate file {}", source, e);
+            return Optional.empty();
+        }
+    }
+
+    private static FillCurvePoint point(long epochSecond, int capacity, int available) {
+        int enrolled = capacity - available;
+        double fillRate = capacity > 0 ? Math.round(enrolled * 1000.0 / capacity) / 10.0 : 0.0;
+        return new FillCurvePoint(LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()),
+                capacity, enrolled, available, fillRate);
+    }
+
+    private static int intOf(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
+    }
+
+    private static final class CourseSeries {
+        private final long courseId;
+        private final String code;
+        private final SeatSampleRing ring;
+        private volatile long semesterId = NO_SEMESTER;
+
+        private CourseSeries(long courseId, String code, SeatSampleRing ring) {
+            this.courseId = courseId;
+            this.code = code;
+            this.ring = ring;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.ucms.service;
+
+import com.ucms.entity.GpaLedgerEntry;
+import com.ucms.entity.Grade;
+import com.ucms.event.CourseMovedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.repository.GpaLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a ledger of grade points and credits per student and semester. Every enrollment, drop
+ * and grade write adjusts the ledger in the same transaction, so GPA and credit totals are a
+ * keyed read of a few rows instead of a walk over the student's whole enrollment history.
+ */
+@Service
+@Transactional
+public class GpaLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GpaLedgerService.class);
+
+    // Every course is worth the same number of credits until courses carry their own
+    public static final int CREDITS_PER_COURSE = 3;
+
+    private static final long NO_SEMESTER = 0L;
+
+    @Autowired
+    private GpaLedgerRepository gpaLedgerRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    // Enrollments written outside the application (or before the ledger existed) are picked up
+    // by comparing the ledger's credit totals with the enrollment counts. Runs before the other
+    // startup listeners, since class ranking builds from the ledger.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        Object[] credits = gpaLedgerRepository.sumCredits().get(0);
+        long gradedCredits = ((Number) credits[0]).longValue();
+        long totalCredits = ((Number) credits[1]).longValue();
+        if (gradedCredits != enrollmentRepository.countByGradeIsNotNull() * CREDITS_PER_COURSE
+                || totalCredits != enrollmentRepository.count() * CREDITS_PER_COURSE) {
+            int rows = rebuildAll();
+            logger.info("Rebuilt GPA ledger: {} student-semester rows", rows);
+        }
+    }
+
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        int sign = event.isEnrolled() ? 1 : -1;
+        // A dropped enrollment takes its grade, if it had one, out of the ledger as well
+        boolean graded = event.getGrade() != null;
+        gpaLedgerRepository.apply(event.getStudentId(), event.getCourseId(),
+                graded ? sign * event.getGrade().getPointTenths() * CREDITS_PER_COURSE : 0,
+                graded ? sign * CREDITS_PER_COURSE : 0,
+                sign * CREDITS_PER_COURSE);
+    }
+
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        if (!event.isGradeChanged()) {
+            return;
+        }
+        long tenths = 0;
+        int gradedCredits = 0;
+        if (event.getPreviousGrade() != null) {
+            tenths -= event.getPreviousGrade().getPointTenths() * CREDITS_PER_COURSE;
+            gradedCredits -= CREDITS_PER_COURSE;
+        }
+        if (event.getGrade() != null) {
+            tenths += event.getGrade().getPointTenths() * CREDITS_PER_COURSE;
+            gradedCredits += CREDITS_PER_COURSE;
+        }
+        gpaLedgerRepository.apply(event.getStudentId(), event.getCourseId(), tenths, gradedCredits, 0);
+    }
+
+    // A moved course takes its enrollments to another semester, so its students' rows are rebuilt
+    @EventListener
+    public void onCourseMoved(CourseMovedEvent event) {
+        if (event.isSemesterChanged()) {
+            rebuildStudents(enrollmentRepository.findStudentIdsByCourseId(event.getCourseId()));
+        }
+    }
+
+    /**
+     * Removes a deleted student's rows.
+     */
+    public void studentRemoved(Long studentId) {
+        gpaLedgerRepository.deleteByStudentIds(List.of(studentId));
+    }
+
+    @Transactional(readOnly = true)
+    public Summary getSummary(Long studentId) {
+        return getSummaries(List.of(studentId)).get(studentId);
+    }
+
+    /**
+     * Totals over all semesters for each of the given students, including those without rows.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Summary> getSummaries(Collection<Long> studentIds) {
+        Map<Long, Summary> summaries = new HashMap<>();
+        if (!studentIds.isEmpty()) {
+            for (Object[] row : gpaLedgerRepository.sumByStudentIds(studentIds)) {
+                summaries.put((Long) row[0], new Summary(((Number) row[1]).longValue(),
+                        ((Number) row[2]).intValue(), ((Number) row[3]).intValue()));
+            }
+        }
+        for (Long studentId : studentIds) {
+            summaries.putIfAbsent(studentId, Summary.EMPTY);
+        }
+        return summaries;
+    }
+
+    /**
+     * Totals per semester id, in semester id order. Courses without a semester are under 0.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Summary> getSemesterSummaries(Long studentId) {
+        Map<Long, Summary> summaries = new LinkedHashMap<>();
+        for (GpaLedgerEntry entry : gpaLedgerRepository.findByStudentIdOrderBySemesterIdAsc(studentId)) {
+            summaries.put(entry.getSemesterId(), new Summary(entry.getGradePointTenths(),
+                    entry.getGradedCredits(), entry.getTotalCredits()));
+        }
+        return summaries;
+    }
+
+    public int rebuildAll() {
+        gpaLedgerRepository.deleteAllEntries();
+        return saveRows(enrollmentRepository.countByStudentSemesterAndGrade());
+    }
+
+    private void rebuildStudents(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        gpaLedgerRepository.deleteByStudentIds(studentIds);
+        saveRows(enrollmentRepository.countByStudentSemesterAndGrade(studentIds));
+    }
+
+    // Rows are (student id, semester id, grade, enrollment count)
+    private int saveRows(List<Object[]> counts) {
+        Map<List<Long>, GpaLedgerEntry> entries = new HashMap<>();
+        for (Object[] row : counts) {
+            Long studentId = (Long) row[0];
+            Long semesterId = row[1] != null ? (Long) row[1] : NO_SEMESTER;
+            Grade grade = (Grade) row[2];
+            int credits = ((Number) row[3]).intValue() * CREDITS_PER_COURSE;
+            GpaLedgerEntry entry = entries.computeIfAbsent(List.of(studentId, semesterId), key -> {
+                GpaLedgerEntry created = new GpaLedgerEntry();
+                created.setStudentId(studentId);
+                created.setSemesterId(semesterId);
+                return created;
+            });
+            entry.setTotalCredits(entry.getTotalCredits() + credits);
+            if (grade != null) {
+                entry.setGradedCredits(entry.getGradedCredits() + credits);
+                entry.setGradePointTenths(entry.getGradePointTenths() + (long) grade.getPointTenths() * credits);
+            }
+        }
+        gpaLedgerRepository.saveAll(entries.values());
+        return entries.size();
+    }
+
+    public static final class Summary {
+        static final Summary EMPTY = new Summary(0, 0, 0);
+
+        private final long gradePointTenths;
+        private final int gradedCredits;
+        private final int totalCredits;
+
+        Summary(long gradePointTenths, int gradedCredits, int totalCredits) {
+            this.gradePointTenths = gradePointTenths;
+            this.gradedCredits = gradedCredits;
+            this.totalCredits = totalCredits;
+        }
+
+        /**
+         * GPA rounded to two decimals, or null if nothing is graded yet.
+         */
+        public Double getGpa() {
+            if (gradedCredits == 0) {
+                return null;
+            }
+            return Math.round(gradePointTenths * 10.0 / gradedCredits) / 100.0;
+        }
+
+        public double getGpaOrZero() {
+            Double gpa = getGpa();
+            return gpa != null ? gpa : 0.0;
+        }
+
+        public int getCompletedCredits() {
+            return gradedCredits;
+        }
+
+        public int getTotalCredits() {
+            return totalCredits;
+        }
+    }
+}
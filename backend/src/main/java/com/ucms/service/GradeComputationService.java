@@ -0,0 +1,371 @@
+package com.ucms.service;
+
+import com.ucms.dto.GradeComputationResponse;
+import com.ucms.dto.GradingSchemeRequest;
+import com.ucms.dto.GradingSchemeResponse;
+import com.ucms.entity.Course;
+import com.ucms.entity.Grade;
+import com.ucms.entity.GradingScheme;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.repository.GradingSchemeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes final grades for a whole course roster from the midterm, final, attendance and
+ * participation components, weighted by the course's grading scheme. The roster is read once
+ * into one primitive array per component and the weighted scores and letters are computed in
+ * a single pass over them. A preview shows every student's current and computed grade;
+ * applying writes the changed grades in JDBC batches and publishes the usual grade events, so
+ * the GPA ledger, caches and analytics follow as they do for grades entered one at a time.
+ */
+@Service
+@Transactional
+public class GradeComputationService {
+
+    private static final int MIDTERM = 0;
+    private static final int FINAL = 1;
+    private static final int ATTENDANCE = 2;
+    private static final int PARTICIPATION = 3;
+    private static final String[] COMPONENTS = {"midtermGrade", "finalGrade", "attendance", "participationScore"};
+
+    // Lowest percentage for each grade, indexed by Grade ordinal (A+ first)
+    private static final double[] CUTOFFS = {97, 93, 90, 87, 83, 80, 77, 73, 70, 67, 63, 60, 0};
+
+    private static final String UPDATE_SQL = "UPDATE enrollments SET grade = ? WHERE id = ? AND grade IS NOT DISTINCT FROM ?";
+
+    @Autowired
+    private GradingSchemeRepository gradingSchemeRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterService semesterService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${ucms.grading.default-midterm-weight:30}")
+    private double defaultMidtermWeight;
+
+    @Value("${ucms.grading.default-final-weight:40}")
+    private double defaultFinalWeight;
+
+    @Value("${ucms.grading.default-attendance-weight:10}")
+    private double defaultAttendanceWeight;
+
+    @Value("${ucms.grading.default-participation-weight:20}")
+    private double defaultParticipationWeight;
+
+    @Value("${ucms.grading.batch-size:500}")
+    private int batchSize;
+
+    @Transactional(readOnly = true)
+    public GradingSchemeResponse getScheme(Long courseId) {
+        return toResponse(findCourse(courseId), schemeFor(courseId));
+    }
+
+    public GradingSchemeResponse updateScheme(Long courseId, GradingSchemeRequest request, String updatedBy) {
+        Course course = findCourse(courseId);
+        double[] weights = {value(request.getMidtermWeight()), value(request.getFinalWeight()),
+                value(request.getAttendanceWeight()), value(request.getParticipationWeight())};
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new RuntimeException("Weights cannot be negative");
+            }
+            total += weight;
+        }
+        if (Math.abs(total - 100) > 0.001) {
+            throw new RuntimeException("Weights must add up to 100, not " + total);
+        }
+
+        GradingScheme scheme = gradingSchemeRepository.findByCourseId(courseId).orElseGet(GradingScheme::new);
+        scheme.setCourseId(courseId);
+        scheme.setMidtermWeight(weights[MIDTERM]);
+        scheme.setFinalWeight(weights[FINAL]);
+        scheme.setAttendanceWeight(weights[ATTENDANCE]);
+        scheme.setParticipationWeight(weights[PARTICIPATION]);
+        scheme.setUpdatedBy(updatedBy);
+        scheme.setUpdatedAt(LocalDateTime.now());
+        return toResponse(course, gradingSchemeRepository.save(scheme));
+    }
+
+    /**
+     * Computes every enrolled student's grade without writing anything.
+     */
+    @Transactional(readOnly = true)
+    public GradeComputationResponse preview(Long courseId) {
+        Course course = findCourse(courseId);
+        GradingScheme scheme = schemeFor(courseId);
+        return compute(course, scheme).toResponse(course, toResponse(course, scheme), false);
+    }
+
+    /**
+     * Writes the computed grades that differ from the current ones. Students missing a weighted
+     * component keep their grade.
+     *
+     * @param previewVersion the version of the preview being applied
+     */
+    public GradeComputationResponse apply(Long courseId, String previewVersion) {
+        Course course = findCourse(courseId);
+        semesterService.requireOpen(course.getSemester());
+        GradingScheme scheme = schemeFor(courseId);
+        Computation computation = compute(course, scheme);
+        if (!computation.version.equals(previewVersion)) {
+            throw new RuntimeException("Grades or grade components of " + course.getCode()
+                    + " changed since the preview. Preview again before applying.");
+        }
+
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < computation.size; i++) {
+            if (computation.isChanged(i)) {
+                changed.add(i);
+            }
+        }
+        // The previous grade in the WHERE clause catches a grade written after the rows were read
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, changed, batchSize, (statement, i) -> {
+            statement.setShort(1, Grade.ofOrdinal(computation.computed[i]).getCode());
+            statement.setLong(2, computation.enrollmentIds[i]);
+            Grade current = computation.current[i];
+            if (current != null) {
+                statement.setShort(3, current.getCode());
+            } else {
+                statement.setNull(3, Types.SMALLINT);
+            }
+        });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    throw new RuntimeException("Grades of " + course.getCode()
+                            + " changed while applying. Preview again before applying.");
+                }
+            }
+        }
+
+        String semester = course.getSemesterName();
+        for (int i : changed) {
+            eventPublisher.publishEvent(new GradeChangedEvent(computation.enrollmentIds[i],
+                    computation.studentIds[i], courseId, semester, computation.current[i],
+                    Grade.ofOrdinal(computation.computed[i]), computation.attendance[i], computation.attendance[i],
+                    computation.participation[i], computation.participation[i]));
+        }
+        return computation.toResponse(course, toResponse(course, scheme), true);
+    }
+
+    private Computation compute(Course course, GradingScheme scheme) {
+        List<Object[]> rows = enrollmentRepository.findGradeInputsByCourseId(course.getId());
+        int n = rows.size();
+        Computation c = new Computation(n);
+        double[][] values = new double[COMPONENTS.length][n];
+        double[] weights = {scheme.getMidtermWeight() / 100, scheme.getFinalWeight() / 100,
+                scheme.getAttendanceWeight() / 100, scheme.getParticipationWeight() / 100};
+        int weighted = 0;
+        for (int k = 0; k < weights.length; k++) {
+            if (weights[k] > 0) {
+                weighted |= 1 << k;
+            }
+        }
+
+        long version = mix(0xcbf29ce484222325L, Double.doubleToLongBits(scheme.getMidtermWeight()));
+        version = mix(version, Double.doubleToLongBits(scheme.getFinalWeight()));
+        version = mix(version, Double.doubleToLongBits(scheme.getAttendanceWeight()));
+        version = mix(version, Double.doubleToLongBits(scheme.getParticipationWeight()));
+
+        // Rows are (enrollment id, student id, student name, midterm, final, attendance, participation, grade)
+        for (int i = 0; i < n; i++) {
+            Object[] row = rows.get(i);
+            c.enrollmentIds[i] = (Long) row[0];
+            c.studentIds[i] = (Long) row[1];
+            c.studentNames[i] = (String) row[2];
+            c.midterm[i] = (String) row[3];
+            c.finalExam[i] = (String) row[4];
+            c.attendance[i] = (Double) row[5];
+            c.participation[i] = (Double) row[6];
+            c.current[i] = (Grade) row[7];
+
+            int missing = 0;
+            double[] parsed = {percentOf(c.midterm[i]), percentOf(c.finalExam[i]),
+                    c.attendance[i] != null ? c.attendance[i] : Double.NaN,
+                    c.participation[i] != null ? c.participation[i] : Double.NaN};
+            for (int k = 0; k < parsed.length; k++) {
+                if (Double.isNaN(parsed[k])) {
+                    missing |= 1 << k;
+                    parsed[k] = 0;
+                }
+                values[k][i] = parsed[k];
+            }
+            c.missing[i] = missing & weighted;
+
+            version = mix(version, c.enrollmentIds[i]);
+            version = mix(version, c.current[i] != null ? c.current[i].getCode() : 0);
+            version = mix(version, Objects.hashCode(c.midterm[i]));
+            version = mix(version, Objects.hashCode(c.finalExam[i]));
+            version = mix(version, Objects.hashCode(c.attendance[i]));
+            version = mix(version, Objects.hashCode(c.participation[i]));
+        }
+        c.version = Long.toHexString(version);
+
+        double[] midterm = values[MIDTERM];
+        double[] finalExam = values[FINAL];
+        double[] attendance = values[ATTENDANCE];
+        double[] participation = values[PARTICIPATION];
+        double midtermWeight = weights[MIDTERM];
+        double finalWeight = weights[FINAL];
+        double attendanceWeight = weights[ATTENDANCE];
+        double participationWeight = weights[PARTICIPATION];
+        for (int i = 0; i < n; i++) {
+            c.scores[i] = midtermWeight * midterm[i] + finalWeight * finalExam[i]
+                    + attendanceWeight * attendance[i] + participationWeight * participation[i];
+        }
+        for (int i = 0; i < n; i++) {
+            c.computed[i] = c.missing[i] == 0 ? ordinalOf(Math.round(c.scores[i] * 10) / 10.0) : -1;
+        }
+        return c;
+    }
+
+    // Numeric values are percentages; a letter counts as the middle of its band, F as 50
+    private static double percentOf(String value) {
+        if (value == null || value.isBlank()) {
+            return Double.NaN;
+        }
+        Grade grade = Grade.parse(value);
+        if (grade != null) {
+            int ordinal = grade.ordinal();
+            if (grade == Grade.F) {
+                return 50;
+            }
+            double upper = ordinal == 0 ? 100 : CUTOFFS[ordinal - 1];
+            return (CUTOFFS[ordinal] + upper) / 2;
+        }
+        try {
+            String number = value.trim();
+            return Double.parseDouble(number.endsWith("%") ? number.substring(0, number.length() - 1) : number);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static int ordinalOf(double score) {
+        for (int ordinal = 0; ordinal < CUTOFFS.length; ordinal++) {
+            if (score >= CUTOFFS[ordinal]) {
+                return ordinal;
+            }
+        }
+        return Grade.F.ordinal();
+    }
+
+    // Folds the high bits back down after each multiply, so every input reaches every output bit
+    private static long mix(long hash, long value) {
+        long h = (hash ^ value) * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static double value(Double weight) {
+        return weight != null ? weight : 0.0;
+    }
+
+    private Course findCourse(Long courseId) {
+        return courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+    }
+
+    private GradingScheme schemeFor(Long courseId) {
+        return gradingSchemeRepository.findByCourseId(courseId).orElseGet(() -> {
+            GradingScheme scheme = new GradingScheme();
+            scheme.setCourseId(courseId);
+            scheme.setMidtermWeight(defaultMidtermWeight);
+            scheme.setFinalWeight(defaultFinalWeight);
+            scheme.setAttendanceWeight(defaultAttendanceWeight);
+            scheme.setParticipationWeight(defaultParticipationWeight);
+            return scheme;
+        });
+    }
+
+    private static GradingSchemeResponse toResponse(Course course, GradingScheme scheme) {
+        return new GradingSchemeResponse(course.getId(), course.getCode(), scheme.getMidtermWeight(),
+                scheme.getFinalWeight(), scheme.getAttendanceWeight(), scheme.getParticipationWeight(),
+                scheme.getId() == null, scheme.getUpdatedBy(), scheme.getUpdatedAt());
+    }
+
+    // One course roster as parallel arrays, one slot per enrollment
+    private static final class Computation {
+        private final int size;
+        private final long[] enrollmentIds;
+        private final long[] studentIds;
+        private final String[] studentNames;
+        private final String[] midterm;
+        private final String[] finalExam;
+        private final Double[] attendance;
+        private final Double[] participation;
+        private final Grade[] current;
+        // Bits of the weighted components that have no usable value
+        private final int[] missing;
+        private final double[] scores;
+        // Grade ordinal, or -1 when a weighted component is missing
+        private final int[] computed;
+        private String version;
+
+        private Computation(int size) {
+            this.size = size;
+            enrollmentIds = new long[size];
+            studentIds = new long[size];
+            studentNames = new String[size];
+            midterm = new String[size];
+            finalExam = new String[size];
+            attendance = new Double[size];
+            participation = new Double[size];
+            current = new Grade[size];
+            missing = new int[size];
+            scores = new double[size];
+            computed = new int[size];
+        }
+
+        private boolean isChanged(int i) {
+            return computed[i] >= 0 && (current[i] == null || current[i].ordinal() != computed[i]);
+        }
+
+        private GradeComputationResponse toResponse(Course course, GradingSchemeResponse scheme, boolean applied) {
+            List<GradeComputationResponse.StudentGrade> grades = new ArrayList<>(size);
+            int computedCount = 0;
+            int changedCount = 0;
+            for (int i = 0; i < size; i++) {
+                boolean complete = computed[i] >= 0;
+                boolean changed = isChanged(i);
+                computedCount += complete ? 1 : 0;
+                changedCount += changed ? 1 : 0;
+                List<String> missingComponents = new ArrayList<>();
+                for (int k = 0; k < COMPONENTS.length; k++) {
+                    if ((missing[i] & (1 << k)) != 0) {
+                        missingComponents.add(COMPONENTS[k]);
+                    }
+                }
+                grades.add(new GradeComputationResponse.StudentGrade(enrollmentIds[i], studentIds[i],
+                        studentNames[i], midterm[i], finalExam[i], attendance[i], participation[i],
+                        complete ? Math.round(scores[i] * 10) / 10.0 : null, current[i],
+                        complete ? Grade.ofOrdinal(computed[i]) : null, changed, missingComponents));
+            }
+            return new GradeComputationResponse(course.getId(), course.getCode(), scheme, version, applied,
+                    size, computedCount, changedCount, size - computedCount, grades);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.ucms.service;
+
+import com.ucms.dto.GradeCubeResponse;
+import com.ucms.entity.Course;
+import com.ucms.entity.Grade;
+import com.ucms.event.CourseMovedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.EnrollmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory cube of grade counts over (semester, department, course, grade). Every rollup
+ * level keeps its own pre-aggregated counts per grade, and grade point sums follow from those
+ * counts, so each drill-down step is a couple of map lookups no matter how many enrollments
+ * there are. The cube is kept current from enrollment, grade and course move events and is
+ * written to disk periodically and on shutdown so a restart doesn't need a full rebuild.
+ */
+@Service
+public class GradeCubeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeCubeService.class);
+
+    // One slot per grade ordinal, then the two extra slots
+    private static final int GRADES = Grade.count();
+    // Graded with a value outside the scale (legacy data); grades are always on the scale now, but
+    // the slot is kept so cube files written before stay readable
+    private static final int OTHER_SLOT = GRADES;
+    private static final int PENDING_SLOT = GRADES + 1;
+    private static final int SLOTS = GRADES + 2;
+
+    private static final String UNSCHEDULED = "Unscheduled";
+    private static final String UNASSIGNED = "Unassigned";
+
+    private static final int FILE_MAGIC = 0x55434742;
+    private static final int FILE_VERSION = 1;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Value("${ucms.analytics.grade-cube-file:./analytics/grade-cube.bin}")
+    private String cubeFile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private Map<Long, CourseNode> courses;
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        ensureLoaded();
+    }
+
+    @PreDestroy
+    public void saveOnShutdown() {
+        persistIfDirty();
+    }
+
+    @Scheduled(fixedDelayString = "${ucms.analytics.grade-cube-persist-interval-ms:300000}")
+    public void persistIfDirty() {
+        if (!loaded || !dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            writeFile();
+        } catch (IOException e) {
+            dirty = true;
+            logger.warn("Could not write grade cube to {}", cubeFile, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        int slot = slotOf(event.getGrade());
+        update(event.getCourseId(), course -> add(course, slot, event.isEnrolled() ? 1 : -1));
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        if (!loaded || !event.isGradeChanged()) {
+            return;
+        }
+        update(event.getCourseId(), course -> {
+            add(course, slotOf(event.getPreviousGrade()), -1);
+            add(course, slotOf(event.getGrade()), 1);
+        });
+    }
+
+    @TransactionalEventListener
+    public void onCourseMoved(CourseMovedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            CourseNode course = courses.get(event.getCourseId());
+            if (course != null) {
+                attach(course, labelOr(event.getSemester(), UNSCHEDULED), labelOr(event.getDepartment(), UNASSIGNED));
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drills down one level at a time: all semesters, then a semester's departments, then a
+     * department's courses. Passing a course id jumps straight to that course's grade counts.
+     */
+    public GradeCubeResponse drillDown(String semester, String department, Long courseId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            if (courseId != null) {
+                CourseNode course = courses.get(courseId);
+                return course != null ? toResponse(course) : emptyCourse(courseId);
+            }
+            if (semester == null || semester.isBlank()) {
+                GradeCubeResponse response = toResponse("ALL", null, null, root);
+                response.setChildren(children(root, "SEMESTER", null));
+                return response;
+            }
+            String semesterLabel = semester.trim();
+            Node semesterNode = root.children.get(semesterLabel);
+            if (department == null || department.isBlank()) {
+                GradeCubeResponse response = toResponse("SEMESTER", semesterLabel, null, orEmpty(semesterNode));
+                response.setChildren(children(semesterNode, "DEPARTMENT", semesterLabel));
+                return response;
+            }
+            String departmentLabel = department.trim();
+            Node departmentNode = semesterNode != null ? semesterNode.children.get(departmentLabel) : null;
+            GradeCubeResponse response = toResponse("DEPARTMENT", semesterLabel, departmentLabel, orEmpty(departmentNode));
+            List<GradeCubeResponse> courseResponses = new ArrayList<>();
+            if (departmentNode != null) {
+                for (Node child : departmentNode.children.values()) {
+                    GradeCubeResponse courseResponse = toResponse((CourseNode) child);
+                    if (courseResponse.getEnrollmentCount() > 0) {
+                        courseResponses.add(courseResponse);
+                    }
+                }
+            }
+            courseResponses.sort(Comparator.comparing(GradeCubeResponse::getCourseCode));
+            response.setChildren(courseResponses);
+            return response;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the cube from one grouped query, discarding whatever was loaded before.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            root = new Node();
+            courses = new HashMap<>();
+            for (Object[] row : enrollmentRepository.countByCourseAndGrade()) {
+                CourseNode course = courses.get((Long) row[2]);
+                if (course == null) {
+                    course = new CourseNode((Long) row[2], (String) row[3]);
+                    courses.put(course.courseId, course);
+                    attach(course, labelOr((String) row[0], UNSCHEDULED), labelOr((String) row[1], UNASSIGNED));
+                }
+                add(course, slotOf((Grade) row[4]), (Long) row[5]);
+            }
+            loaded = true;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        persistIfDirty();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            if (readFile() && matchesDatabase()) {
+                logger.info("Loaded grade cube with {} courses from {}", courses.size(), cubeFile);
+                loaded = true;
+                return;
+            }
+            rebuild();
+            logger.info("Built grade cube with {} courses", courses.size());
+        }
+    }
+
+    // Cheap sanity check for a cube read from disk: its overall grade counts must match the table
+    private boolean matchesDatabase() {
+        long[] expected = new long[SLOTS];
+        long graded = 0;
+        for (Object[] row : enrollmentRepository.countByGrade()) {
+            long count = (Long) row[1];
+            expected[slotOf((Grade) row[0])] += count;
+            graded += count;
+        }
+        expected[PENDING_SLOT] = enrollmentRepository.count() - graded;
+        return Arrays.equals(expected, root.counts);
+    }
+
+    private void update(Long courseId, Consumer<CourseNode> change) {
+        CourseNode course;
+        lock.readLock().lock();
+        try {
+            course = courses.get(courseId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        Course entity = null;
+        if (course == null) {
+            // First enrollment in a course the cube hasn't seen yet
+            entity = courseRepository.findById(courseId).orElse(null);
+            if (entity == null) {
+                return;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            course = courses.get(courseId);
+            if (course == null) {
+                course = new CourseNode(entity.getId(), entity.getCode());
+                courses.put(course.courseId, course);
+                attach(course, labelOr(entity.getSemesterName(), UNSCHEDULED), labelOr(entity.getDepartmentName(), UNASSIGNED));
+            }
+            change.accept(course);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock
+    private void add(CourseNode course, int slot, long delta) {
+        course.counts[slot] += delta;
+        course.department.counts[slot] += delta;
+        course.semester.counts[slot] += delta;
+        root.counts[slot] += delta;
+    }
+
+    // Callers hold the write lock. Moves the course's counts out of its old path and into the new one.
+    private void attach(CourseNode course, String semesterLabel, String departmentLabel) {
+        if (course.department != null) {
+            subtract(course.department, course.counts);
+            subtract(course.semester, course.counts);
+            subtract(root, course.counts);
+            course.department.children.remove(String.valueOf(course.courseId));
+        }
+        Node semesterNode = root.children.computeIfAbsent(semesterLabel, key -> new Node());
+        Node departmentNode = semesterNode.children.computeIfAbsent(departmentLabel, key -> new Node());
+        departmentNode.children.put(String.valueOf(course.courseId), course);
+        course.semester = semesterNode;
+        course.department = departmentNode;
+        course.semesterLabel = semesterLabel;
+        course.departmentLabel = departmentLabel;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            departmentNode.counts[slot] += course.counts[slot];
+            semesterNode.counts[slot] += course.counts[slot];
+            root.counts[slot] += course.counts[slot];
+        }
+    }
+
+    private static void subtract(Node node, long[] counts) {
+        for (int slot = 0; slot < SLOTS; slot++) {
+            node.counts[slot] -= counts[slot];
+        }
+    }
+
+    private List<GradeCubeResponse> children(Node node, String level, String semesterLabel) {
+        List<GradeCubeResponse> result = new ArrayList<>();
+        if (node == null) {
+            return result;
+        }
+        node.children.forEach((label, child) -> {
+            GradeCubeResponse response = "SEMESTER".equals(level)
+                    ? toResponse(level, label, null, child)
+                    : toResponse(level, semesterLabel, label, child);
+            if (response.getEnrollmentCount() > 0) {
+                result.add(response);
+            }
+        });
+        result.sort(Comparator.comparing("SEMESTER".equals(level) ? GradeCubeResponse::getSemester : GradeCubeResponse::getDepartment));
+        return result;
+    }
+
+    private GradeCubeResponse toResponse(CourseNode course) {
+        GradeCubeResponse response = toResponse("COURSE", course.semesterLabel, course.departmentLabel, course);
+        response.setCourseId(course.courseId);
+        response.setCourseCode(course.code);
+        return response;
+    }
+
+    private GradeCubeResponse emptyCourse(Long courseId) {
+        GradeCubeResponse response = toResponse("COURSE", null, null, new Node());
+        response.setCourseId(courseId);
+        return response;
+    }
+
+    private GradeCubeResponse toResponse(String level, String semester, String department, Node node) {
+        long graded = 0;
+        double gradePoints = 0;
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int slot = 0; slot < GRADES; slot++) {
+            Grade grade = Grade.ofOrdinal(slot);
+            distribution.put(grade.getLetter(), node.counts[slot]);
+            graded += node.counts[slot];
+            gradePoints += grade.getPoints() * node.counts[slot];
+        }
+        if (node.counts[OTHER_SLOT] > 0) {
+            distribution.put("Other", node.counts[OTHER_SLOT]);
+            graded += node.counts[OTHER_SLOT];
+        }
+
+        GradeCubeResponse response = new GradeCubeResponse();
+        response.setLevel(level);
+        response.setSemester(semester);
+        response.setDepartment(department);
+        response.setEnrollmentCount(graded + node.counts[PENDING_SLOT]);
+        response.setGradedCount(graded);
+        response.setPendingCount(node.counts[PENDING_SLOT]);
+        response.setAverageGPA(graded > 0 ? Math.round(gradePoints / graded * 100.0) / 100.0 : 0.0);
+        response.setGradeDistribution(distribution);
+        return response;
+    }
+
+    private static Node orEmpty(Node node) {
+        return node != null ? node : new Node();
+    }
+
+    private static String labelOr(String label, String fallback) {
+        return label != null && !label.isBlank() ? label : fallback;
+    }
+
+    private static int slotOf(Grade grade) {
+        return grade != null ? grade.ordinal() : PENDING_SLOT;
+    }
+
+    // Only the course level is stored; every rollup is rebuilt from it on load
+    private void writeFile() throws IOException {
+        Path target = Paths.get(cubeFile).toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(SLOTS);
+            out.writeInt(courses.size());
+            for (CourseNode course : courses.values()) {
+                out.writeLong(course.courseId);
+                out.writeUTF(course.code != null ? course.code : "");
+                out.writeUTF(course.semesterLabel);
+                out.writeUTF(course.departmentLabel);
+                for (long count : course.counts) {
+                    out.writeLong(count);
+                }
+            }
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean readFile() {
+        Path source = Paths.get(cubeFile).toAbsolutePath();
+        if (!Files.exists(source)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION || in.readInt() != SLOTS) {
+                return false;
+            }
+            root = new Node();
+            courses = new HashMap<>();
+            int courseCount = in.readInt();
+            for (int i = 0; i < courseCount; i++) {
+                CourseNode course = new CourseNode(in.readLong(), in.readUTF());
+                String semesterLabel = in.readUTF();
+                String departmentLabel = in.readUTF();
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    course.counts[slot] = in.readLong();
+                }
+                courses.put(course.courseId, course);
+                attach(course, semesterLabel, departmentLabel);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable grade cube file {}", source, e);
+            return false;
+        }
+    }
+
+    private static class Node {
+        final long[] counts = new long[SLOTS];
+        final Map<String, Node> children = new HashMap<>();
+    }
+
+    private static final class CourseNode extends Node {
+        final long courseId;
+        final String code;
+        Node semester;
+        Node department;
+        String semesterLabel;
+        String departmentLabel;
+
+        CourseNode(long courseId, String code) {
+            this.courseId = courseId;
+            this.code = code;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ucms.service;
+
+import com.ucms.dto.GradeHistoryResponse;
+import com.ucms.dto.StudentTranscriptResponse;
+import com.ucms.entity.Course;
+import com.ucms.entity.Grade;
+import com.ucms.entity.GradeHistoryEntry;
+import com.ucms.entity.Student;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.GradeHistoryRepository;
+import com.ucms.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps an append-only history of every enrollment, grade and drop, written in the same
+ * transaction as the change itself. Each row holds only the enrollment's state after the
+ * change, so a transcript as of any moment is the latest row of each enrollment at or before
+ * it. Current transcripts keep reading the enrollments and the GPA ledger; the history is only
+ * read for past moments and audits.
+ */
+@Service
+@Transactional
+public class GradeHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GradeHistoryService.class);
+
+    @Autowired
+    private GradeHistoryRepository gradeHistoryRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int rows = gradeHistoryRepository.insertMissingBaselines();
+        if (rows > 0) {
+            logger.info("Started grade history for {} enrollments", rows);
+        }
+    }
+
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        append(event.getEnrollmentId(), event.getStudentId(), event.getCourseId(), event.getGrade(),
+                event.getType() == EnrollmentChangedEvent.Type.DROPPED, null);
+    }
+
+    // Attendance and participation are not part of the transcript, so only grade changes are kept
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        if (event.isGradeChanged()) {
+            append(event.getEnrollmentId(), event.getStudentId(), event.getCourseId(), event.getGrade(), false,
+                    event.getComment());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<GradeHistoryResponse> getEnrollmentHistory(Long enrollmentId) {
+        return gradeHistoryRepository.findByEnrollmentIdOrderByChangedAtAscIdAsc(enrollmentId).stream()
+                .map(entry -> new GradeHistoryResponse(entry.getId(), entry.getEnrollmentId(), entry.getStudentId(),
+                        entry.getCourseId(), Grade.letterOf(entry.getGrade()), entry.getDropped(),
+                        entry.getChangedAt(), entry.getChangedBy(), entry.getComment()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The student's transcript as it stood at the given moment. Courses and professors are shown
+     * as they are now; class rank is left out, since it depends on every other student's grades.
+     */
+    @Transactional(readOnly = true)
+    public StudentTranscriptResponse getTranscriptAt(Long studentId, LocalDateTime at) {
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("Student not found with id: " + studentId));
+
+        // Rows are (enrollment id, course id, grade code)
+        List<Object[]> rows = gradeHistoryRepository.findStateByStudentIdAt(studentId, at);
+        Set<Long> courseIds = new HashSet<>();
+        for (Object[] row : rows) {
+            courseIds.add(((Number) row[1]).longValue());
+        }
+        Map<Long, Course> courses = new HashMap<>();
+        for (Course course : courseRepository.findAllById(courseIds)) {
+            courses.put(course.getId(), course);
+        }
+
+        List<StudentTranscriptResponse.TranscriptEntry> entries = new ArrayList<>();
+        long gradePointTenths = 0;
+        int gradedCredits = 0;
+        int totalCredits = 0;
+        for (Object[] row : rows) {
+            Course course = courses.get(((Number) row[1]).longValue());
+            if (course == null) {
+                // Deleted since; its enrollments went with it
+                continue;
+            }
+            Grade grade = row[2] != null ? Grade.fromCode(((Number) row[2]).intValue()) : null;
+            int credits = GpaLedgerService.CREDITS_PER_COURSE;
+            totalCredits += credits;
+            if (grade != null) {
+                gradedCredits += credits;
+                gradePointTenths += (long) grade.getPointTenths() * credits;
+            }
+
+            StudentTranscriptResponse.TranscriptEntry entry = new StudentTranscriptResponse.TranscriptEntry();
+            entry.setCourseCode(course.getCode());
+            entry.setCourseTitle(course.getTitle());
+            entry.setSemester(course.getSemesterName());
+            entry.setGrade(grade != null ? grade.getLetter() : "In Progress");
+            entry.setCredits(credits);
+            entry.setProfessorName(course.getProfessor() != null ? course.getProfessor().getName() : "TBA");
+            entries.add(entry);
+        }
+
+        StudentTranscriptResponse transcript = new StudentTranscriptResponse();
+        transcript.setStudentId(studentId);
+        transcript.setStudentName(student.getName());
+        transcript.setEmail(student.getEmail());
+        transcript.setMajor(student.getMajor() != null ? student.getMajor() : "Undeclared");
+        // Rounded the same way as the GPA ledger
+        transcript.setGpa(gradedCredits > 0 ? Math.round(gradePointTenths * 10.0 / gradedCredits) / 100.0 : 0.0);
+        transcript.setTotalCredits(totalCredits);
+        transcript.setCompletedCredits(gradedCredits);
+        transcript.setCourses(entries);
+        return transcript;
+    }
+
+    private void append(Long enrollmentId, Long studentId, Long courseId, Grade grade, boolean dropped,
+                        String comment) {
+        GradeHistoryEntry entry = new GradeHistoryEntry();
+        entry.setEnrollmentId(enrollmentId);
+        entry.setStudentId(studentId);
+        entry.setCourseId(courseId);
+        entry.setGrade(grade);
+        entry.setDropped(dropped);
+        entry.setChangedAt(LocalDateTime.now());
+        entry.setChangedBy(currentUsername());
+        entry.setComment(comment);
+        gradeHistoryRepository.save(entry);
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || "anonymousUser".equals(authentication.getPrincipal())) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
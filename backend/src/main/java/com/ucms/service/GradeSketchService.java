@@ -0,0 +1,197 @@
+package com.ucms.service;
+
+import com.ucms.dto.GradePercentilesResponse;
+import com.ucms.entity.Course;
+import com.ucms.entity.Department;
+import com.ucms.entity.Grade;
+import com.ucms.event.CourseMovedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps percentile sketches of grade points, attendance and participation per course
+ * and per semester. Course sketches are built from the database the first time they
+ * are needed and then updated from grade writes; wider views merge course sketches.
+ */
+@Service
+public class GradeSketchService {
+
+    private static final double[] REPORTED_QUANTILES = {0.10, 0.25, 0.50, 0.75, 0.90};
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private SemesterService semesterService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    private final Map<Long, ComponentSketches> courseSketches = new ConcurrentHashMap<>();
+    private final Map<String, ComponentSketches> semesterSketches = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        boolean overwrite = event.getPreviousGrade() != null
+                || event.getPreviousAttendance() != null
+                || event.getPreviousParticipationScore() != null;
+        boolean unchanged = Objects.equals(event.getPreviousGrade(), event.getGrade())
+                && Objects.equals(event.getPreviousAttendance(), event.getAttendance())
+                && Objects.equals(event.getPreviousParticipationScore(), event.getParticipationScore());
+        if (unchanged) {
+            return;
+        }
+
+        if (overwrite) {
+            // Sketches can't remove a value, so rebuild the affected course on next read
+            courseSketches.remove(event.getCourseId());
+            if (event.getSemester() != null) {
+                semesterSketches.remove(event.getSemester());
+            }
+            return;
+        }
+
+        courseSketches.computeIfPresent(event.getCourseId(), (id, sketches) -> {
+            sketches.add(event.getGrade(), event.getAttendance(), event.getParticipationScore());
+            return sketches;
+        });
+        if (event.getSemester() != null) {
+            semesterSketches.computeIfPresent(event.getSemester(), (semester, sketches) -> {
+                sketches.add(event.getGrade(), event.getAttendance(), event.getParticipationScore());
+                return sketches;
+            });
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCourseMoved(CourseMovedEvent event) {
+        if (!event.isSemesterChanged()) {
+            return;
+        }
+        // The course's values now belong to a different semester
+        if (event.getPreviousSemester() != null) {
+            semesterSketches.remove(event.getPreviousSemester());
+        }
+        if (event.getSemester() != null) {
+            semesterSketches.remove(event.getSemester());
+        }
+    }
+
+    public GradePercentilesResponse getCoursePercentiles(Long courseId) {
+        GradePercentilesResponse response = toResponse(getCourseSketches(courseId));
+        response.setCourseId(courseId);
+        return response;
+    }
+
+    public GradePercentilesResponse getPercentiles(String semester, String department) {
+        ComponentSketches merged;
+        if (department == null || department.isBlank()) {
+            merged = semester != null && !semester.isBlank()
+                    ? getSemesterSketches(semester)
+                    : mergeCourses(courseRepository.findAll());
+        } else {
+            Optional<Department> departmentEntity = departmentService.findByName(department);
+            if (semester != null && !semester.isBlank()) {
+                merged = mergeCourses(departmentEntity.flatMap(d -> semesterService.findByName(semester)
+                        .map(s -> courseRepository.findBySemesterIdAndDepartmentId(s.getId(), d.getId())))
+                        .orElse(List.of()));
+            } else {
+                merged = mergeCourses(departmentEntity
+                        .map(d -> courseRepository.findByDepartmentId(d.getId()))
+                        .orElse(List.of()));
+            }
+        }
+
+        GradePercentilesResponse response = toResponse(merged);
+        response.setSemester(semester);
+        response.setDepartment(department);
+        return response;
+    }
+
+    public GradePercentilesResponse getPercentilesForCourses(List<Course> courses) {
+        return toResponse(mergeCourses(courses));
+    }
+
+    private ComponentSketches getSemesterSketches(String semester) {
+        return semesterSketches.computeIfAbsent(semester,
+                key -> mergeCourses(semesterService.findByName(key)
+                        .map(s -> courseRepository.findBySemesterId(s.getId()))
+                        .orElse(List.of())));
+    }
+
+    private ComponentSketches getCourseSketches(Long courseId) {
+        return courseSketches.computeIfAbsent(courseId, this::loadCourseSketches);
+    }
+
+    private ComponentSketches loadCourseSketches(Long courseId) {
+        ComponentSketches sketches = new ComponentSketches();
+        for (Object[] row : enrollmentRepository.findGradeComponentsByCourseId(courseId)) {
+            sketches.add((Grade) row[0], (Double) row[1], (Double) row[2]);
+        }
+        return sketches;
+    }
+
+    private ComponentSketches mergeCourses(List<Course> courses) {
+        ComponentSketches merged = new ComponentSketches();
+        for (Course course : courses) {
+            merged.merge(getCourseSketches(course.getId()));
+        }
+        return merged;
+    }
+
+    private GradePercentilesResponse toResponse(ComponentSketches sketches) {
+        GradePercentilesResponse response = new GradePercentilesResponse();
+        response.setGradedCount(sketches.gradePoints.count());
+        response.setAttendanceCount(sketches.attendance.count());
+        response.setParticipationCount(sketches.participation.count());
+        response.setGpaPercentiles(percentiles(sketches.gradePoints));
+        response.setAttendancePercentiles(percentiles(sketches.attendance));
+        response.setParticipationPercentiles(percentiles(sketches.participation));
+        return response;
+    }
+
+    private static Map<String, Double> percentiles(QuantileSketch sketch) {
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (sketch.count() == 0) {
+            return result;
+        }
+        for (double q : REPORTED_QUANTILES) {
+            double value = sketch.quantile(q);
+            result.put("p" + Math.round(q * 100), Math.round(value * 100.0) / 100.0);
+        }
+        return result;
+    }
+
+    private static class ComponentSketches {
+        private final QuantileSketch gradePoints = new QuantileSketch();
+        private final QuantileSketch attendance = new QuantileSketch();
+        private final QuantileSketch participation = new QuantileSketch();
+
+        void add(Grade grade, Double attendanceValue, Double participationValue) {
+            if (grade != null) gradePoints.add(grade.getPoints());
+            if (attendanceValue != null) attendance.add(attendanceValue);
+            if (participationValue != null) participation.add(participationValue);
+        }
+
+        void merge(ComponentSketches other) {
+            gradePoints.merge(other.gradePoints);
+            attendance.merge(other.attendance);
+            participation.merge(other.participation);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ucms.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.ucms.dto.ProfessorWorkloadResponse;
 import com.ucms.entity.Course;
 import com.ucms.entity.Enrollment;
 import com.ucms.entity.Professor;
@@ -13,8 +14,6 @@ import com.ucms.repository.EnrollmentRepository;
 import com.ucms.repository.ProfessorRepository;
 import com.ucms.repository.StudentRepository;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,34 +34,21 @@ public class ProfessorService {
     @Autowired
     private StudentRepository studentRepository;
 
+    @Autowired
+    private ProfessorWorkloadService professorWorkloadService;
+
     public Map<String, Object> getProfessorStats(Long professorId) {
         Professor professor = professorRepository.findByUserId(professorId)
             .orElseThrow(() -> new RuntimeException("Professor not found"));
 
-        List<Course> courses = courseRepository.findByProfessorId(professor.getId());
-        
-        // Count total students across all courses
-        int totalStudents = courses.stream()
-            .mapToInt(course -> enrollmentRepository.countByCourseId(course.getId()))
-            .sum();
-
-        // Count courses this semester (assuming current semester logic)
-        String currentSemester = getCurrentSemester();
-        int coursesThisSemester = (int) courses.stream()
-            .filter(course -> course.getSemester().equals(currentSemester))
-            .count();
-
-        // Count pending grades (enrollments without grades)
-        int pendingGrades = 0;
-        for (Course course : courses) {
-            pendingGrades += enrollmentRepository.countByCourseIdAndGradeIsNull(course.getId());
-        }
+        // One grouped aggregate over all of the professor's courses, cached until they change
+        ProfessorWorkloadResponse workload = professorWorkloadService.getWorkload(professor);
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalCourses", courses.size());
-        stats.put("totalStudents", totalStudents);
-        stats.put("coursesThisSemester", coursesThisSemester);
-        stats.put("pendingGrades", pendingGrades);
+        stats.put("totalCourses", workload.getTotalCourses());
+        stats.put("totalStudents", workload.getTotalStudents());
+        stats.put("coursesThisSemester", workload.getCoursesThisSemester());
+        stats.put("pendingGrades", workload.getPendingGrades());
 
         return stats;
     }
@@ -74,8 +60,9 @@ public class ProfessorService {
         List<Course> courses = courseRepository.findByProfessorId(professor.getId());
         
         // Add enrollment count to each course
+        Map<Long, Integer> enrolledCounts = professorWorkloadService.getEnrolledCounts(professor.getId());
         for (Course course : courses) {
-            int enrolledCount = enrollmentRepository.countByCourseId(course.getId());
+            int enrolledCount = enrolledCounts.getOrDefault(course.getId(), 0);
             course.setAvailableSeats(course.getCapacity() - enrolledCount);
             // Set a temporary field for enrolled students count
             // Note: This is a workaround since we can't modify the entity directly
@@ -89,7 +76,7 @@ public class ProfessorService {
         Course course = courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        List<Enrollment> enrollments = enrollmentRepository.findByCourseIdOrderByEnrollmentDateDesc(courseId);
+        List<Enrollment> enrollments = enrollmentRepository.findWithStudentsByCourseIdOrderByEnrollmentDateDesc(courseId);
         
         List<Map<String, Object>> students = enrollments.stream().map(enrollment -> {
             Student student = enrollment.getStudent();
@@ -110,7 +97,7 @@ public class ProfessorService {
         roster.put("courseId", course.getId());
         roster.put("courseCode", course.getCode());
         roster.put("courseTitle", course.getTitle());
-        roster.put("semester", course.getSemester());
+        roster.put("semester", course.getSemesterName());
         roster.put("students", students);
         roster.put("totalEnrolled", students.size());
         
@@ -143,19 +130,4 @@ public class ProfessorService {
 
         return courseRepository.save(course);
     }
-
-    private String getCurrentSemester() {
-        // Simple semester logic - you can make this more sophisticated
-        LocalDate now = LocalDate.now();
-        int year = now.getYear();
-        int month = now.getMonthValue();
-        
-        if (month >= 1 && month <= 5) {
-            return "Spring " + year;
-        } else if (month >= 6 && month <= 8) {
-            return "Summer " + year;
-        } else {
-            return "Fall " + year;
-        }
-    }
 }
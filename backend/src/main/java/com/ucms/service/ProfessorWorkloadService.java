@@ -0,0 +1,231 @@
+package com.ucms.service;
+
+import com.ucms.dto.DepartmentWorkloadResponse;
+import com.ucms.dto.ProfessorWorkloadResponse;
+import com.ucms.entity.Department;
+import com.ucms.entity.Professor;
+import com.ucms.event.CourseChangedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.CourseRepository;
+import com.ucms.repository.DepartmentRepository;
+import com.ucms.repository.ProfessorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-professor teaching load: courses, enrolled students and grades still to be entered.
+ * A professor's courses are aggregated with one grouped query and kept until an enrollment,
+ * grade or course change touches one of them; department views load every missing professor
+ * of the department with a single query as well.
+ */
+@Service
+public class ProfessorWorkloadService {
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ProfessorRepository professorRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private SemesterService semesterService;
+
+    private final Map<Long, List<CourseLoad>> workloads = new ConcurrentHashMap<>();
+    private final Map<Long, Long> courseProfessors = new ConcurrentHashMap<>();
+
+    // Bumped by every invalidation so a load that raced with one is not kept
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        invalidateCourse(event.getCourseId());
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        // Only entering or clearing a grade changes the pending count
+        if ((event.getPreviousGrade() == null) != (event.getGrade() == null)) {
+            invalidateCourse(event.getCourseId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCourseChanged(CourseChangedEvent event) {
+        courseProfessors.remove(event.getCourseId());
+        invalidate(event.getPreviousProfessorId());
+        invalidate(event.getProfessorId());
+    }
+
+    public ProfessorWorkloadResponse getWorkload(Professor professor) {
+        return toResponse(professor, loadWorkloads(List.of(professor.getId())).get(professor.getId()),
+                semesterService.getCurrentSemesterName());
+    }
+
+    /**
+     * Enrolled student count per course for one professor, from the same cached aggregate.
+     */
+    public Map<Long, Integer> getEnrolledCounts(Long professorId) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (CourseLoad load : loadWorkloads(List.of(professorId)).get(professorId)) {
+            counts.put(load.courseId, load.students);
+        }
+        return counts;
+    }
+
+    public DepartmentWorkloadResponse getDepartmentWorkload(Long departmentId) {
+        Department department = departmentRepository.findById(departmentId)
+                .orElseThrow(() -> new RuntimeException("Department not found with id: " + departmentId));
+        return buildDepartmentWorkload(department);
+    }
+
+    /**
+     * Workload of the department the professor chairs. Only the professor named as head of
+     * their department may see it.
+     */
+    public DepartmentWorkloadResponse getChairWorkload(Long userId) {
+        Professor professor = professorRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Professor not found"));
+        Department department = professor.getDepartment();
+        if (department == null || !isHeadOf(professor, department)) {
+            return null;
+        }
+        return buildDepartmentWorkload(department);
+    }
+
+    private DepartmentWorkloadResponse buildDepartmentWorkload(Department department) {
+        List<Professor> professors = professorRepository.findByDepartmentId(department.getId());
+        Map<Long, List<CourseLoad>> loads = loadWorkloads(professors.stream()
+                .map(Professor::getId)
+                .collect(Collectors.toList()));
+        String currentSemester = semesterService.getCurrentSemesterName();
+
+        List<ProfessorWorkloadResponse> rows = new ArrayList<>();
+        for (Professor professor : professors) {
+            rows.add(toResponse(professor, loads.get(professor.getId()), currentSemester));
+        }
+        rows.sort(Comparator.comparing(ProfessorWorkloadResponse::getTotalStudents).reversed()
+                .thenComparing(ProfessorWorkloadResponse::getName, String.CASE_INSENSITIVE_ORDER));
+
+        DepartmentWorkloadResponse response = new DepartmentWorkloadResponse();
+        response.setDepartmentId(department.getId());
+        response.setDepartment(department.getName());
+        response.setCurrentSemester(currentSemester);
+        response.setTotalProfessors(rows.size());
+        response.setTotalCourses(rows.stream().mapToInt(ProfessorWorkloadResponse::getTotalCourses).sum());
+        response.setCoursesThisSemester(rows.stream().mapToInt(ProfessorWorkloadResponse::getCoursesThisSemester).sum());
+        response.setTotalStudents(rows.stream().mapToInt(ProfessorWorkloadResponse::getTotalStudents).sum());
+        response.setPendingGrades(rows.stream().mapToInt(ProfessorWorkloadResponse::getPendingGrades).sum());
+        response.setAverageStudentsPerProfessor(rows.isEmpty() ? 0.0
+                : Math.round((double) response.getTotalStudents() / rows.size() * 100.0) / 100.0);
+        response.setProfessors(rows);
+        return response;
+    }
+
+    private Map<Long, List<CourseLoad>> loadWorkloads(Collection<Long> professorIds) {
+        Map<Long, List<CourseLoad>> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long professorId : professorIds) {
+            List<CourseLoad> cached = workloads.get(professorId);
+            if (cached != null) {
+                result.put(professorId, cached);
+            } else {
+                missing.add(professorId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long stamp = invalidations.get();
+        Map<Long, List<CourseLoad>> loaded = new HashMap<>();
+        missing.forEach(professorId -> loaded.put(professorId, new ArrayList<>()));
+        for (Object[] row : courseRepository.findWorkloadByProfessorIds(missing)) {
+            Long professorId = (Long) row[0];
+            Long courseId = (Long) row[1];
+            loaded.get(professorId).add(new CourseLoad(courseId, (String) row[2],
+                    ((Number) row[3]).intValue(), ((Number) row[4]).intValue()));
+            courseProfessors.put(courseId, professorId);
+        }
+
+        loaded.forEach((professorId, courses) -> {
+            List<CourseLoad> loads = List.copyOf(courses);
+            result.put(professorId, loads);
+            workloads.put(professorId, loads);
+            // An invalidation that arrived while the query ran may not be reflected in its rows
+            if (invalidations.get() != stamp) {
+                workloads.remove(professorId, loads);
+            }
+        });
+        return result;
+    }
+
+    private void invalidateCourse(Long courseId) {
+        Long professorId = courseId != null ? courseProfessors.get(courseId) : null;
+        invalidate(professorId);
+    }
+
+    // Counted even when the professor is unknown: a load in flight may be about to record the
+    // course, and must not keep counts read before this change
+    private void invalidate(Long professorId) {
+        invalidations.incrementAndGet();
+        if (professorId != null) {
+            workloads.remove(professorId);
+        }
+    }
+
+    private static boolean isHeadOf(Professor professor, Department department) {
+        String head = department.getHeadOfDepartment();
+        if (head == null || head.isBlank()) {
+            return false;
+        }
+        String trimmed = head.trim();
+        return trimmed.equalsIgnoreCase(professor.getName())
+                || trimmed.equalsIgnoreCase(professor.getEmail())
+                || trimmed.equalsIgnoreCase(professor.getEmployeeId());
+    }
+
+    private static ProfessorWorkloadResponse toResponse(Professor professor, List<CourseLoad> courses,
+                                                        String currentSemester) {
+        int students = 0;
+        int pending = 0;
+        int thisSemester = 0;
+        for (CourseLoad course : courses) {
+            students += course.students;
+            pending += course.pendingGrades;
+            if (currentSemester.equals(course.semester)) {
+                thisSemester++;
+            }
+        }
+        return new ProfessorWorkloadResponse(professor.getId(), professor.getEmployeeId(), professor.getName(),
+                courses.size(), thisSemester, students, pending);
+    }
+
+    private static final class CourseLoad {
+        private final Long courseId;
+        private final String semester;
+        private final int students;
+        private final int pendingGrades;
+
+        private CourseLoad(Long courseId, String semester, int students, int pendingGrades) {
+            this.courseId = courseId;
+            this.semester = semester;
+            this.students = students;
+            this.pendingGrades = pendingGrades;
+        }
+    }
+}
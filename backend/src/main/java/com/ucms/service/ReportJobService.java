@@ -0,0 +1,356 @@
+package com.ucms.service;
+
+import com.ucms.dto.ReportJobResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs large reports in the background. Each job is written gzip-compressed into the
+ * job directory by a small, bounded worker pool so report traffic can never hold more
+ * than {@code workerThreads} database connections at once.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isActive() {
+            return this == QUEUED || this == RUNNING;
+        }
+    }
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TranscriptBatchService transcriptBatchService;
+
+    @Value("${ucms.reports.jobs.directory:./report-jobs}")
+    private String jobDirectory;
+
+    @Value("${ucms.reports.jobs.worker-threads:2}")
+    private int workerThreads;
+
+    @Value("${ucms.reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${ucms.reports.jobs.max-active-per-admin:2}")
+    private int maxActivePerAdmin;
+
+    @Value("${ucms.reports.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    private Path directory;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(jobDirectory).toAbsolutePath();
+        Files.createDirectories(directory);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ReportJobResponse submit(String reportType, String format, String semester, String department,
+                                    String requestedBy) {
+        if (!reportService.isExportable(reportType)) {
+            throw new RuntimeException("Unsupported report type: " + reportType);
+        }
+        ReportService.ReportFormat reportFormat = ReportService.ReportFormat.fromString(format);
+
+        ReportJob job = new ReportJob();
+        job.reportType = reportType.toLowerCase();
+        job.format = reportFormat;
+        job.semester = semester;
+        job.department = department;
+        job.writer = out -> reportService.writeReport(job.reportType, reportFormat, semester, department, out);
+        return enqueue(job, requestedBy);
+    }
+
+    /**
+     * Queues the transcripts of every student matching the filters (e.g. a graduating class),
+     * written one per line as JSON or one course per line as CSV. The row count is the number
+     * of transcripts.
+     */
+    public ReportJobResponse submitTranscripts(String format, String year, String major, String requestedBy) {
+        ReportService.ReportFormat reportFormat = format == null || format.isBlank()
+                ? ReportService.ReportFormat.NDJSON : ReportService.ReportFormat.fromString(format);
+
+        ReportJob job = new ReportJob();
+        job.reportType = "transcripts";
+        job.format = reportFormat;
+        job.year = year;
+        job.major = major;
+        job.writer = out -> transcriptBatchService.writeTranscripts(reportFormat, year, major, out);
+        return enqueue(job, requestedBy);
+    }
+
+    /**
+     * Jobs are only visible to the admin who submitted them; anyone else's job is reported as
+     * not found, the same as an unknown id.
+     */
+    public Optional<ReportJobResponse> getJob(String jobId, String requestedBy) {
+        return findJob(jobId, requestedBy).map(this::toResponse);
+    }
+
+    public List<ReportJobResponse> getJobsFor(String requestedBy) {
+        return jobs.values().stream()
+                .filter(job -> requestedBy.equals(job.requestedBy))
+                .sorted(Comparator.comparing((ReportJob job) -> job.createdAt).reversed())
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<ReportJobResponse> cancel(String jobId, String requestedBy) {
+        Optional<ReportJob> found = findJob(jobId, requestedBy);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        ReportJob job = found.get();
+        synchronized (job) {
+            if (job.status.isActive()) {
+                job.status = JobStatus.CANCELLED;
+                job.completedAt = LocalDateTime.now();
+                if (job.future != null) {
+                    job.future.cancel(true);
+                }
+            }
+        }
+        return Optional.of(toResponse(job));
+    }
+
+    /**
+     * Returns the finished artifact for a job. Callers stream the file themselves so the
+     * transfer can be handed to the container's sendfile support.
+     */
+    public Optional<Path> getArtifact(String jobId, String requestedBy) {
+        return findJob(jobId, requestedBy).map(job -> {
+            if (job.status != JobStatus.COMPLETED || job.file == null || !Files.exists(job.file)) {
+                throw new RuntimeException("Report job " + jobId + " has no downloadable result (status: " + job.status + ")");
+            }
+            return job.file;
+        });
+    }
+
+    public Optional<String> getArtifactFilename(String jobId, String requestedBy) {
+        return findJob(jobId, requestedBy)
+                .map(job -> job.reportType + "-report-" + job.id + "." + job.format.getExtension() + ".gz");
+    }
+
+    @Scheduled(fixedDelayString = "${ucms.reports.jobs.cleanup-interval-ms:600000}")
+    public void cleanupExpiredJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+        LocalDateTime cutoffTime = LocalDateTime.now().minusHours(retentionHours);
+
+        List<String> expired = new ArrayList<>();
+        for (ReportJob job : jobs.values()) {
+            if (!job.status.isActive() && job.completedAt != null && job.completedAt.isBefore(cutoffTime)) {
+                expired.add(job.id);
+            }
+        }
+        for (String jobId : expired) {
+            ReportJob job = jobs.remove(jobId);
+            if (job != null && job.file != null) {
+                deleteQuietly(job.file);
+            }
+        }
+
+        // Files left behind by a previous run have no job entry, so sweep by age as well
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not sweep report job directory {}", directory, e);
+        }
+
+        if (!expired.isEmpty()) {
+            logger.info("Removed {} expired report jobs", expired.size());
+        }
+    }
+
+    private ReportJobResponse enqueue(ReportJob job, String requestedBy) {
+        job.id = UUID.randomUUID().toString();
+        job.requestedBy = requestedBy;
+        job.createdAt = LocalDateTime.now();
+
+        // Serialize the limit check with registration so two parallel submits can't both slip under it
+        synchronized (this) {
+            long active = jobs.values().stream()
+                    .filter(j -> requestedBy.equals(j.requestedBy) && j.status.isActive())
+                    .count();
+            if (active >= maxActivePerAdmin) {
+                throw new RuntimeException("You already have " + active + " report jobs running. " +
+                        "Wait for them to finish or cancel one first.");
+            }
+            jobs.put(job.id, job);
+            try {
+                job.future = executor.submit(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                throw new RuntimeException("Report queue is full. Please try again later.");
+            }
+        }
+        return toResponse(job);
+    }
+
+    private void run(ReportJob job) {
+        synchronized (job) {
+            if (job.status != JobStatus.QUEUED) {
+                return;
+            }
+            job.status = JobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+
+        Path target = directory.resolve(job.id + "." + job.format.getExtension() + ".gz");
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        try {
+            long rows;
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024), 64 * 1024)) {
+                rows = job.writer.write(out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (job) {
+                if (job.status == JobStatus.CANCELLED) {
+                    deleteQuietly(target);
+                    return;
+                }
+                job.file = target;
+                job.rowCount = rows;
+                job.fileSizeBytes = Files.size(target);
+                job.status = JobStatus.COMPLETED;
+                job.completedAt = LocalDateTime.now();
+            }
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            synchronized (job) {
+                if (job.status != JobStatus.CANCELLED) {
+                    logger.error("Report job {} failed", job.id, e);
+                    job.status = JobStatus.FAILED;
+                    job.errorMessage = e.getMessage();
+                    job.completedAt = LocalDateTime.now();
+                }
+            }
+        }
+    }
+
+    private Optional<ReportJob> findJob(String jobId, String requestedBy) {
+        ReportJob job = jobs.get(jobId);
+        return job != null && job.requestedBy.equals(requestedBy) ? Optional.of(job) : Optional.empty();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete report file {}", file, e);
+        }
+    }
+
+    private ReportJobResponse toResponse(ReportJob job) {
+        synchronized (job) {
+            ReportJobResponse response = new ReportJobResponse();
+            response.setJobId(job.id);
+            response.setReportType(job.reportType);
+            response.setFormat(job.format.name().toLowerCase());
+            response.setSemester(job.semester);
+            response.setDepartment(job.department);
+            response.setYear(job.year);
+            response.setMajor(job.major);
+            response.setRequestedBy(job.requestedBy);
+            response.setStatus(job.status.name());
+            response.setCreatedAt(job.createdAt);
+            response.setStartedAt(job.startedAt);
+            response.setCompletedAt(job.completedAt);
+            response.setRowCount(job.rowCount);
+            response.setFileSizeBytes(job.fileSizeBytes);
+            response.setErrorMessage(job.errorMessage);
+            if (job.status == JobStatus.COMPLETED) {
+                response.setDownloadUrl("/api/admin/reports/jobs/" + job.id + "/download");
+            }
+            return response;
+        }
+    }
+
+    // Writes a job's output and returns its row count
+    private interface ReportWriter {
+        long write(OutputStream out) throws IOException;
+    }
+
+    private static class ReportJob {
+        private String id;
+        private String reportType;
+        private ReportService.ReportFormat format;
+        private String semester;
+        private String department;
+        private String year;
+        private String major;
+        private ReportWriter writer;
+        private String requestedBy;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private LocalDateTime createdAt;
+        private LocalDateTime startedAt;
+        private LocalDateTime completedAt;
+        private Long rowCount;
+        private Long fileSizeBytes;
+        private String errorMessage;
+        private Path file;
+        private volatile Future<?> future;
+    }
+}
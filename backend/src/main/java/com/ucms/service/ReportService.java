@@ -0,0 +1,295 @@
+package com.ucms.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.ucms.entity.Grade;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams report rows straight from a forward-only JDBC cursor into CSV or NDJSON.
+ * Rows are never collected, so memory use does not depend on the size of the report.
+ */
+@Service
+public class ReportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    // Grades are stored as codes; reports show the letter
+    private static final String GRADE_COLUMN = gradeLetterSql("e.grade") + " AS grade";
+
+    private static final String ENROLLMENT_COLUMNS =
+            "e.id AS enrollment_id, s.student_id, s.name AS student_name, s.email AS student_email, " +
+            "c.code AS course_code, c.title AS course_title, sem.name AS semester, " +
+            "p.name AS professor_name, d.name AS department, e.enrollment_date, " + GRADE_COLUMN;
+
+    private static final String GRADES_COLUMNS =
+            "e.id AS enrollment_id, s.student_id, s.name AS student_name, " +
+            "c.code AS course_code, c.title AS course_title, sem.name AS semester, d.name AS department, " +
+            GRADE_COLUMN + ", e.midterm_grade, e.final_grade, e.comments";
+
+    private static final String ATTENDANCE_COLUMNS =
+            "e.id AS enrollment_id, s.student_id, s.name AS student_name, " +
+            "c.code AS course_code, c.title AS course_title, sem.name AS semester, d.name AS department, " +
+            "e.attendance, e.participation_score";
+
+    private static final String FROM_CLAUSE =
+            " FROM enrollments e" +
+            " JOIN students s ON s.id = e.student_id" +
+            " JOIN courses c ON c.id = e.course_id" +
+            " LEFT JOIN semesters sem ON sem.id = c.semester_id" +
+            " LEFT JOIN departments d ON d.id = c.department_id" +
+            " LEFT JOIN professors p ON p.id = c.professor_id";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${ucms.reports.fetch-size:1000}")
+    private int fetchSize;
+
+    public enum ReportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ReportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ReportFormat fromString(String format) {
+            if (format == null || format.isBlank()) {
+                return CSV;
+            }
+            switch (format.trim().toLowerCase()) {
+                case "csv": return CSV;
+                case "ndjson": case "jsonl": case "json": return NDJSON;
+                default: throw new RuntimeException("Unsupported report format: " + format);
+            }
+        }
+    }
+
+    public boolean isExportable(String reportType) {
+        return reportType != null && columnsFor(reportType) != null;
+    }
+
+    /**
+     * Writes the report to the given stream. The CSV header row is written from the statement's
+     * metadata and flushed before the query runs, so the client receives its first byte before
+     * the cursor has produced any rows.
+     *
+     * @return number of data rows written
+     */
+    public long writeReport(String reportType, ReportFormat format, String semester, String department,
+                            OutputStream out) throws IOException {
+        String columns = columnsFor(reportType);
+        if (columns == null) {
+            throw new RuntimeException("Unsupported report type: " + reportType);
+        }
+
+        List<String> params = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(FROM_CLAUSE);
+        String where = " WHERE ";
+        if (semester != null && !semester.isBlank()) {
+            sql.append(where).append("sem.name = ?");
+            params.add(semester.trim());
+            where = " AND ";
+        }
+        if (department != null && !department.isBlank()) {
+            sql.append(where).append("d.name = ?");
+            params.add(department.trim());
+        }
+        // Ordering by primary key lets the planner walk the index instead of sorting first
+        sql.append(" ORDER BY e.id");
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            // PostgreSQL only honours the fetch size inside a transaction; otherwise it buffers everything
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    statement.setString(i + 1, params.get(i));
+                }
+                return format == ReportFormat.NDJSON
+                        ? writeNdjson(statement, out)
+                        : writeCsv(statement, out);
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error generating " + reportType + " report: " + e.getMessage(), e);
+        }
+    }
+
+    private long writeCsv(PreparedStatement statement, OutputStream out) throws SQLException, IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        // Describes the statement without executing it, so the header goes out before the query runs
+        ResultSetMetaData metaData = statement.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        for (int i = 1; i <= columnCount; i++) {
+            if (i > 1) writer.write(',');
+            writeCsvValue(writer, metaData.getColumnLabel(i));
+        }
+        writer.write('\n');
+        writer.flush();
+
+        long rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                checkCancelled();
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) writer.write(',');
+                    String value = resultSet.getString(i);
+                    if (value != null) {
+                        writeCsvValue(writer, value);
+                    }
+                }
+                writer.write('\n');
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') writer.write('"');
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private long writeNdjson(PreparedStatement statement, OutputStream out) throws SQLException, IOException {
+        ResultSetMetaData metaData = statement.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] names = new String[columnCount + 1];
+        int[] types = new int[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            names[i] = metaData.getColumnLabel(i);
+            types[i] = metaData.getColumnType(i);
+        }
+
+        JsonGenerator generator = new JsonFactory().createGenerator(
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE));
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows are separated by the newline written after each one, not the default space
+        generator.setRootValueSeparator(null);
+        generator.flush();
+
+        long rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                checkCancelled();
+                generator.writeStartObject();
+                for (int i = 1; i <= columnCount; i++) {
+                    generator.writeFieldName(names[i]);
+                    writeJsonValue(generator, resultSet, i, types[i]);
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        generator.flush();
+        return rows;
+    }
+
+    private void writeJsonValue(JsonGenerator generator, ResultSet resultSet, int column, int type)
+            throws SQLException, IOException {
+        switch (type) {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+                long longValue = resultSet.getLong(column);
+                if (resultSet.wasNull()) generator.writeNull(); else generator.writeNumber(longValue);
+                break;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                double doubleValue = resultSet.getDouble(column);
+                if (resultSet.wasNull()) generator.writeNull(); else generator.writeNumber(doubleValue);
+                break;
+            case Types.TIMESTAMP:
+                Timestamp timestamp = resultSet.getTimestamp(column);
+                if (timestamp == null) generator.writeNull(); else generator.writeString(timestamp.toLocalDateTime().toString());
+                break;
+            default:
+                String value = resultSet.getString(column);
+                if (value == null) generator.writeNull(); else generator.writeString(value);
+        }
+    }
+
+    private void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Report generation cancelled");
+        }
+    }
+
+    private String columnsFor(String reportType) {
+        switch (reportType.toLowerCase()) {
+            case "enrollment": return ENROLLMENT_COLUMNS;
+            case "grades": return GRADES_COLUMNS;
+            case "attendance": return ATTENDANCE_COLUMNS;
+            default: return null;
+        }
+    }
+
+    private static String gradeLetterSql(String column) {
+        StringBuilder sql = new StringBuilder("CASE ").append(column);
+        for (Grade grade : Grade.values()) {
+            sql.append(" WHEN ").append(grade.getCode()).append(" THEN '").append(grade.getLetter()).append('\'');
+        }
+        return sql.append(" END").toString();
+    }
+}
@@ -0,0 +1,274 @@
+package com.ucms.service;
+
+import com.ucms.dto.CreateSemesterRequest;
+import com.ucms.dto.SemesterResponse;
+import com.ucms.entity.Semester;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.repository.SemesterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class SemesterService {
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    // The current semester only changes with the date or when semesters are added, so it is
+    // resolved at most once a day instead of on every dashboard load
+    private volatile CurrentSemester currentSemester;
+
+    @Transactional(readOnly = true)
+    public List<SemesterResponse> getAllSemesters() {
+        return semesterRepository.findAll(Sort.by(Sort.Order.desc("startDate"), Sort.Order.asc("name"))).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Semester> findById(Long id) {
+        return semesterRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Semester> findByName(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return semesterRepository.findByName(name.trim());
+    }
+
+    public SemesterResponse createSemester(CreateSemesterRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new RuntimeException("Semester name is required");
+        }
+        if (semesterRepository.existsByName(request.getName().trim())) {
+            throw new RuntimeException("Semester '" + request.getName() + "' already exists");
+        }
+
+        Semester semester = new Semester();
+        semester.setName(request.getName().trim());
+        semester.setCode(request.getCode() != null && !request.getCode().isBlank()
+                ? request.getCode() : generateSemesterCode(semester.getName()));
+        semester.setStartDate(request.getStartDate());
+        semester.setEndDate(request.getEndDate());
+        semester.setActive(request.getIsActive() != null ? request.getIsActive() : true);
+
+        Semester saved = semesterRepository.save(semester);
+        currentSemester = null;
+        dataVersionService.bump(DataVersionService.Domain.SEMESTERS);
+        return convertToResponse(saved);
+    }
+
+    /**
+     * Name of the semester whose dates cover today. Falls back to the calendar season when no
+     * semester has dates covering today, which is how the current semester was named before
+     * semesters had dates.
+     */
+    @Transactional(readOnly = true)
+    public String getCurrentSemesterName() {
+        LocalDate today = LocalDate.now();
+        CurrentSemester cached = currentSemester;
+        if (cached != null && cached.date.equals(today)) {
+            return cached.name;
+        }
+        String name = semesterRepository
+                .findFirstByStartDateLessThanEqualAndEndDateGreaterThanEqualOrderByStartDateDesc(today, today)
+                .map(Semester::getName)
+                .orElseGet(() -> seasonName(today));
+        currentSemester = new CurrentSemester(today, name);
+        return name;
+    }
+
+    /**
+     * Resolves a semester by name, creating it on first use so courses can still be
+     * created against a semester that hasn't been set up explicitly.
+     */
+    public Semester getOrCreate(String name) {
+        if (name == null || name.isBlank()) {
+            throw new RuntimeException("Semester is required");
+        }
+        String trimmed = name.trim();
+        return semesterRepository.findByName(trimmed).orElseGet(() -> {
+            Semester semester = new Semester();
+            semester.setName(trimmed);
+            semester.setCode(generateSemesterCode(trimmed));
+            semester.setActive(true);
+            dataVersionService.bump(DataVersionService.Domain.SEMESTERS);
+            return semesterRepository.save(semester);
+        });
+    }
+
+    public void courseAdded(Semester semester) {
+        if (semester != null) {
+            requireUpdated(semesterRepository.adjustTotalCourses(semester.getId(), 1), semester.getName());
+        }
+    }
+
+    public void courseRemoved(Semester semester) {
+        if (semester != null) {
+            requireUpdated(semesterRepository.adjustTotalCourses(semester.getId(), -1), semester.getName());
+        }
+    }
+
+    public void courseMoved(Semester from, Semester to, int enrollments) {
+        if (from != null) {
+            requireUpdated(semesterRepository.adjustTotalCourses(from.getId(), -1), from.getName());
+            semesterRepository.adjustTotalEnrollments(from.getId(), -enrollments);
+        }
+        if (to != null) {
+            requireUpdated(semesterRepository.adjustTotalCourses(to.getId(), 1), to.getName());
+            semesterRepository.adjustTotalEnrollments(to.getId(), enrollments);
+        }
+    }
+
+    // Runs inside the enrolling transaction so the counter commits or rolls back with the enrollment
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getSemesterId() != null) {
+            requireUpdated(semesterRepository.adjustTotalEnrollments(event.getSemesterId(), event.isEnrolled() ? 1 : -1),
+                    event.getSemester());
+        }
+    }
+
+    // Throwing here rolls back the grade change with the transaction that published it
+    @EventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        if (event.getSemester() != null && semesterRepository.isClosedForShare(event.getSemester()).orElse(false)) {
+            throw closedSemester(event.getSemester());
+        }
+    }
+
+    /**
+     * Rejects changes to a course of a closed semester.
+     */
+    public void requireOpen(Semester semester) {
+        if (semester != null && semester.getClosedAt() != null) {
+            throw closedSemester(semester.getName());
+        }
+    }
+
+    /**
+     * Marks a semester closed. From then on its counters refuse updates, so enrollments, drops,
+     * course moves and grade changes in it are rejected. Closing an already closed semester
+     * changes nothing, which lets a failed snapshot be rebuilt.
+     *
+     * @param force close even if some enrollments have no grade yet
+     */
+    public Semester closeSemester(Long semesterId, boolean force) {
+        Semester semester = semesterRepository.findById(semesterId)
+                .orElseThrow(() -> new RuntimeException("Semester not found with id: " + semesterId));
+        if (semester.getClosedAt() != null) {
+            return semester;
+        }
+        // Closing first takes the row lock, so no enrollment can slip in after the check below
+        LocalDateTime closedAt = LocalDateTime.now();
+        if (semesterRepository.close(semesterId, closedAt) == 0) {
+            return semesterRepository.findById(semesterId).orElseThrow();
+        }
+        long pendingGrades = enrollmentRepository.countByCourseSemesterIdAndGradeIsNull(semesterId);
+        if (pendingGrades > 0 && !force) {
+            throw new RuntimeException("Semester '" + semester.getName() + "' still has " + pendingGrades
+                    + " enrollments without a grade");
+        }
+        semester.setClosedAt(closedAt);
+        dataVersionService.bump(DataVersionService.Domain.SEMESTERS);
+        return semester;
+    }
+
+    public void recalculateTotals() {
+        semesterRepository.recalculateTotals();
+    }
+
+    private SemesterResponse convertToResponse(Semester semester) {
+        SemesterResponse response = new SemesterResponse();
+        response.setId(semester.getId());
+        response.setName(semester.getName());
+        response.setCode(semester.getCode());
+        response.setStartDate(semester.getStartDate());
+        response.setEndDate(semester.getEndDate());
+        response.setStatus(determineStatus(semester));
+        response.setTotalCourses(semester.getTotalCourses());
+        response.setTotalEnrollments(semester.getTotalEnrollments());
+        response.setIsActive(semester.getActive());
+        response.setClosedAt(semester.getClosedAt());
+        return response;
+    }
+
+    private String determineStatus(Semester semester) {
+        if (semester.getClosedAt() != null) {
+            return "Closed";
+        }
+        if (semester.getStartDate() == null || semester.getEndDate() == null) {
+            return "Planning";
+        }
+        LocalDate today = LocalDate.now();
+        if (today.isBefore(semester.getStartDate())) {
+            return "Future";
+        }
+        if (today.isAfter(semester.getEndDate())) {
+            return "Past";
+        }
+        return "Current";
+    }
+
+    private static void requireUpdated(int updatedRows, String semesterName) {
+        if (updatedRows == 0) {
+            throw closedSemester(semesterName);
+        }
+    }
+
+    private static RuntimeException closedSemester(String semesterName) {
+        return new RuntimeException("Semester '" + semesterName + "' is closed and can no longer be changed");
+    }
+
+    private static String seasonName(LocalDate date) {
+        int month = date.getMonthValue();
+        if (month <= 5) {
+            return "Spring " + date.getYear();
+        } else if (month <= 8) {
+            return "Summer " + date.getYear();
+        }
+        return "Fall " + date.getYear();
+    }
+
+    private String generateSemesterCode(String semesterName) {
+        // Simple code generation - you'd want more sophisticated logic
+        if (semesterName.toLowerCase().contains("fall")) {
+            return "F" + semesterName.substring(semesterName.length() - 2);
+        } else if (semesterName.toLowerCase().contains("spring")) {
+            return "S" + semesterName.substring(semesterName.length() - 2);
+        } else if (semesterName.toLowerCase().contains("summer")) {
+            return "U" + semesterName.substring(semesterName.length() - 2);
+        }
+        return semesterName.substring(0, Math.min(3, semesterName.length())).toUpperCase();
+    }
+
+    private static final class CurrentSemester {
+        private final LocalDate date;
+        private final String name;
+
+        private CurrentSemester(LocalDate date, String name) {
+            this.date = date;
+            this.name = name;
+        }
+    }
+}
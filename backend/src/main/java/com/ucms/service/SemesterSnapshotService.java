@@ -0,0 +1,111 @@
+package com.ucms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucms.dto.SemesterSnapshotResponse;
+import com.ucms.entity.Semester;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the analytics of closed semesters. Each snapshot is written once, as a compressed
+ * JSON file, when its semester closes and is never rewritten, so dashboards for past
+ * semesters are a file read instead of a scan over their enrollments. Recently read
+ * snapshots are kept in memory.
+ */
+@Service
+public class SemesterSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SemesterSnapshotService.class);
+
+    private static final int CACHED_SNAPSHOTS = 16;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ucms.analytics.semester-snapshot-directory:./analytics/semester-snapshots}")
+    private String directory;
+
+    private final Map<Long, SemesterSnapshotResponse> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, SemesterSnapshotResponse> eldest) {
+            return size() > CACHED_SNAPSHOTS;
+        }
+    };
+
+    /**
+     * The frozen analytics of a closed semester, or empty while it is open or before its
+     * snapshot has been written.
+     */
+    public Optional<SemesterSnapshotResponse> find(Semester semester) {
+        if (semester == null || semester.getClosedAt() == null) {
+            return Optional.empty();
+        }
+        synchronized (cache) {
+            SemesterSnapshotResponse cached = cache.get(semester.getId());
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+        Path source = resolve(semester.getId());
+        if (!Files.exists(source)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            SemesterSnapshotResponse snapshot = objectMapper.readValue(in, SemesterSnapshotResponse.class);
+            synchronized (cache) {
+                cache.put(semester.getId(), snapshot);
+            }
+            return Optional.of(snapshot);
+        } catch (IOException e) {
+            logger.warn("Could not read semester snapshot {}", source, e);
+            return Optional.empty();
+        }
+    }
+
+    public boolean exists(Long semesterId) {
+        return Files.exists(resolve(semesterId));
+    }
+
+    public void write(SemesterSnapshotResponse snapshot) {
+        Path target = resolve(snapshot.getSemesterId());
+        if (Files.exists(target)) {
+            throw new RuntimeException("Semester '" + snapshot.getSemester() + "' already has a snapshot");
+        }
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        try {
+            Files.createDirectories(target.getParent());
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            target.toFile().setReadOnly();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write the snapshot of semester '" + snapshot.getSemester() + "'", e);
+        }
+        synchronized (cache) {
+            cache.put(snapshot.getSemesterId(), snapshot);
+        }
+    }
+
+    private Path resolve(Long semesterId) {
+        return Paths.get(directory).toAbsolutePath().resolve("semester-" + semesterId + ".json.gz");
+    }
+}
@@ -0,0 +1,87 @@
+package com.ucms.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only aggregate queries concurrently so a dashboard costs roughly its
+ * slowest query instead of the sum of all of them. Each worker borrows at most one pooled
+ * connection at a time, so the worker count is the connection budget for statistics traffic
+ * and admin dashboards can never take more than that away from enrollment requests.
+ *
+ * Queries run in separate transactions, so results joined together may come from slightly
+ * different snapshots. That is fine for counters shown on a dashboard.
+ */
+@Service
+public class StatsQueryExecutor {
+
+    @Value("${ucms.stats.query-threads:4}")
+    private int queryThreads;
+
+    @Value("${ucms.stats.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${ucms.stats.query-timeout-ms:10000}")
+    private long queryTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(queryThreads, queryThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stats-query-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Statistics are busy. Please try again shortly.");
+        }
+    }
+
+    /**
+     * Waits for every query to finish, failing as soon as one of them fails or the shared
+     * timeout runs out.
+     */
+    public void awaitAll(CompletableFuture<?>... queries) {
+        try {
+            CompletableFuture.allOf(queries).get(queryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Statistics query failed: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Statistics queries timed out after " + queryTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for statistics queries");
+        }
+    }
+}
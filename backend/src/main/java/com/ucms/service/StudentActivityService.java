@@ -0,0 +1,270 @@
+package com.ucms.service;
+
+import com.ucms.dto.StudentActivityResponse;
+import com.ucms.dto.StudentSummaryResponse;
+import com.ucms.entity.Semester;
+import com.ucms.entity.Student;
+import com.ucms.event.CourseMovedEvent;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.repository.EnrollmentRepository;
+import com.ucms.repository.SemesterRepository;
+import com.ucms.repository.StudentRepository;
+import com.ucms.util.StudentBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps one compressed bitmap of active student ids per semester, where active means enrolled
+ * in at least one of the semester's courses. Active and inactive counts and lists are then
+ * bitmap operations instead of scans over enrollments. The bitmaps are built in the background
+ * at startup; until then counts fall back to anti-join queries.
+ */
+@Service
+public class StudentActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudentActivityService.class);
+
+    private static final String ACTIVE_PAIRS_SQL =
+            "SELECT DISTINCT c.semester_id, e.student_id FROM enrollments e " +
+            "JOIN courses c ON c.id = e.course_id WHERE c.semester_id IS NOT NULL";
+
+    private static final String SEMESTER_STUDENTS_SQL =
+            "SELECT DISTINCT e.student_id FROM enrollments e " +
+            "JOIN courses c ON c.id = e.course_id WHERE c.semester_id = ?";
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private SemesterRepository semesterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Map<Long, StudentBitmap> semesterBitmaps;
+    private final List<long[]> pendingChanges = new ArrayList<>(); // (semester, student) seen while building
+    private CompletableFuture<Void> build;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        startBuild();
+    }
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        if (event.getSemesterId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (semesterBitmaps == null) {
+                pendingChanges.add(new long[] {event.getSemesterId(), event.getStudentId()});
+                return;
+            }
+        }
+        recheck(event.getSemesterId(), event.getStudentId());
+    }
+
+    @TransactionalEventListener
+    public void onCourseMoved(CourseMovedEvent event) {
+        if (semesterBitmaps == null || !event.isSemesterChanged()) {
+            return;
+        }
+        reloadSemester(event.getPreviousSemester());
+        reloadSemester(event.getSemester());
+    }
+
+    /**
+     * Number of students with no enrollment in any semester, for the enrollment statistics.
+     */
+    public long countStudentsWithoutEnrollments(long totalStudents) {
+        Map<Long, StudentBitmap> bitmaps = semesterBitmaps;
+        if (bitmaps == null) {
+            return studentRepository.countWithoutEnrollments();
+        }
+        return Math.max(0, totalStudents - union(bitmaps).cardinality());
+    }
+
+    public StudentActivityResponse getActivity(String semester) {
+        Optional<Semester> semesterEntity = resolveSemester(semester);
+        long totalStudents = studentRepository.count();
+        long inactive;
+        Map<Long, StudentBitmap> bitmaps = semesterBitmaps;
+        if (bitmaps == null) {
+            inactive = semesterEntity
+                    .map(s -> studentRepository.countWithoutEnrollmentsInSemester(s.getId()))
+                    .orElseGet(studentRepository::countWithoutEnrollments);
+        } else {
+            long active = semesterEntity.isPresent()
+                    ? copyOf(bitmaps.get(semesterEntity.get().getId())).cardinality()
+                    : union(bitmaps).cardinality();
+            inactive = Math.max(0, totalStudents - active);
+        }
+        return new StudentActivityResponse(semesterEntity.map(Semester::getName).orElse(null),
+                totalStudents, totalStudents - inactive, inactive);
+    }
+
+    /**
+     * One page of active or inactive students, in id order. Inactive students are every
+     * student id minus the active bitmap, so only the ids of the requested page are loaded.
+     */
+    public Page<StudentSummaryResponse> getStudents(String semester, boolean active, int page, int size) {
+        Optional<Semester> semesterEntity = resolveSemester(semester);
+        Map<Long, StudentBitmap> bitmaps = awaitBitmaps();
+        StudentBitmap activeIds = semesterEntity.isPresent()
+                ? copyOf(bitmaps.get(semesterEntity.get().getId()))
+                : union(bitmaps);
+        StudentBitmap selected = active ? activeIds : allStudentIds().andNot(activeIds);
+
+        List<Long> ids = new ArrayList<>(size);
+        selected.forEach((long) page * size, size, ids::add);
+        List<StudentSummaryResponse> students = ids.isEmpty() ? List.of() : studentRepository.findByIdIn(ids).stream()
+                .sorted(Comparator.comparing(Student::getId))
+                .map(this::convertToSummary)
+                .collect(Collectors.toList());
+        return new PageImpl<>(students, PageRequest.of(page, size), selected.cardinality());
+    }
+
+    private synchronized CompletableFuture<Void> startBuild() {
+        if (build != null) {
+            return build;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        build = future;
+        Thread thread = new Thread(() -> {
+            try {
+                buildBitmaps();
+                future.complete(null);
+            } catch (RuntimeException e) {
+                logger.warn("Could not build student activity bitmaps", e);
+                synchronized (this) {
+                    build = null;
+                }
+                future.completeExceptionally(e);
+            }
+        }, "student-activity-build");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    private Map<Long, StudentBitmap> awaitBitmaps() {
+        Map<Long, StudentBitmap> bitmaps = semesterBitmaps;
+        if (bitmaps != null) {
+            return bitmaps;
+        }
+        try {
+            startBuild().join();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Student activity is not available yet. Please try again shortly.");
+        }
+        return semesterBitmaps;
+    }
+
+    private void buildBitmaps() {
+        long started = System.currentTimeMillis();
+        Map<Long, StudentBitmap> built = new HashMap<>();
+        // Rows are streamed straight into the bitmaps, never collected into a list
+        jdbcTemplate.query(ACTIVE_PAIRS_SQL, rs -> {
+            built.computeIfAbsent(rs.getLong(1), id -> new StudentBitmap()).add(rs.getLong(2));
+        });
+
+        List<long[]> changes;
+        synchronized (this) {
+            semesterBitmaps = new ConcurrentHashMap<>(built);
+            changes = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+        }
+        // Enrollments committed while the query ran may or may not be in its result
+        changes.forEach(change -> recheck(change[0], change[1]));
+        logger.info("Built student activity bitmaps for {} semesters in {} ms",
+                built.size(), System.currentTimeMillis() - started);
+    }
+
+    // Looks the student up again instead of trusting the event, so out-of-order listeners converge
+    private void recheck(long semesterId, long studentId) {
+        boolean active = enrollmentRepository.existsByStudentIdAndCourseSemesterId(studentId, semesterId);
+        StudentBitmap bitmap = semesterBitmaps.computeIfAbsent(semesterId, id -> new StudentBitmap());
+        synchronized (bitmap) {
+            if (active) {
+                bitmap.add(studentId);
+            } else {
+                bitmap.remove(studentId);
+            }
+        }
+    }
+
+    private void reloadSemester(String semesterName) {
+        if (semesterName == null) {
+            return;
+        }
+        semesterRepository.findByName(semesterName).ifPresent(semester -> {
+            StudentBitmap bitmap = new StudentBitmap();
+            jdbcTemplate.query(SEMESTER_STUDENTS_SQL, rs -> {
+                bitmap.add(rs.getLong(1));
+            }, semester.getId());
+            semesterBitmaps.put(semester.getId(), bitmap);
+        });
+    }
+
+    private StudentBitmap allStudentIds() {
+        StudentBitmap ids = new StudentBitmap();
+        jdbcTemplate.query("SELECT id FROM students", rs -> {
+            ids.add(rs.getLong(1));
+        });
+        return ids;
+    }
+
+    private static StudentBitmap union(Map<Long, StudentBitmap> bitmaps) {
+        StudentBitmap union = new StudentBitmap();
+        for (StudentBitmap bitmap : bitmaps.values()) {
+            synchronized (bitmap) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private static StudentBitmap copyOf(StudentBitmap bitmap) {
+        if (bitmap == null) {
+            return new StudentBitmap();
+        }
+        synchronized (bitmap) {
+            return bitmap.copy();
+        }
+    }
+
+    private Optional<Semester> resolveSemester(String semester) {
+        if (semester == null || semester.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(semesterRepository.findByName(semester.trim())
+                .orElseThrow(() -> new RuntimeException("Semester not found: " + semester)));
+    }
+
+    private StudentSummaryResponse convertToSummary(Student student) {
+        return new StudentSummaryResponse(student.getId(), student.getStudentId(), student.getName(),
+                student.getEmail(), student.getMajor(), student.getYear());
+    }
+}
@@ -0,0 +1,368 @@
+package com.ucms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucms.dto.StudentTranscriptResponse;
+import com.ucms.entity.Grade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Writes transcripts for many students at once, e.g. a graduating class at term end. Students
+ * are read in id order in chunks, together with the enrollments of the same id range sorted by
+ * student, and the two sorted lists are merge-joined, so a chunk of any size costs two queries.
+ * Reading stays on one connection in one snapshot while a fork/join pool turns finished chunks
+ * into output; at most a few chunks are in memory at any time, however many students there are.
+ */
+@Service
+public class TranscriptBatchService {
+
+    private static final String CSV_HEADER = "student_id,student_number,student_name,email,major,gpa," +
+            "total_credits,completed_credits,class_rank,class_size,gpa_percentile," +
+            "course_code,course_title,semester,grade,credits,professor_name\n";
+
+    private static final String ENROLLMENT_ROWS =
+            "SELECT e.student_id, c.code, c.title, sem.name, e.grade, p.name FROM enrollments e" +
+            " JOIN students s ON s.id = e.student_id" +
+            " JOIN courses c ON c.id = e.course_id" +
+            " LEFT JOIN semesters sem ON sem.id = c.semester_id" +
+            " LEFT JOIN professors p ON p.id = c.professor_id" +
+            " WHERE s.id BETWEEN ? AND ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ClassRankService classRankService;
+
+    @Value("${ucms.transcripts.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${ucms.transcripts.batch.parallelism:0}")
+    private int parallelism;
+
+    @Value("${ucms.reports.fetch-size:1000}")
+    private int fetchSize;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("transcript-builder-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Writes the transcripts of every student matching the filters, in student id order: one JSON
+     * transcript per line, or for CSV one line per course with the student's columns repeated.
+     *
+     * @param year  only students in this year (e.g. "Senior"), or all if null
+     * @param major only students with this major, or all if null
+     * @return number of transcripts written
+     */
+    public long writeTranscripts(ReportService.ReportFormat format, String year, String major, OutputStream out)
+            throws IOException {
+        List<String> filters = new ArrayList<>();
+        StringBuilder filterSql = new StringBuilder();
+        if (year != null && !year.isBlank()) {
+            filterSql.append(" AND s.year = ?");
+            filters.add(year.trim());
+        }
+        if (major != null && !major.isBlank()) {
+            filterSql.append(" AND s.major = ?");
+            filters.add(major.trim());
+        }
+        String studentSql = "SELECT s.id, s.student_id, s.name, s.email, s.major FROM students s WHERE s.id > ?"
+                + filterSql + " ORDER BY s.id LIMIT ?";
+        String enrollmentSql = ENROLLMENT_ROWS + filterSql + " ORDER BY e.student_id, e.id";
+
+        if (format == ReportService.ReportFormat.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        out.flush();
+
+        // Enough chunks in flight to keep every builder busy while the next chunk is read
+        int maxInFlight = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+        long written = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            int isolation = connection.getTransactionIsolation();
+            // One repeatable-read transaction, so every chunk sees the same snapshot
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            try (PreparedStatement students = connection.prepareStatement(studentSql);
+                 PreparedStatement enrollments = connection.prepareStatement(enrollmentSql)) {
+                enrollments.setFetchSize(fetchSize);
+                long lastId = 0;
+                while (true) {
+                    checkCancelled();
+                    Chunk chunk = readChunk(students, enrollments, filters, lastId);
+                    if (chunk.size == 0) {
+                        break;
+                    }
+                    lastId = chunk.ids[chunk.size - 1];
+                    written += chunk.size;
+
+                    if (inFlight.size() >= maxInFlight) {
+                        out.write(join(inFlight.removeFirst()));
+                    }
+                    inFlight.addLast(pool.submit(() -> render(chunk, format)));
+                    if (chunk.size < chunkSize) {
+                        break;
+                    }
+                }
+                while (!inFlight.isEmpty()) {
+                    out.write(join(inFlight.removeFirst()));
+                }
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setTransactionIsolation(isolation);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error generating transcripts: " + e.getMessage(), e);
+        } finally {
+            inFlight.forEach(task -> task.cancel(true));
+        }
+        out.flush();
+        return written;
+    }
+
+    private Chunk readChunk(PreparedStatement students, PreparedStatement enrollments, List<String> filters,
+                            long afterId) throws SQLException {
+        Chunk chunk = new Chunk(chunkSize);
+        students.setLong(1, afterId);
+        for (int i = 0; i < filters.size(); i++) {
+            students.setString(i + 2, filters.get(i));
+        }
+        students.setInt(filters.size() + 2, chunkSize);
+        try (ResultSet rs = students.executeQuery()) {
+            while (rs.next()) {
+                int i = chunk.size++;
+                chunk.ids[i] = rs.getLong(1);
+                chunk.studentNumbers[i] = rs.getString(2);
+                chunk.names[i] = rs.getString(3);
+                chunk.emails[i] = rs.getString(4);
+                chunk.majors[i] = rs.getString(5);
+            }
+        }
+        if (chunk.size == 0) {
+            return chunk;
+        }
+
+        enrollments.setLong(1, chunk.ids[0]);
+        enrollments.setLong(2, chunk.ids[chunk.size - 1]);
+        for (int i = 0; i < filters.size(); i++) {
+            enrollments.setString(i + 3, filters.get(i));
+        }
+        try (ResultSet rs = enrollments.executeQuery()) {
+            while (rs.next()) {
+                checkCancelled();
+                short code = rs.getShort(5);
+                Grade grade = rs.wasNull() ? null : Grade.fromCode(code);
+                chunk.rows.add(new EnrollmentRow(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        grade, rs.getString(6)));
+            }
+        }
+        return chunk;
+    }
+
+    // Merge-joins the chunk's students with its enrollment rows; both are sorted by student id
+    private byte[] render(Chunk chunk, ReportService.ReportFormat format) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunk.size * 512);
+        int row = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            long studentId = chunk.ids[i];
+            while (row < chunk.rows.size() && chunk.rows.get(row).studentId < studentId) {
+                row++;
+            }
+            int first = row;
+            while (row < chunk.rows.size() && chunk.rows.get(row).studentId == studentId) {
+                row++;
+            }
+            StudentTranscriptResponse transcript = buildTranscript(chunk, i, chunk.rows.subList(first, row));
+            if (format == ReportService.ReportFormat.CSV) {
+                writeCsv(buffer, chunk.studentNumbers[i], transcript);
+            } else {
+                objectMapper.writeValue(buffer, transcript);
+                buffer.write('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private StudentTranscriptResponse buildTranscript(Chunk chunk, int index, List<EnrollmentRow> rows) {
+        long gradePointTenths = 0;
+        int gradedCredits = 0;
+        List<StudentTranscriptResponse.TranscriptEntry> entries = new ArrayList<>(rows.size());
+        for (EnrollmentRow row : rows) {
+            StudentTranscriptResponse.TranscriptEntry entry = new StudentTranscriptResponse.TranscriptEntry();
+            entry.setCourseCode(row.courseCode);
+            entry.setCourseTitle(row.courseTitle);
+            entry.setSemester(row.semester);
+            entry.setGrade(row.grade != null ? row.grade.getLetter() : "In Progress");
+            entry.setCredits(GpaLedgerService.CREDITS_PER_COURSE);
+            entry.setProfessorName(row.professorName != null ? row.professorName : "TBA");
+            entries.add(entry);
+            if (row.grade != null) {
+                gradePointTenths += (long) row.grade.getPointTenths() * GpaLedgerService.CREDITS_PER_COURSE;
+                gradedCredits += GpaLedgerService.CREDITS_PER_COURSE;
+            }
+        }
+        // Same arithmetic as the GPA ledger, so batch and single transcripts agree
+        GpaLedgerService.Summary summary = new GpaLedgerService.Summary(gradePointTenths, gradedCredits,
+                rows.size() * GpaLedgerService.CREDITS_PER_COURSE);
+
+        StudentTranscriptResponse transcript = new StudentTranscriptResponse();
+        transcript.setStudentId(chunk.ids[index]);
+        transcript.setStudentName(chunk.names[index]);
+        transcript.setEmail(chunk.emails[index]);
+        transcript.setMajor(chunk.majors[index] != null ? chunk.majors[index] : "Undeclared");
+        transcript.setGpa(summary.getGpaOrZero());
+        transcript.setTotalCredits(summary.getTotalCredits());
+        transcript.setCompletedCredits(summary.getCompletedCredits());
+        transcript.setCourses(entries);
+        classRankService.applyTo(transcript);
+        return transcript;
+    }
+
+    private void writeCsv(ByteArrayOutputStream buffer, String studentNumber, StudentTranscriptResponse transcript) {
+        StringBuilder student = new StringBuilder();
+        student.append(transcript.getStudentId()).append(',');
+        appendCsv(student, studentNumber).append(',');
+        appendCsv(student, transcript.getStudentName()).append(',');
+        appendCsv(student, transcript.getEmail()).append(',');
+        appendCsv(student, transcript.getMajor()).append(',');
+        student.append(transcript.getGpa()).append(',')
+                .append(transcript.getTotalCredits()).append(',')
+                .append(transcript.getCompletedCredits()).append(',')
+                .append(orEmpty(transcript.getClassRank())).append(',')
+                .append(orEmpty(transcript.getClassSize())).append(',')
+                .append(orEmpty(transcript.getGpaPercentile()));
+
+        StringBuilder lines = new StringBuilder();
+        if (transcript.getCourses().isEmpty()) {
+            lines.append(student).append(",,,,,,\n");
+        }
+        for (StudentTranscriptResponse.TranscriptEntry entry : transcript.getCourses()) {
+            lines.append(student).append(',');
+            appendCsv(lines, entry.getCourseCode()).append(',');
+            appendCsv(lines, entry.getCourseTitle()).append(',');
+            appendCsv(lines, entry.getSemester()).append(',');
+            appendCsv(lines, entry.getGrade()).append(',');
+            lines.append(entry.getCredits()).append(',');
+            appendCsv(lines, entry.getProfessorName()).append('\n');
+        }
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return line.append(value);
+        }
+        return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static Object orEmpty(Object value) {
+        return value != null ? value : "";
+    }
+
+    private static byte[] join(ForkJoinTask<byte[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Report generation cancelled");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException("Error generating transcripts: " + cause.getMessage(), cause);
+        }
+    }
+
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Report generation cancelled");
+        }
+    }
+
+    // Students of one chunk as parallel arrays, plus their enrollment rows in student id order
+    private static final class Chunk {
+        private final long[] ids;
+        private final String[] studentNumbers;
+        private final String[] names;
+        private final String[] emails;
+        private final String[] majors;
+        private final List<EnrollmentRow> rows = new ArrayList<>();
+        private int size;
+
+        private Chunk(int capacity) {
+            ids = new long[capacity];
+            studentNumbers = new String[capacity];
+            names = new String[capacity];
+            emails = new String[capacity];
+            majors = new String[capacity];
+        }
+    }
+
+    private static final class EnrollmentRow {
+        private final long studentId;
+        private final String courseCode;
+        private final String courseTitle;
+        private final String semester;
+        private final Grade grade;
+        private final String professorName;
+
+        private EnrollmentRow(long studentId, String courseCode, String courseTitle, String semester, Grade grade,
+                              String professorName) {
+            this.studentId = studentId;
+            this.courseCode = courseCode;
+            this.courseTitle = courseTitle;
+            this.semester = semester;
+            this.grade = grade;
+            this.professorName = professorName;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.ucms.service;
+
+import com.ucms.dto.StudentTranscriptResponse;
+import com.ucms.dto.TranscriptCacheStatsResponse;
+import com.ucms.event.EnrollmentChangedEvent;
+import com.ucms.event.GradeChangedEvent;
+import com.ucms.service.DataVersionService.Domain;
+import com.ucms.util.VersionedLruCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Caches transcripts per student so repeated views (grade release day) don't reload the
+ * student's enrollments. Entries are immutable snapshots tagged with a per-student version
+ * that is bumped after every committed enrollment, drop or grade change of that student, so
+ * a transcript is only served while nothing it shows has changed. Changes to courses or
+ * users (titles, professor names, student names) drop every entry.
+ */
+@Service
+public class TranscriptCacheService {
+
+    // Students share version counters by id; a collision only costs an extra reload
+    private static final int STRIPES = 1024;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Value("${ucms.transcripts.cache-max-entries:5000}")
+    private int maxEntries;
+
+    private VersionedLruCache<Long, TranscriptSnapshot> cache;
+    private final AtomicLongArray studentVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = new VersionedLruCache<>(maxEntries);
+        dataVersionService.addListener(domain -> {
+            if (domain == Domain.COURSES || domain == Domain.USERS || domain == Domain.SEMESTERS) {
+                generation.incrementAndGet();
+                cache.invalidate(-1);
+            }
+        });
+    }
+
+    @TransactionalEventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        invalidate(event.getStudentId());
+    }
+
+    @TransactionalEventListener
+    public void onGradeChanged(GradeChangedEvent event) {
+        invalidate(event.getStudentId());
+    }
+
+    /**
+     * The student's transcript, from the cache or from {@code loader}. Every call returns a
+     * new response object, so callers may modify it.
+     */
+    public StudentTranscriptResponse get(Long studentId, Supplier<StudentTranscriptResponse> loader) {
+        // Versions are read before loading: a change committed during the load leaves the entry stale
+        long[] versions = versionsOf(studentId);
+        TranscriptSnapshot cached = cache.get(studentId, versions);
+        if (cached != null) {
+            return cached.toResponse();
+        }
+        StudentTranscriptResponse transcript = loader.get();
+        cache.put(studentId, TranscriptSnapshot.of(transcript), versions, 1);
+        return transcript;
+    }
+
+    public void invalidate(Long studentId) {
+        if (studentId != null) {
+            studentVersions.incrementAndGet(stripeOf(studentId));
+        }
+    }
+
+    public TranscriptCacheStatsResponse getStats() {
+        VersionedLruCache.Stats stats = cache.stats();
+        long lookups = stats.hits + stats.misses;
+        double hitRate = lookups > 0 ? Math.round(stats.hits * 1000.0 / lookups) / 10.0 : 0.0;
+        return new TranscriptCacheStatsResponse(stats.size, stats.maxEntries, stats.hits, stats.misses,
+                hitRate, stats.evictions, stats.invalidations);
+    }
+
+    private long[] versionsOf(Long studentId) {
+        return new long[] {studentVersions.get(stripeOf(studentId)), generation.get()};
+    }
+
+    private static int stripeOf(Long studentId) {
+        return (int) Math.floorMod(studentId, (long) STRIPES);
+    }
+
+    /**
+     * A transcript as flat arrays of its course rows, which is smaller than a list of entry
+     * objects and can't be changed by the callers it is handed to.
+     */
+    private static final class TranscriptSnapshot {
+        private final Long studentId;
+        private final String studentName;
+        private final String email;
+        private final String major;
+        private final Double gpa;
+        private final Integer totalCredits;
+        private final Integer completedCredits;
+        private final String[] courseCodes;
+        private final String[] courseTitles;
+        private final String[] semesters;
+        private final String[] grades;
+        private final int[] credits;
+        private final String[] professorNames;
+
+        private TranscriptSnapshot(StudentTranscriptResponse transcript, int courses) {
+            this.studentId = transcript.getStudentId();
+            this.studentName = transcript.getStudentName();
+            this.email = transcript.getEmail();
+            this.major = transcript.getMajor();
+            this.gpa = transcript.getGpa();
+            this.totalCredits = transcript.getTotalCredits();
+            this.completedCredits = transcript.getCompletedCredits();
+            this.courseCodes = new String[courses];
+            this.courseTitles = new String[courses];
+            this.semesters = new String[courses];
+            this.grades = new String[courses];
+            this.credits = new int[courses];
+            this.professorNames = new String[courses];
+        }
+
+        static TranscriptSnapshot of(StudentTranscriptResponse transcript) {
+            List<StudentTranscriptResponse.TranscriptEntry> entries =
+                    transcript.getCourses() != null ? transcript.getCourses() : List.of();
+            TranscriptSnapshot snapshot = new TranscriptSnapshot(transcript, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                StudentTranscriptResponse.TranscriptEntry entry = entries.get(i);
+                snapshot.courseCodes[i] = entry.getCourseCode();
+                snapshot.courseTitles[i] = entry.getCourseTitle();
+                snapshot.semesters[i] = entry.getSemester();
+                snapshot.grades[i] = entry.getGrade();
+                snapshot.credits[i] = entry.getCredits() != null ? entry.getCredits() : 0;
+                snapshot.professorNames[i] = entry.getProfessorName();
+            }
+            return snapshot;
+        }
+
+        StudentTranscriptResponse toResponse() {
+            List<StudentTranscriptResponse.TranscriptEntry> entries = new ArrayList<>(courseCodes.length);
+            for (int i = 0; i < courseCodes.length; i++) {
+                StudentTranscriptResponse.TranscriptEntry entry = new StudentTranscriptResponse.TranscriptEntry();
+                entry.setCourseCode(courseCodes[i]);
+                entry.setCourseTitle(courseTitles[i]);
+                entry.setSemester(semesters[i]);
+                entry.setGrade(grades[i]);
+                entry.setCredits(credits[i]);
+                entry.setProfessorName(professorNames[i]);
+                entries.add(entry);
+            }
+            StudentTranscriptResponse transcript = new StudentTranscriptResponse();
+            transcript.setStudentId(studentId);
+            transcript.setStudentName(studentName);
+            transcript.setEmail(email);
+            transcript.setMajor(major);
+            transcript.setGpa(gpa);
+            transcript.setTotalCredits(totalCredits);
+            transcript.setCompletedCredits(completedCredits);
+            transcript.setCourses(entries);
+            return transcript;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.ucms.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * HyperLogLog distinct counter. Each id is hashed to 64 bits; the first {@code precision} bits
+ * pick one of 2^precision registers, which keeps the longest run of leading zeros seen in the
+ * rest. Memory is one byte per register no matter how many ids are offered, the standard
+ * error is about 1.04 / sqrt(2^precision), and two sketches of the same precision merge by
+ * taking the register-wise maximum, so per-day sketches add up to weeks and months and
+ * sketches from different nodes add up to the whole cluster.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private static final byte SPARSE = 0;
+    private static final byte PACKED = 1;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between 4 and 16: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Records an id. Ids are hashed here, so sequential database ids are fine.
+     *
+     * @return true if a register changed, i.e. the estimate may have moved
+     */
+    public boolean offer(long id) {
+        long hash = hash(id);
+        int index = (int) (hash >>> (64 - precision));
+        // The sentinel bit bounds the run length when the remaining bits are all zero
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        synchronized (this) {
+            if (registers[index] >= rank) {
+                return false;
+            }
+            registers[index] = (byte) rank;
+            return true;
+        }
+    }
+
+    public synchronized long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double raw = alpha(m) * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public synchronized boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds another sketch into this one. The other sketch is left unchanged.
+     */
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of precision "
+                    + other.precision + " into " + precision);
+        }
+        byte[] theirs;
+        synchronized (other) {
+            theirs = other.registers.clone();
+        }
+        synchronized (this) {
+            for (int i = 0; i < registers.length; i++) {
+                if (theirs[i] > registers[i]) {
+                    registers[i] = theirs[i];
+                }
+            }
+        }
+        return this;
+    }
+
+    public synchronized HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * Serializes the sketch. A quiet day touches few registers, so it is written as
+     * (index, value) pairs; a busy one as 6-bit packed registers (3/4 of the in-memory size).
+     */
+    public byte[] toBytes() {
+        byte[] snapshot;
+        synchronized (this) {
+            snapshot = registers.clone();
+        }
+        int used = 0;
+        for (byte register : snapshot) {
+            if (register != 0) {
+                used++;
+            }
+        }
+        int packedSize = snapshot.length * 6 / 8;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(packedSize, used * 3 + 4) + 2);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(precision);
+            if (used * 3 + 4 < packedSize) {
+                out.writeByte(SPARSE);
+                out.writeInt(used);
+                for (int i = 0; i < snapshot.length; i++) {
+                    if (snapshot[i] != 0) {
+                        out.writeShort(i);
+                        out.writeByte(snapshot[i]);
+                    }
+                }
+            } else {
+                out.writeByte(PACKED);
+                // Four 6-bit registers per three bytes; ranks never exceed 64 - precision + 1
+                for (int i = 0; i < snapshot.length; i += 4) {
+                    int word = snapshot[i] << 18 | snapshot[i + 1] << 12 | snapshot[i + 2] << 6 | snapshot[i + 3];
+                    out.writeByte(word >>> 16);
+                    out.writeByte(word >>> 8);
+                    out.writeByte(word);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Not a serialized HyperLogLog sketch", e);
+        }
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        byte[] bytes = toBytes();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a sketch written by {@link #write(DataOutputStream)}.
+     */
+    public static HyperLogLog readFrom(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return fromBytes(bytes);
+    }
+
+    private static HyperLogLog read(DataInputStream in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog(in.readUnsignedByte());
+        byte[] registers = sketch.registers;
+        int maxRank = 64 - sketch.precision + 1;
+        byte encoding = in.readByte();
+        if (encoding == SPARSE) {
+            int used = in.readInt();
+            for (int i = 0; i < used; i++) {
+                int index = in.readUnsignedShort();
+                int rank = in.readUnsignedByte();
+                if (index >= registers.length || rank > maxRank) {
+                    throw new IOException("Register out of range");
+                }
+                registers[index] = (byte) rank;
+            }
+        } else if (encoding == PACKED) {
+            for (int i = 0; i < registers.length; i += 4) {
+                int word = in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+                registers[i] = (byte) (word >>> 18 & 0x3F);
+                registers[i + 1] = (byte) (word >>> 12 & 0x3F);
+                registers[i + 2] = (byte) (word >>> 6 & 0x3F);
+                registers[i + 3] = (byte) (word & 0x3F);
+            }
+        } else {
+            throw new IOException("Unknown encoding " + encoding);
+        }
+        return sketch;
+    }
+
+    // MurmurHash3 finalizer; spreads consecutive ids over the whole 64-bit range
+    private static long hash(long value) {
+        long h = value + 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
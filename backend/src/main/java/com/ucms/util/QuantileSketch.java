@@ -0,0 +1,211 @@
+package com.ucms.util;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch in the style of a merging t-digest. Values are buffered and
+ * periodically folded into a sorted list of weighted centroids whose size is bounded by
+ * the compression parameter, so memory stays constant no matter how many values are added.
+ * Centroids near the tails are kept small, which keeps extreme percentiles accurate.
+ */
+public class QuantileSketch {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private double[] means;
+    private long[] weights;
+    private int centroidCount;
+
+    private final double[] buffer;
+    private int bufferSize;
+
+    private long totalWeight;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public QuantileSketch(double compression) {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression * Math.PI / 2) + 8;
+        this.means = new double[capacity];
+        this.weights = new long[capacity];
+        this.buffer = new double[capacity * 4];
+    }
+
+    public synchronized void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferSize == buffer.length) {
+            flush();
+        }
+        buffer[bufferSize++] = value;
+        totalWeight++;
+        min = Double.isNaN(min) ? value : Math.min(min, value);
+        max = Double.isNaN(max) ? value : Math.max(max, value);
+    }
+
+    /**
+     * Folds another sketch into this one. The other sketch is left unchanged.
+     */
+    public void merge(QuantileSketch other) {
+        if (other == this) {
+            return;
+        }
+        double[] otherMeans;
+        long[] otherWeights;
+        int otherCount;
+        long otherTotal;
+        double otherMin;
+        double otherMax;
+        synchronized (other) {
+            other.flush();
+            otherMeans = Arrays.copyOf(other.means, other.centroidCount);
+            otherWeights = Arrays.copyOf(other.weights, other.centroidCount);
+            otherCount = other.centroidCount;
+            otherTotal = other.totalWeight;
+            otherMin = other.min;
+            otherMax = other.max;
+        }
+        if (otherTotal == 0) {
+            return;
+        }
+        synchronized (this) {
+            flush();
+            compress(otherMeans, otherWeights, otherCount);
+            totalWeight += otherTotal;
+            min = Double.isNaN(min) ? otherMin : Math.min(min, otherMin);
+            max = Double.isNaN(max) ? otherMax : Math.max(max, otherMax);
+        }
+    }
+
+    public synchronized long count() {
+        return totalWeight;
+    }
+
+    /**
+     * Estimated value at quantile {@code q} in [0, 1], or NaN if the sketch is empty.
+     */
+    public synchronized double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        flush();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+
+        double target = q * totalWeight;
+        double firstHalf = weights[0] / 2.0;
+        if (target <= firstHalf) {
+            return interpolate(min, means[0], target / firstHalf);
+        }
+        double lastHalf = weights[centroidCount - 1] / 2.0;
+        if (target >= totalWeight - lastHalf) {
+            return interpolate(means[centroidCount - 1], max, (target - (totalWeight - lastHalf)) / lastHalf);
+        }
+
+        double cumulative = firstHalf;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2.0;
+            if (target <= cumulative + gap) {
+                return interpolate(means[i], means[i + 1], (target - cumulative) / gap);
+            }
+            cumulative += gap;
+        }
+        return means[centroidCount - 1];
+    }
+
+    public synchronized QuantileSketch copy() {
+        flush();
+        QuantileSketch copy = new QuantileSketch(compression);
+        copy.means = Arrays.copyOf(means, means.length);
+        copy.weights = Arrays.copyOf(weights, weights.length);
+        copy.centroidCount = centroidCount;
+        copy.totalWeight = totalWeight;
+        copy.min = min;
+        copy.max = max;
+        return copy;
+    }
+
+    private void flush() {
+        if (bufferSize == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, bufferSize);
+        compress(buffer, null, bufferSize);
+        bufferSize = 0;
+    }
+
+    /**
+     * Merges a sorted run of (mean, weight) pairs with the existing centroids and
+     * re-clusters them. A null weight array means every incoming value has weight 1.
+     */
+    private void compress(double[] incomingMeans, long[] incomingWeights, int incomingCount) {
+        int n = centroidCount + incomingCount;
+        double[] mergedMeans = new double[n];
+        long[] mergedWeights = new long[n];
+        long total = 0;
+
+        int i = 0, j = 0, k = 0;
+        while (i < centroidCount || j < incomingCount) {
+            if (j >= incomingCount || (i < centroidCount && means[i] <= incomingMeans[j])) {
+                mergedMeans[k] = means[i];
+                mergedWeights[k] = weights[i];
+                i++;
+            } else {
+                mergedMeans[k] = incomingMeans[j];
+                mergedWeights[k] = incomingWeights == null ? 1 : incomingWeights[j];
+                j++;
+            }
+            total += mergedWeights[k];
+            k++;
+        }
+
+        int out = 0;
+        double currentMean = mergedMeans[0];
+        long currentWeight = mergedWeights[0];
+        long weightSoFar = 0;
+        for (int idx = 1; idx < n; idx++) {
+            long proposed = currentWeight + mergedWeights[idx];
+            double qLeft = (double) weightSoFar / total;
+            double qRight = (double) (weightSoFar + proposed) / total;
+            if (scale(qRight) - scale(qLeft) <= 1.0) {
+                currentMean += (mergedMeans[idx] - currentMean) * mergedWeights[idx] / proposed;
+                currentWeight = proposed;
+            } else {
+                out = emit(out, currentMean, currentWeight);
+                weightSoFar += currentWeight;
+                currentMean = mergedMeans[idx];
+                currentWeight = mergedWeights[idx];
+            }
+        }
+        centroidCount = emit(out, currentMean, currentWeight);
+    }
+
+    private int emit(int index, double mean, long weight) {
+        if (index == means.length) {
+            means = Arrays.copyOf(means, means.length * 2);
+            weights = Arrays.copyOf(weights, weights.length * 2);
+        }
+        means[index] = mean;
+        weights[index] = weight;
+        return index + 1;
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1.0, Math.max(0.0, q)) - 1);
+    }
+
+    private static double interpolate(double from, double to, double fraction) {
+        return from + (to - from) * Math.max(0.0, Math.min(1.0, fraction));
+    }
+}
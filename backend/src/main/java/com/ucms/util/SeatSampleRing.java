@@ -0,0 +1,86 @@
+package com.ucms.util;
+
+/**
+ * Fixed-size ring of seat samples for one course, held in parallel primitive arrays so a
+ * sample costs 16 bytes and no allocation. Once full, the oldest sample is overwritten.
+ */
+public class SeatSampleRing {
+
+    private final long[] timestamps;
+    private final int[] capacities;
+    private final int[] availableSeats;
+    private int head;
+    private int size;
+
+    public SeatSampleRing(int maxSamples) {
+        if (maxSamples < 1) {
+            throw new IllegalArgumentException("A sample ring needs room for at least one sample");
+        }
+        this.timestamps = new long[maxSamples];
+        this.capacities = new int[maxSamples];
+        this.availableSeats = new int[maxSamples];
+    }
+
+    /**
+     * Records a sample unless it repeats the latest one, so a course whose seats don't move
+     * keeps its older history. The series is read as a step function between samples.
+     *
+     * @return true if the sample was stored
+     */
+    public synchronized boolean add(long timestamp, int capacity, int available) {
+        if (size > 0) {
+            int last = (head + size - 1) % timestamps.length;
+            if (capacities[last] == capacity && availableSeats[last] == available) {
+                return false;
+            }
+        }
+        int slot;
+        if (size < timestamps.length) {
+            slot = (head + size) % timestamps.length;
+            size++;
+        } else {
+            slot = head;
+            head = (head + 1) % timestamps.length;
+        }
+        timestamps[slot] = timestamp;
+        capacities[slot] = capacity;
+        availableSeats[slot] = available;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Copies the samples out, oldest first.
+     */
+    public synchronized Snapshot snapshot() {
+        long[] times = new long[size];
+        int[] caps = new int[size];
+        int[] seats = new int[size];
+        for (int i = 0; i < size; i++) {
+            int slot = (head + i) % timestamps.length;
+            times[i] = timestamps[slot];
+            caps[i] = capacities[slot];
+            seats[i] = availableSeats[slot];
+        }
+        return new Snapshot(times, caps, seats);
+    }
+
+    public static final class Snapshot {
+        public final long[] timestamps;
+        public final int[] capacities;
+        public final int[] availableSeats;
+
+        public Snapshot(long[] timestamps, int[] capacities, int[] availableSeats) {
+            this.timestamps = timestamps;
+            this.capacities = capacities;
+            this.availableSeats = availableSeats;
+        }
+
+        public int size() {
+            return timestamps.length;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.ucms.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single computation. The first caller
+ * computes the value on its own thread; callers arriving while it runs wait for and share that
+ * result. A completed result can optionally be reused for a short freshness window, so a burst of
+ * identical requests costs one computation. Failures are never reused.
+ */
+public class SingleFlight<K, V> {
+
+    private static final int PURGE_THRESHOLD = 256;
+
+    private final long freshnessNanos;
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    public SingleFlight(long freshnessMillis) {
+        this.freshnessNanos = Math.max(0, freshnessMillis) * 1_000_000L;
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        if (flights.size() > PURGE_THRESHOLD) {
+            purgeStale();
+        }
+
+        Flight<V> created = new Flight<>();
+        Flight<V> flight = flights.compute(key,
+                (k, current) -> current != null && current.isReusable(freshnessNanos) ? current : created);
+        if (flight != created) {
+            return await(flight);
+        }
+
+        try {
+            V value = computation.get();
+            flight.complete(value);
+            if (freshnessNanos == 0) {
+                flights.remove(key, flight);
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private V await(Flight<V> flight) {
+        try {
+            return flight.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void purgeStale() {
+        flights.entrySet().removeIf(entry -> !entry.getValue().isReusable(freshnessNanos));
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(V value) {
+            completedAt = System.nanoTime();
+            future.complete(value);
+        }
+
+        boolean isReusable(long freshnessNanos) {
+            if (!future.isDone()) {
+                return true;
+            }
+            return !future.isCompletedExceptionally() && System.nanoTime() - completedAt < freshnessNanos;
+        }
+    }
+}
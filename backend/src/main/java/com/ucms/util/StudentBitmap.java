@@ -0,0 +1,324 @@
+package com.ucms.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of non-negative ids in the style of a roaring bitmap. Ids are split into a
+ * 16-bit chunk key and a 16-bit low part; each chunk keeps its low parts either as a sorted
+ * char array (up to 4096 ids, 2 bytes each) or as a 65536-bit bitmap once it is denser than
+ * that. Ids allocated from one sequence land in few chunks, so a semester's active students
+ * cost a few bytes each instead of a boxed Long in a HashSet.
+ *
+ * Not thread-safe; callers guard shared instances.
+ */
+public class StudentBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final TreeMap<Long, Container> chunks = new TreeMap<>();
+
+    public boolean add(long id) {
+        checkId(id);
+        long key = id >>> 16;
+        char low = (char) id;
+        Container container = chunks.get(key);
+        if (container == null) {
+            container = new ArrayContainer();
+            chunks.put(key, container);
+        }
+        if (container.contains(low)) {
+            return false;
+        }
+        chunks.put(key, container.add(low));
+        return true;
+    }
+
+    public boolean remove(long id) {
+        checkId(id);
+        long key = id >>> 16;
+        Container container = chunks.get(key);
+        if (container == null || !container.contains((char) id)) {
+            return false;
+        }
+        Container updated = container.remove((char) id);
+        if (updated.cardinality() == 0) {
+            chunks.remove(key);
+        } else {
+            chunks.put(key, updated);
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        Container container = chunks.get(id >>> 16);
+        return container != null && container.contains((char) id);
+    }
+
+    public long cardinality() {
+        long total = 0;
+        for (Container container : chunks.values()) {
+            total += container.cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * Adds every id of the other bitmap to this one.
+     */
+    public StudentBitmap or(StudentBitmap other) {
+        for (Map.Entry<Long, Container> entry : other.chunks.entrySet()) {
+            Container mine = chunks.get(entry.getKey());
+            chunks.put(entry.getKey(), mine == null ? entry.getValue().copy() : Container.fromWords(
+                    or(mine.words(), entry.getValue().words())));
+        }
+        return this;
+    }
+
+    /**
+     * Removes every id of the other bitmap from this one.
+     */
+    public StudentBitmap andNot(StudentBitmap other) {
+        for (Map.Entry<Long, Container> entry : other.chunks.entrySet()) {
+            Container mine = chunks.get(entry.getKey());
+            if (mine == null) {
+                continue;
+            }
+            Container result = Container.fromWords(andNot(mine.words(), entry.getValue().words()));
+            if (result.cardinality() == 0) {
+                chunks.remove(entry.getKey());
+            } else {
+                chunks.put(entry.getKey(), result);
+            }
+        }
+        return this;
+    }
+
+    public StudentBitmap copy() {
+        StudentBitmap copy = new StudentBitmap();
+        chunks.forEach((key, container) -> copy.chunks.put(key, container.copy()));
+        return copy;
+    }
+
+    /**
+     * Visits ids in ascending order, skipping the first {@code offset} and stopping after
+     * {@code limit}, which is how a page of a large set is read without materializing it.
+     */
+    public void forEach(long offset, long limit, LongConsumer consumer) {
+        long skipped = 0;
+        long emitted = 0;
+        for (Map.Entry<Long, Container> entry : chunks.entrySet()) {
+            int cardinality = entry.getValue().cardinality();
+            if (skipped + cardinality <= offset) {
+                skipped += cardinality;
+                continue;
+            }
+            long high = entry.getKey() << 16;
+            char[] lows = entry.getValue().toArray();
+            for (char low : lows) {
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                if (emitted >= limit) {
+                    return;
+                }
+                consumer.accept(high | low);
+                emitted++;
+            }
+        }
+    }
+
+    private static long[] or(long[] left, long[] right) {
+        long[] result = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            result[i] = left[i] | right[i];
+        }
+        return result;
+    }
+
+    private static long[] andNot(long[] left, long[] right) {
+        long[] result = new long[BITMAP_WORDS];
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            result[i] = left[i] & ~right[i];
+        }
+        return result;
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Bitmap ids must not be negative: " + id);
+        }
+    }
+
+    private abstract static class Container {
+        abstract boolean contains(char low);
+
+        // Both return the container to keep, which may have switched representation
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract int cardinality();
+
+        abstract char[] toArray();
+
+        abstract long[] words();
+
+        abstract Container copy();
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int index = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[index++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            if (size == ARRAY_LIMIT) {
+                return new BitmapContainer(words(), size).add(low);
+            }
+            int index = -Arrays.binarySearch(values, 0, size, low) - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, values.length * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = low;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, size, low);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        char[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] bits;
+        private int cardinality;
+
+        BitmapContainer(long[] bits, int cardinality) {
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (bits[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            bits[low >>> 6] |= 1L << low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            bits[low >>> 6] &= ~(1L << low);
+            cardinality--;
+            return cardinality <= ARRAY_LIMIT ? Container.fromWords(bits) : this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        char[] toArray() {
+            char[] values = new char[cardinality];
+            int index = 0;
+            for (int i = 0; i < bits.length; i++) {
+                long word = bits[i];
+                while (word != 0) {
+                    values[index++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return values;
+        }
+
+        @Override
+        long[] words() {
+            return bits;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(bits.clone(), cardinality);
+        }
+    }
+}
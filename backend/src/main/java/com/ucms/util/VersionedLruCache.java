@@ -0,0 +1,108 @@
+package com.ucms.util;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded least-recently-used cache whose entries remember the data versions they were
+ * computed at and a bit mask of the data they depend on. An entry is only returned while its
+ * versions still match, and {@link #invalidate(int)} drops exactly the entries that depend on
+ * a changed piece of data.
+ */
+public class VersionedLruCache<K, V> {
+
+    private final int maxEntries;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public VersionedLruCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > VersionedLruCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the cached value, or null if there is none or it was computed at other versions
+     */
+    public synchronized V get(K key, long[] versions) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (!Arrays.equals(entry.versions, versions)) {
+            entries.remove(key);
+            invalidations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value, long[] versions, int dependencyMask) {
+        entries.put(key, new Entry<>(value, versions.clone(), dependencyMask));
+    }
+
+    /**
+     * Removes every entry that depends on any of the given dependency bits.
+     */
+    public synchronized int invalidate(int dependencyMask) {
+        int removed = 0;
+        for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext(); ) {
+            if ((it.next().dependencyMask & dependencyMask) != 0) {
+                it.remove();
+                removed++;
+            }
+        }
+        invalidations += removed;
+        return removed;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(entries.size(), maxEntries, hits, misses, evictions, invalidations);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long[] versions;
+        private final int dependencyMask;
+
+        private Entry(V value, long[] versions, int dependencyMask) {
+            this.value = value;
+            this.versions = versions;
+            this.dependencyMask = dependencyMask;
+        }
+    }
+
+    public static final class Stats {
+        public final int size;
+        public final int maxEntries;
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long invalidations;
+
+        private Stats(int size, int maxEntries, long hits, long misses, long evictions, long invalidations) {
+            this.size = size;
+            this.maxEntries = maxEntries;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.ucms.repository;
+
+import com.ucms.entity.Course;
+import com.ucms.entity.Department;
+import com.ucms.entity.Enrollment;
+import com.ucms.entity.Professor;
+import com.ucms.entity.Semester;
+import com.ucms.entity.Student;
+import com.ucms.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Transcripts, schedules and rosters walk each enrollment's student and course graph. These
+ * tests load that graph through the fetch-join finders and fail if it takes more than the one
+ * statement, e.g. when a new eager association is added without being fetched.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // students.year is a keyword in H2
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class EnrollmentRepositoryQueryCountTest {
+
+    private static final int STUDENTS = 3;
+    private static final int COURSES = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private Statistics statistics;
+    private Long studentId;
+    private Long courseId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Department department = new Department();
+        department.setName("Computer Science");
+        entityManager.persist(department);
+
+        Semester semester = new Semester();
+        semester.setName("Fall 2025");
+        entityManager.persist(semester);
+
+        Professor professor = new Professor();
+        professor.setUser(user("prof", User.Role.PROFESSOR));
+        professor.setEmployeeId("PROF1");
+        professor.setName("Professor");
+        professor.setEmail("prof@university.edu");
+        professor.setDepartment(department);
+        entityManager.persist(professor);
+
+        Course[] courses = new Course[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            Course course = new Course();
+            course.setCode("CS10" + c);
+            course.setTitle("Course " + c);
+            course.setSemester(semester);
+            course.setProfessor(professor);
+            course.setDepartment(department);
+            courses[c] = entityManager.persist(course);
+        }
+
+        for (int s = 0; s < STUDENTS; s++) {
+            Student student = new Student();
+            student.setUser(user("student" + s, User.Role.STUDENT));
+            student.setStudentId("STU" + s);
+            student.setName("Student " + s);
+            student.setEmail("student" + s + "@university.edu");
+            entityManager.persist(student);
+            for (Course course : courses) {
+                Enrollment enrollment = new Enrollment();
+                enrollment.setStudent(student);
+                enrollment.setCourse(course);
+                enrollment.setEnrollmentDate(LocalDateTime.now().minusDays(s));
+                entityManager.persist(enrollment);
+            }
+            studentId = student.getId();
+        }
+        courseId = courses[0].getId();
+
+        // Nothing may come from the persistence context; every load below reads the database
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void transcriptAndScheduleLoadInOneStatement() {
+        List<Enrollment> enrollments = countStatements(1, () -> enrollmentRepository.findWithCoursesByStudentId(studentId));
+        assertEquals(COURSES, enrollments.size());
+    }
+
+    @Test
+    void rosterLoadsInOneStatement() {
+        List<Enrollment> enrollments = countStatements(1, () -> enrollmentRepository.findWithStudentsByCourseId(courseId));
+        assertEquals(STUDENTS, enrollments.size());
+    }
+
+    @Test
+    void professorRosterLoadsInOneStatement() {
+        List<Enrollment> enrollments = countStatements(1,
+                () -> enrollmentRepository.findWithStudentsByCourseIdOrderByEnrollmentDateDesc(courseId));
+        assertEquals(STUDENTS, enrollments.size());
+    }
+
+    // Runs the load and touches everything the views read, then checks the statements it took
+    private List<Enrollment> countStatements(long expected, Supplier<List<Enrollment>> load) {
+        statistics.clear();
+        List<Enrollment> enrollments = load.get();
+        for (Enrollment enrollment : enrollments) {
+            enrollment.getStudent().getUser().getUsername();
+            Course course = enrollment.getCourse();
+            course.getSemesterName();
+            course.getDepartmentName();
+            course.getProfessor().getUser().getUsername();
+            course.getProfessor().getDepartmentName();
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        return enrollments;
+    }
+
+    private User user(String username, User.Role role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("hash");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}